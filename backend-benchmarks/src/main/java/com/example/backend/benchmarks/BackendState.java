@@ -0,0 +1,89 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.Patient;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.CounterStatus;
+import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.entity.enums.TokenPriority;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.PatientRepository;
+import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.repository.TokenRepository;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Boots the real application once per fork against the embedded database
+ * (profile "bench") and seeds one department with a waiting queue.
+ */
+@State(Scope.Benchmark)
+public class BackendState {
+
+    static final int WAITING_TOKENS = 200;
+
+    ConfigurableApplicationContext context;
+    ServiceType service;
+    Counter doctor;
+    Token lastWaiting;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles("bench")
+                .run();
+
+        ServiceType s = new ServiceType();
+        s.setName("General");
+        s.setAvgServiceTime(10);
+        service = bean(ServiceTypeRepository.class).save(s);
+
+        Counter c = new Counter();
+        c.setName("Dr Bench");
+        c.setStatus(CounterStatus.OPEN);
+        c.setAvailability(DoctorAvailability.AVAILABLE);
+        c.setDepartments(Set.of(service));
+        doctor = bean(CounterRepository.class).save(c);
+
+        PatientRepository patients = bean(PatientRepository.class);
+        TokenRepository tokens = bean(TokenRepository.class);
+        LocalDateTime start = LocalDateTime.now().minusHours(2);
+
+        for (int i = 0; i < WAITING_TOKENS; i++) {
+            Patient p = new Patient();
+            p.setName("Patient " + i);
+            p.setPhone("90000" + String.format("%05d", i));
+            p = patients.save(p);
+
+            Token t = new Token();
+            t.setPatient(p);
+            t.setServiceType(service);
+            t.setTokenNumber("G" + (100 + i));
+            t.setPriorityType(TokenPriority.NORMAL);
+            t.setApproved(true);
+            t.setStatus(TokenStatus.WAITING);
+            t.setCreatedAt(start.plusSeconds(i * 30L));
+            lastWaiting = tokens.save(t);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.service.EtaService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EtaBenchmark {
+
+    // Worst case: the last token in a 200-deep queue
+    @Benchmark
+    public long calculateEtaMinutes(BackendState state) {
+        return state.bean(EtaService.class).calculateEtaMinutes(state.service, state.lastWaiting);
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.security.JwtUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JwtBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Jwt {
+        JwtUtil jwtUtil;
+        UserDetails user;
+        String token;
+
+        @Setup(Level.Trial)
+        public void setup(BackendState state) {
+            jwtUtil = state.bean(JwtUtil.class);
+            user = User.withUsername("staff1").password("x").roles("STAFF").build();
+            token = jwtUtil.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public String generate(Jwt jwt) {
+        return jwt.jwtUtil.generateToken(jwt.user);
+    }
+
+    @Benchmark
+    public String extractUsername(Jwt jwt) {
+        return jwt.jwtUtil.extractUsername(jwt.token);
+    }
+
+    // What JwtAuthenticationFilter does per request: parse twice + compare
+    @Benchmark
+    public boolean validate(Jwt jwt) {
+        return jwt.jwtUtil.isTokenValid(jwt.token, jwt.user);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.search.PatientIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Front-desk lookups against 1M synthetic patients. First names are built
+ * from a small syllable set and surnames follow a Zipf distribution (the
+ * most common one is on ~16% of patients), which makes name trigrams far
+ * more skewed than real data.
+ */
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class PatientSearchBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ra", "vi", "an", "ni", "ta", "jo", "na", "than", "pri", "ya", "mo", "ham", "med", "su",
+            "deep", "a", "ku", "mar", "ka", "vya", "ga", "nesh", "ne", "ha", "la", "kshmi", "jay",
+            "mee", "di", "sho", "po", "ja", "ar", "jun", "hul", "sa", "mi", "ri", "shan", "dev"
+    };
+
+    @Param({"1000000"})
+    int patients;
+
+    @Param({"98765", "9123456780", "MRN12345", "ravi kumar", "ravix kumarb", "jonatan", "deepaka singh"})
+    String query;
+
+    PatientIndex index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        String[] surnames = new String[300];
+        surnames[0] = "kumar";
+        surnames[1] = "singh";
+        surnames[2] = "sharma";
+        surnames[3] = "patel";
+        Random names = new Random(7);
+        for (int i = 4; i < surnames.length; i++) {
+            surnames[i] = syllable(names) + syllable(names) + syllable(names);
+        }
+        double[] cdf = new double[surnames.length];
+        double total = 0;
+        for (int i = 0; i < cdf.length; i++) {
+            total += 1.0 / (i + 1);
+            cdf[i] = total;
+        }
+
+        Random random = new Random(1);
+        index = new PatientIndex();
+        for (int i = 0; i < patients; i++) {
+            String first = syllable(random) + syllable(random) + (random.nextBoolean() ? syllable(random) : "");
+            double u = random.nextDouble() * total;
+            int surname = 0;
+            while (cdf[surname] < u) {
+                surname++;
+            }
+            index.put(i + 1, first + " " + surnames[surname],
+                    String.valueOf(9_000_000_000L + random.nextInt(999_999_999)), "MRN" + i);
+        }
+    }
+
+    private static String syllable(Random random) {
+        return SYLLABLES[random.nextInt(SYLLABLES.length)];
+    }
+
+    @Benchmark
+    public List<PatientIndex.Hit> search() {
+        return index.search(query, 10);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.entity.Token;
+import com.example.backend.service.QueueService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueueBenchmark {
+
+    // Read-only: the head of the department lane is returned, not claimed
+    @Benchmark
+    public Token getNextToken(BackendState state) {
+        return state.bean(QueueService.class).getNextToken(state.service, state.doctor);
+    }
+
+    @Benchmark
+    public long getWaitingCount(BackendState state) {
+        return state.bean(QueueService.class).getWaitingCount(state.service.getId());
+    }
+}
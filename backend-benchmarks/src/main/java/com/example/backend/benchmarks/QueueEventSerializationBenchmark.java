@@ -0,0 +1,55 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.websocket.QueueEvent;
+import com.example.backend.websocket.QueueEventEnvelope;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost of a queue event: once per STOMP destination locally, and once
+ * more (wrapped in an envelope) when the Postgres event bus is enabled.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class QueueEventSerializationBenchmark {
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+
+    private final QueueEvent event = new QueueEvent(
+            "TOKEN_CALLED", "G142", "Dr Bench", "General", "SERVING");
+
+    private final QueueEventEnvelope envelope = new QueueEventEnvelope(
+            "4f1c2a8e-7f55-4a43-9d8b-1f0c6f0e9a10", "node-a",
+            "/topic/display-board", 1_700_000_000_000L, event);
+
+    private final String envelopeJson = mapper.writeValueAsString(envelope);
+
+    @Benchmark
+    public String serializeEvent() {
+        return mapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serializeEnvelope() {
+        return mapper.writeValueAsString(envelope);
+    }
+
+    @Benchmark
+    public QueueEventEnvelope deserializeEnvelope() {
+        return mapper.readValue(envelopeJson, QueueEventEnvelope.class);
+    }
+}
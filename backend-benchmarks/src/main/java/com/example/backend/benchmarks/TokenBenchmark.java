@@ -0,0 +1,55 @@
+package com.example.backend.benchmarks;
+
+import com.example.backend.dto.CreatePatientDto;
+import com.example.backend.dto.CreatePatientTokenRequest;
+import com.example.backend.entity.Token;
+import com.example.backend.service.TokenService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Kiosk token creation, including patient lookup and token numbering
+ * (generateTokenNumber is private, so it is measured through this path).
+ * Every invocation inserts a row, so the tokens table grows during the run
+ * just like it does over a clinic day.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenBenchmark {
+
+    @State(Scope.Thread)
+    public static class Requests {
+        int next;
+
+        CreatePatientTokenRequest next(BackendState state) {
+            // returning patients: reuse the seeded phone numbers
+            int i = next++ % BackendState.WAITING_TOKENS;
+
+            CreatePatientDto patient = new CreatePatientDto();
+            patient.setName("Patient " + i);
+            patient.setPhone("90000" + String.format("%05d", i));
+
+            CreatePatientTokenRequest req = new CreatePatientTokenRequest();
+            req.setPatient(patient);
+            req.setServiceTypeId(state.service.getId());
+            return req;
+        }
+    }
+
+    @Benchmark
+    public Token createPatientToken(BackendState state, Requests requests) {
+        return state.bean(TokenService.class).createPatientToken(requests.next(state));
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.backend.benchmarks.dispatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+/**
+ * Discrete-event model of one department comparing the old auto-assignment
+ * (first AVAILABLE doctor, as findFirstByDepartmentsContainsAndAvailability
+ * returns it) with least-loaded dispatch.
+ *
+ * It mirrors the backend's rules: an assigned token waits in the doctor's own
+ * lane and flips the doctor to BUSY; completing a token flips them back to
+ * AVAILABLE even if they go on to serve someone else; a free doctor calls
+ * their lane first, then the department queue. Doctors work at different
+ * speeds, so "available" says nothing about whether they are idle.
+ *
+ *   mvn -pl backend-benchmarks exec:java@dispatch -Dexec.args="--days=500 --utilisation=0.85"
+ */
+public class DispatchSimulation {
+
+    enum Policy { FIRST_AVAILABLE, LEAST_LOADED }
+
+    private static final double[] MEAN_SERVICE_MINUTES = {6, 8, 10, 14};
+    private static final int MAX_PATIENTS_PER_DAY = 60;
+    private static final double DAY_MINUTES = 8 * 60;
+
+    public static void main(String[] args) {
+        int days = 500;
+        double utilisation = 0.85;
+        long seed = 42;
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            switch (kv[0]) {
+                case "days" -> days = Integer.parseInt(kv[1]);
+                case "utilisation" -> utilisation = Double.parseDouble(kv[1]);
+                case "seed" -> seed = Long.parseLong(kv[1]);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        System.out.printf("%d doctors (mean service %s min), utilisation %.2f, %d simulated days%n",
+                MEAN_SERVICE_MINUTES.length, Arrays.toString(MEAN_SERVICE_MINUTES), utilisation, days);
+        System.out.printf("%-16s %12s %12s %12s   %s%n", "policy", "mean wait", "p90 wait", "p99 wait", "served per doctor");
+
+        for (Policy policy : Policy.values()) {
+            // same seed per policy: both see identical arrivals and service times
+            Random random = new Random(seed);
+            List<Double> waits = new ArrayList<>();
+            long[] served = new long[MEAN_SERVICE_MINUTES.length];
+            for (int d = 0; d < days; d++) {
+                new Day(policy, utilisation, random, waits, served).run();
+            }
+            Collections.sort(waits);
+            double mean = waits.stream().mapToDouble(Double::doubleValue).average().orElse(0);
+            System.out.printf("%-16s %10.1f m %10.1f m %10.1f m   %s%n",
+                    policy, mean, quantile(waits, 0.9), quantile(waits, 0.99),
+                    Arrays.toString(served));
+        }
+    }
+
+    private static double quantile(List<Double> sorted, double q) {
+        return sorted.isEmpty() ? 0 : sorted.get((int) Math.floor(q * (sorted.size() - 1)));
+    }
+
+    private static final class Doctor {
+        final int id;
+        final double meanService;
+        boolean available = true;
+        Patient serving;
+        final Deque<Patient> lane = new ArrayDeque<>();
+        int servedToday;
+        long lastAssigned;
+
+        Doctor(int id, double meanService) {
+            this.id = id;
+            this.meanService = meanService;
+        }
+
+        int queued() {
+            return lane.size() + (serving != null ? 1 : 0);
+        }
+
+        double dailyShare() {
+            return (double) servedToday / MAX_PATIENTS_PER_DAY;
+        }
+    }
+
+    private static final class Patient {
+        final double arrivedAt;
+        final double serviceDraw;      // Exp(1), scaled by whichever doctor serves
+
+        Patient(double arrivedAt, double serviceDraw) {
+            this.arrivedAt = arrivedAt;
+            this.serviceDraw = serviceDraw;
+        }
+    }
+
+    private record Event(double at, Doctor completes, Patient arrives) {
+    }
+
+    private static final class Day {
+        final Policy policy;
+        final Random random;
+        final List<Double> waits;
+        final long[] served;
+        final List<Doctor> doctors = new ArrayList<>();
+        final Deque<Patient> department = new ArrayDeque<>();
+        final PriorityQueue<Event> events = new PriorityQueue<>((a, b) -> Double.compare(a.at, b.at));
+        final double arrivalRate;
+        long assignments;
+
+        Day(Policy policy, double utilisation, Random random, List<Double> waits, long[] served) {
+            this.policy = policy;
+            this.random = random;
+            this.waits = waits;
+            this.served = served;
+            double capacityPerMinute = 0;
+            for (int i = 0; i < MEAN_SERVICE_MINUTES.length; i++) {
+                doctors.add(new Doctor(i, MEAN_SERVICE_MINUTES[i]));
+                capacityPerMinute += 1 / MEAN_SERVICE_MINUTES[i];
+            }
+            // row order in the counters table says nothing about speed
+            Collections.shuffle(doctors, random);
+            this.arrivalRate = utilisation * capacityPerMinute;
+        }
+
+        void run() {
+            for (double t = exp(1 / arrivalRate); t < DAY_MINUTES; t += exp(1 / arrivalRate)) {
+                events.add(new Event(t, null, new Patient(t, exp(1))));
+            }
+            Event e;
+            while ((e = events.poll()) != null) {
+                if (e.arrives != null) {
+                    arrive(e.at, e.arrives);
+                } else {
+                    complete(e.at, e.completes);
+                }
+            }
+        }
+
+        void arrive(double now, Patient patient) {
+            Doctor doctor = pick();
+            if (doctor == null) {
+                department.add(patient);
+            } else {
+                doctor.available = false;
+                doctor.lastAssigned = ++assignments;
+                doctor.lane.add(patient);
+            }
+            doctors.forEach(d -> callNext(now, d));
+        }
+
+        void complete(double now, Doctor doctor) {
+            doctor.serving = null;
+            doctor.servedToday++;
+            served[doctor.id]++;
+            doctor.available = true;
+            callNext(now, doctor);
+        }
+
+        void callNext(double now, Doctor doctor) {
+            if (doctor.serving != null) {
+                return;
+            }
+            Patient next = doctor.lane.isEmpty() ? department.poll() : doctor.lane.poll();
+            if (next == null) {
+                return;
+            }
+            waits.add(now - next.arrivedAt);
+            doctor.serving = next;
+            events.add(new Event(now + next.serviceDraw * doctor.meanService, doctor, null));
+        }
+
+        Doctor pick() {
+            Doctor best = null;
+            for (Doctor d : doctors) {
+                if (!d.available) {
+                    continue;
+                }
+                if (policy == Policy.FIRST_AVAILABLE) {
+                    return d;
+                }
+                if (d.queued() + d.servedToday >= MAX_PATIENTS_PER_DAY) {
+                    continue;
+                }
+                if (best == null || compare(d, best) < 0) {
+                    best = d;
+                }
+            }
+            return best;
+        }
+
+        // same ordering as the backend's LoadHeap
+        static int compare(Doctor a, Doctor b) {
+            int byQueue = Integer.compare(a.queued(), b.queued());
+            if (byQueue != 0) {
+                return byQueue;
+            }
+            int byShare = Double.compare(a.dailyShare(), b.dailyShare());
+            return byShare != 0 ? byShare : Long.compare(a.lastAssigned, b.lastAssigned);
+        }
+
+        double exp(double mean) {
+            return -mean * Math.log(1 - random.nextDouble());
+        }
+    }
+}
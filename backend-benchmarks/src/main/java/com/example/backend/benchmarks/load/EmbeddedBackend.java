@@ -0,0 +1,78 @@
+package com.example.backend.benchmarks.load;
+
+import com.example.backend.BackendApplication;
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.User;
+import com.example.backend.entity.enums.CounterStatus;
+import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.entity.enums.Role;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Set;
+
+/**
+ * Starts the real backend in-process on the embedded database ("bench"
+ * profile, random port) with three departments, two doctors each and the
+ * default staff/admin logins of SimulationConfig.
+ */
+final class EmbeddedBackend {
+
+    private EmbeddedBackend() {
+    }
+
+    static ConfigurableApplicationContext start(String... extraProfiles) {
+        String[] profiles = new String[extraProfiles.length + 1];
+        profiles[0] = "bench";
+        System.arraycopy(extraProfiles, 0, profiles, 1, extraProfiles.length);
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .profiles(profiles)
+                .run();
+        seed(context);
+        return context;
+    }
+
+    static String baseUrl(ConfigurableApplicationContext context) {
+        return "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+    }
+
+    private static void seed(ConfigurableApplicationContext context) {
+        ServiceTypeRepository services = context.getBean(ServiceTypeRepository.class);
+        CounterRepository counters = context.getBean(CounterRepository.class);
+        UserRepository users = context.getBean(UserRepository.class);
+        PasswordEncoder encoder = context.getBean(PasswordEncoder.class);
+
+        for (String name : new String[]{"General", "Cardiology", "Pediatrics"}) {
+            ServiceType s = new ServiceType();
+            s.setName(name);
+            s.setAvgServiceTime(8);
+            s = services.save(s);
+
+            for (int i = 1; i <= 2; i++) {
+                Counter c = new Counter();
+                c.setName("Dr " + name + " " + i);
+                c.setStatus(CounterStatus.OPEN);
+                c.setAvailability(DoctorAvailability.AVAILABLE);
+                c.setDepartments(Set.of(s));
+                counters.save(c);
+            }
+        }
+
+        users.save(user("admin", encoder.encode("admin123"), Role.ADMIN));
+        users.save(user("staff", encoder.encode("staff123"), Role.STAFF));
+    }
+
+    private static User user(String username, String password, Role role) {
+        User u = new User();
+        u.setUsername(username);
+        u.setPassword(password);
+        u.setRole(role);
+        return u;
+    }
+}
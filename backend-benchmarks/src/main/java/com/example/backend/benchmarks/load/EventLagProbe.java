@@ -0,0 +1,105 @@
+package com.example.backend.benchmarks.load;
+
+import com.example.backend.websocket.QueueEvent;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Subscribes a few display-board clients over STOMP and measures how long
+ * after the triggering HTTP request was sent each event reaches them.
+ *
+ * Events carry no timestamp, so they are matched on "TYPE:tokenNumber". The
+ * HTTP response and the event can arrive in either order (events are
+ * published before the transaction commits), so whichever side arrives
+ * second computes the lag.
+ */
+class EventLagProbe {
+
+    private final LatencyRecorder recorder;
+    private final List<StompSession> sessions = new ArrayList<>();
+
+    // "TYPE:tokenNumber" -> request start and/or arrivals seen before it
+    private final Map<String, Pairing> pairings = new ConcurrentHashMap<>();
+
+    EventLagProbe(LatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    void connect(String baseUrl, int subscribers) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new JacksonJsonMessageConverter());
+
+        // /ws is registered with SockJS; its raw websocket transport lives at /ws/websocket
+        String url = baseUrl.replaceFirst("^http", "ws") + "/ws/websocket";
+
+        for (int i = 0; i < subscribers; i++) {
+            StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() { })
+                    .get(10, TimeUnit.SECONDS);
+            session.subscribe("/topic/display-board", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return QueueEvent.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    onEvent((QueueEvent) payload);
+                }
+            });
+            sessions.add(session);
+        }
+    }
+
+    /**
+     * Called by the driver once the HTTP response names the token the event
+     * will be about; requestStart is System.nanoTime() before the request.
+     */
+    void expect(String type, String tokenNumber, long requestStart) {
+        if (sessions.isEmpty() || tokenNumber == null) {
+            return;
+        }
+        pairings.compute(type + ":" + tokenNumber, (key, p) -> {
+            Pairing pairing = p != null ? p : new Pairing();
+            pairing.requestStart = requestStart;
+            for (long arrived : pairing.earlyArrivals) {
+                recorder.record("event " + type, arrived - requestStart, true);
+            }
+            pairing.earlyArrivals.clear();
+            return pairing;
+        });
+    }
+
+    private void onEvent(QueueEvent event) {
+        long now = System.nanoTime();
+        pairings.compute(event.getType() + ":" + event.getTokenNumber(), (key, p) -> {
+            Pairing pairing = p != null ? p : new Pairing();
+            if (pairing.requestStart != null) {
+                recorder.record("event " + event.getType(), now - pairing.requestStart, true);
+            } else {
+                pairing.earlyArrivals.add(now);
+            }
+            return pairing;
+        });
+    }
+
+    private static class Pairing {
+        Long requestStart;
+        final List<Long> earlyArrivals = new ArrayList<>(2);
+    }
+
+    void close() {
+        sessions.forEach(StompSession::disconnect);
+    }
+}
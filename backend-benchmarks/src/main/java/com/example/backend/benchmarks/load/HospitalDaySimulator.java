@@ -0,0 +1,262 @@
+package com.example.backend.benchmarks.load;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Replays a compressed hospital day against the real REST and STOMP endpoints:
+ * kiosk arrivals following the configured curve, urgent arrivals approved by
+ * an admin, one call-next/complete/skip loop per open doctor, and patients
+ * polling their ETA. Reports throughput and p50/p99/p999 per endpoint plus
+ * event delivery lag to display-board subscribers.
+ *
+ * Against a running backend (local Postgres):
+ *   mvn -pl backend-benchmarks exec:java@simulate \
+ *       -Dexec.args="--base-url=http://localhost:8080 --kiosks=2000"
+ * Self-contained on the embedded database: --embedded=true
+ *
+ * Platform vs virtual threads at 2,000 concurrent kiosks (Java 21, same
+ * machine, one run each; an arrival rate above what the backend serves keeps
+ * every kiosk thread in flight):
+ *   mvn -pl backend-benchmarks exec:java@simulate -Dexec.args="--embedded=true
+ *       --kiosks=2000 --curve=8=2000000,9=0 --report=target/load-report-platform.json"
+ *   the same with --profile=virtual --report=target/load-report-virtual.json
+ */
+public class HospitalDaySimulator {
+
+    private static final int RECENT_TOKENS = 256;
+
+    private final SimulationConfig config;
+    private final String baseUrl;
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final QueueApiClient api;
+    private final EventLagProbe probe;
+
+    private final AtomicLong arrivals = new AtomicLong();
+    private final AtomicReferenceArray<Long> recentTokens = new AtomicReferenceArray<>(RECENT_TOKENS);
+    private volatile boolean dayOver;
+    private volatile boolean stopped;
+    private long startNanos;
+
+    HospitalDaySimulator(SimulationConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.api = new QueueApiClient(baseUrl, recorder);
+        this.probe = new EventLagProbe(recorder);
+    }
+
+    public static void main(String[] args) throws Exception {
+        SimulationConfig config = SimulationConfig.parse(args);
+
+        ConfigurableApplicationContext embedded = !config.embedded ? null
+                : config.profile.isEmpty() ? EmbeddedBackend.start()
+                : EmbeddedBackend.start(config.profile.split(","));
+        String baseUrl = embedded != null ? EmbeddedBackend.baseUrl(embedded) : config.baseUrl;
+        try {
+            new HospitalDaySimulator(config, baseUrl).run();
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+
+    void run() throws Exception {
+        String staffJwt = api.login(config.staffUser, config.staffPassword);
+        String adminJwt = api.login(config.adminUser, config.adminPassword);
+
+        List<Long> serviceIds = new ArrayList<>();
+        api.services().forEach(s -> serviceIds.add(s.get("id").asLong()));
+
+        probe.connect(baseUrl, config.subscribers);
+
+        ExecutorService kiosks = Executors.newFixedThreadPool(config.kiosks);
+        ScheduledExecutorService background = Executors.newScheduledThreadPool(4);
+        List<Thread> staff = startStaff(staffJwt);
+
+        long etaPeriodMicros = (long) (1_000_000 / Math.max(config.etaPollsPerSecond, 0.001));
+        background.scheduleAtFixedRate(this::pollEta, etaPeriodMicros, etaPeriodMicros, TimeUnit.MICROSECONDS);
+
+        startNanos = System.nanoTime();
+        generateArrivals(serviceIds, kiosks, background, adminJwt);
+
+        // stop arrivals, let the doctors drain what is left for a bit
+        dayOver = true;
+        kiosks.shutdown();
+        kiosks.awaitTermination(1, TimeUnit.MINUTES);
+        Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+        stopped = true;
+        for (Thread t : staff) {
+            t.join(TimeUnit.SECONDS.toMillis(15));
+        }
+        background.shutdownNow();
+        probe.close();
+
+        report((System.nanoTime() - startNanos) / 1e9);
+    }
+
+    // -------------------------------
+    // ARRIVALS
+    // -------------------------------
+
+    private void generateArrivals(List<Long> serviceIds, ExecutorService kiosks,
+                                  ScheduledExecutorService background, String adminJwt)
+            throws InterruptedException {
+        long tickMillis = 100;
+        double simulatedSecondsPerTick = tickMillis / 1000.0 * config.speed;
+
+        while (simulatedHour() < config.closeHour()) {
+            double mean = config.arrivalsPerHour(simulatedHour()) / 3600.0 * simulatedSecondsPerTick;
+            int n = poisson(mean);
+            for (int i = 0; i < n; i++) {
+                long serviceId = serviceIds.get(ThreadLocalRandom.current().nextInt(serviceIds.size()));
+                boolean urgent = ThreadLocalRandom.current().nextDouble() < config.emergencyRate;
+                kiosks.submit(() -> arrive(serviceId, urgent, background, adminJwt));
+            }
+            Thread.sleep(tickMillis);
+        }
+    }
+
+    private void arrive(long serviceId, boolean urgent, ScheduledExecutorService background, String adminJwt) {
+        long n = arrivals.incrementAndGet();
+        long start = System.nanoTime();
+        JsonNode token = api.createPatientToken("Sim Patient " + n, String.format("7%09d", n), serviceId, urgent);
+        if (token == null) {
+            return;
+        }
+        long tokenId = token.get("id").asLong();
+        recentTokens.set((int) (n % RECENT_TOKENS), tokenId);
+
+        if (urgent) {
+            probe.expect("EMERGENCY_CREATED", token.get("tokenNumber").asString(), start);
+            // an admin looks at the emergency list a couple of simulated minutes later
+            long delayMillis = (long) (120_000 / config.speed);
+            background.schedule(() -> {
+                long approveStart = System.nanoTime();
+                JsonNode approved = api.approveEmergency(adminJwt, tokenId);
+                if (approved != null) {
+                    probe.expect("EMERGENCY_APPROVED", approved.get("tokenNumber").asString(), approveStart);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void pollEta() {
+        Long tokenId = recentTokens.get(ThreadLocalRandom.current().nextInt(RECENT_TOKENS));
+        if (tokenId != null && !stopped) {
+            api.eta(tokenId);
+        }
+    }
+
+    // -------------------------------
+    // STAFF
+    // -------------------------------
+
+    private List<Thread> startStaff(String staffJwt) {
+        List<Thread> threads = new ArrayList<>();
+        for (JsonNode counter : api.counters(staffJwt)) {
+            if (!"OPEN".equals(counter.path("status").asString())) {
+                continue;
+            }
+            List<Long> departments = new ArrayList<>();
+            counter.path("departments").forEach(d -> departments.add(d.get("id").asLong()));
+            if (departments.isEmpty()) {
+                continue;
+            }
+            long counterId = counter.get("id").asLong();
+            Thread t = new Thread(() -> serve(staffJwt, counterId, departments), "staff-" + counterId);
+            t.setDaemon(true);
+            t.start();
+            threads.add(t);
+        }
+        return threads;
+    }
+
+    private void serve(String jwt, long counterId, List<Long> departments) {
+        int next = 0;
+        while (!stopped) {
+            long serviceId = departments.get(next++ % departments.size());
+            long start = System.nanoTime();
+            JsonNode token = api.callNext(jwt, counterId, serviceId);
+            if (token == null) {
+                // empty queue (or doctor still serving): poll again shortly
+                sleep(200);
+                continue;
+            }
+            probe.expect("TOKEN_CALLED", token.path("tokenNumber").asString(), start);
+
+            double serviceMinutes = -Math.log(1 - ThreadLocalRandom.current().nextDouble()) * config.meanServiceMinutes;
+            sleep((long) (serviceMinutes * 60_000 / config.speed));
+
+            long tokenId = token.get("id").asLong();
+            if (ThreadLocalRandom.current().nextDouble() < config.skipRate) {
+                api.skip(jwt, tokenId);
+            } else {
+                long completeStart = System.nanoTime();
+                if (api.complete(jwt, tokenId)) {
+                    probe.expect("TOKEN_COMPLETED", token.path("tokenNumber").asString(), completeStart);
+                }
+            }
+        }
+    }
+
+    // -------------------------------
+    // REPORT
+    // -------------------------------
+
+    private void report(double elapsedSeconds) {
+        Map<String, LatencyRecorder.Summary> summary = recorder.summarize(elapsedSeconds);
+
+        System.out.printf("%nSimulated day %d:00-%d:00 at %.0fx in %.1f s, %d arrivals%n",
+                config.openHour(), config.closeHour(), config.speed, elapsedSeconds, arrivals.get());
+        System.out.printf("%-48s %8s %7s %9s %9s %9s %9s%n",
+                "endpoint / event", "count", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms");
+        summary.forEach((name, s) -> System.out.printf("%-48s %8d %7d %9.1f %9.2f %9.2f %9.2f%n",
+                name, s.count(), s.errors(), s.throughputPerSec(), s.p50Ms(), s.p99Ms(), s.p999Ms()));
+        System.out.println("(call-next errors include polls against an empty queue)");
+
+        File out = new File(config.reportFile);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(out, summary);
+        System.out.println("Report written to " + out.getAbsolutePath());
+    }
+
+    private double simulatedHour() {
+        double elapsedSimSeconds = (System.nanoTime() - startNanos) / 1e9 * config.speed;
+        return config.openHour() + elapsedSimSeconds / 3600.0;
+    }
+
+    private static int poisson(double mean) {
+        double l = Math.exp(-mean);
+        double p = 1;
+        int k = 0;
+        do {
+            k++;
+            p *= ThreadLocalRandom.current().nextDouble();
+        } while (p > l);
+        return k - 1;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.backend.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects raw latencies per endpoint (or per event type) and summarises
+ * them as throughput and p50/p99/p999. Raw samples are kept so percentiles
+ * are exact; a simulated day is a few hundred thousand samples at most.
+ */
+class LatencyRecorder {
+
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    void record(String name, long nanos, boolean success) {
+        series.computeIfAbsent(name, n -> new Series()).add(nanos, success);
+    }
+
+    Map<String, Summary> summarize(double elapsedSeconds) {
+        Map<String, Summary> out = new LinkedHashMap<>();
+        series.keySet().stream().sorted().forEach(name ->
+                out.put(name, series.get(name).summarize(elapsedSeconds)));
+        return out;
+    }
+
+    record Summary(long count, long errors, double throughputPerSec,
+                   double p50Ms, double p99Ms, double p999Ms, double maxMs) {
+    }
+
+    private static class Series {
+        private long[] samples = new long[1024];
+        private int size;
+        private final AtomicLong errors = new AtomicLong();
+
+        synchronized void add(long nanos, boolean success) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, size * 2);
+            }
+            samples[size++] = nanos;
+            if (!success) {
+                errors.incrementAndGet();
+            }
+        }
+
+        synchronized Summary summarize(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(samples, size);
+            Arrays.sort(sorted);
+            return new Summary(
+                    size,
+                    errors.get(),
+                    elapsedSeconds > 0 ? size / elapsedSeconds : 0,
+                    percentile(sorted, 0.50),
+                    percentile(sorted, 0.99),
+                    percentile(sorted, 0.999),
+                    size == 0 ? 0 : sorted[size - 1] / 1e6
+            );
+        }
+
+        private static double percentile(long[] sorted, double q) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int idx = (int) Math.ceil(q * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(idx, sorted.length - 1))] / 1e6;
+        }
+    }
+}
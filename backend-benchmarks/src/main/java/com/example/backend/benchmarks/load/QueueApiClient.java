@@ -0,0 +1,121 @@
+package com.example.backend.benchmarks.load;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/**
+ * Thin client for the endpoints the simulated day drives. Every call is
+ * timed into the recorder under a stable endpoint name.
+ */
+class QueueApiClient {
+
+    private final String baseUrl;
+    private final LatencyRecorder recorder;
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    QueueApiClient(String baseUrl, LatencyRecorder recorder) {
+        this.baseUrl = baseUrl;
+        this.recorder = recorder;
+    }
+
+    String login(String username, String password) {
+        ObjectNode body = mapper.createObjectNode()
+                .put("username", username)
+                .put("password", password);
+        JsonNode res = send("POST /api/auth/login", "POST", "/api/auth/login", body, null);
+        if (res == null) {
+            throw new IllegalStateException("Login failed for " + username);
+        }
+        return res.get("token").asString();
+    }
+
+    JsonNode services() {
+        return send("GET /api/services", "GET", "/api/services", null, null);
+    }
+
+    JsonNode counters(String jwt) {
+        return send("GET /api/admin/counters", "GET", "/api/admin/counters", null, jwt);
+    }
+
+    JsonNode createPatientToken(String name, String phone, long serviceId, boolean urgent) {
+        ObjectNode patient = mapper.createObjectNode()
+                .put("name", name)
+                .put("phone", phone);
+        ObjectNode body = mapper.createObjectNode();
+        body.set("patient", patient);
+        body.put("serviceTypeId", serviceId);
+        body.put("urgent", urgent);
+        return send("POST /api/tokens/patient", "POST", "/api/tokens/patient", body, null);
+    }
+
+    JsonNode callNext(String jwt, long counterId, long serviceId) {
+        return send("POST /api/counters/{id}/call-next/{service}", "POST",
+                "/api/counters/" + counterId + "/call-next/" + serviceId, null, jwt);
+    }
+
+    boolean complete(String jwt, long tokenId) {
+        return send("PUT /api/counters/tokens/{id}/complete", "PUT",
+                "/api/counters/tokens/" + tokenId + "/complete", null, jwt) != null;
+    }
+
+    boolean skip(String jwt, long tokenId) {
+        return send("PUT /api/counters/tokens/{id}/skip", "PUT",
+                "/api/counters/tokens/" + tokenId + "/skip", null, jwt) != null;
+    }
+
+    JsonNode approveEmergency(String jwt, long tokenId) {
+        return send("PUT /api/admin/emergencies/{id}/approve", "PUT",
+                "/api/admin/emergencies/" + tokenId + "/approve", null, jwt);
+    }
+
+    JsonNode eta(long tokenId) {
+        return send("GET /api/metrics/eta/{id}", "GET", "/api/metrics/eta/" + tokenId, null, null);
+    }
+
+    /**
+     * Returns the parsed body (an empty object for empty 2xx bodies) or null
+     * on any non-2xx status or I/O failure.
+     */
+    private JsonNode send(String endpoint, String method, String path, JsonNode body, String jwt) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(10))
+                .header("Accept", "application/json");
+        if (jwt != null) {
+            req.header("Authorization", "Bearer " + jwt);
+        }
+        if (body != null) {
+            req.header("Content-Type", "application/json");
+            req.method(method, HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        } else {
+            req.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> res = http.send(req.build(), HttpResponse.BodyHandlers.ofString());
+            boolean ok = res.statusCode() / 100 == 2;
+            recorder.record(endpoint, System.nanoTime() - start, ok);
+            if (!ok) {
+                return null;
+            }
+            return res.body().isEmpty() ? mapper.createObjectNode() : mapper.readTree(res.body());
+        } catch (IOException e) {
+            recorder.record(endpoint, System.nanoTime() - start, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.backend.benchmarks.load;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.Arrays;
+
+/**
+ * Command-line options of the simulator, all as --name=value.
+ *
+ * The arrival curve is a list of hour=patientsPerHour pairs; the rate of the
+ * last hour at or before the simulated clock applies, and the day ends at the
+ * last listed hour. --speed compresses the day (60 = one hour per minute).
+ */
+class SimulationConfig {
+
+    String baseUrl = "http://localhost:8080";
+    boolean embedded;
+    String profile = ""; // extra Spring profiles of the embedded backend, e.g. virtual
+
+    TreeMap<Integer, Double> arrivalCurve = parseCurve(
+            "8=60,9=180,10=150,11=120,12=80,13=60,14=100,15=90,16=50,17=0");
+    double speed = 60;
+
+    int kiosks = 50;
+    int subscribers = 5;
+    double emergencyRate = 0.02;
+    double skipRate = 0.05;
+    double meanServiceMinutes = 8;
+    double etaPollsPerSecond = 20;
+
+    String staffUser = "staff";
+    String staffPassword = "staff123";
+    String adminUser = "admin";
+    String adminPassword = "admin123";
+
+    String reportFile = "target/load-report.json";
+
+    static SimulationConfig parse(String[] args) {
+        Map<String, String> opts = Arrays.stream(args)
+                .filter(a -> a.startsWith("--"))
+                .map(a -> a.substring(2).split("=", 2))
+                .collect(Collectors.toMap(kv -> kv[0], kv -> kv.length > 1 ? kv[1] : "true"));
+
+        SimulationConfig c = new SimulationConfig();
+        c.baseUrl = opts.getOrDefault("base-url", c.baseUrl);
+        c.embedded = Boolean.parseBoolean(opts.getOrDefault("embedded", "false"));
+        c.profile = opts.getOrDefault("profile", c.profile);
+        if (opts.containsKey("curve")) {
+            c.arrivalCurve = parseCurve(opts.get("curve"));
+        }
+        c.speed = Double.parseDouble(opts.getOrDefault("speed", String.valueOf(c.speed)));
+        c.kiosks = Integer.parseInt(opts.getOrDefault("kiosks", String.valueOf(c.kiosks)));
+        c.subscribers = Integer.parseInt(opts.getOrDefault("subscribers", String.valueOf(c.subscribers)));
+        c.emergencyRate = Double.parseDouble(opts.getOrDefault("emergency-rate", String.valueOf(c.emergencyRate)));
+        c.skipRate = Double.parseDouble(opts.getOrDefault("skip-rate", String.valueOf(c.skipRate)));
+        c.meanServiceMinutes = Double.parseDouble(opts.getOrDefault("service-minutes", String.valueOf(c.meanServiceMinutes)));
+        c.etaPollsPerSecond = Double.parseDouble(opts.getOrDefault("eta-polls", String.valueOf(c.etaPollsPerSecond)));
+        c.staffUser = opts.getOrDefault("staff-user", c.staffUser);
+        c.staffPassword = opts.getOrDefault("staff-password", c.staffPassword);
+        c.adminUser = opts.getOrDefault("admin-user", c.adminUser);
+        c.adminPassword = opts.getOrDefault("admin-password", c.adminPassword);
+        c.reportFile = opts.getOrDefault("report", c.reportFile);
+        return c;
+    }
+
+    int openHour() {
+        return arrivalCurve.firstKey();
+    }
+
+    int closeHour() {
+        return arrivalCurve.lastKey();
+    }
+
+    double arrivalsPerHour(double simulatedHour) {
+        Map.Entry<Integer, Double> e = arrivalCurve.floorEntry((int) Math.floor(simulatedHour));
+        return e == null ? 0 : e.getValue();
+    }
+
+    private static TreeMap<Integer, Double> parseCurve(String curve) {
+        TreeMap<Integer, Double> out = new TreeMap<>();
+        for (String part : curve.split(",")) {
+            String[] kv = part.trim().split("=");
+            out.put(Integer.parseInt(kv[0]), Double.parseDouble(kv[1]));
+        }
+        return out;
+    }
+}
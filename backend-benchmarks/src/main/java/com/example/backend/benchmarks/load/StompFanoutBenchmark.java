@@ -0,0 +1,399 @@
+package com.example.backend.benchmarks.load;
+
+import com.example.backend.analytics.QuantileSketch;
+import com.example.backend.websocket.QueueEvent;
+import com.example.backend.websocket.QueueEventPublisher;
+import tools.jackson.databind.json.JsonMapper;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.JacksonJsonMessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * How many display boards and patient phones one node can feed. Starts the
+ * backend in-process on the embedded database, opens thousands of STOMP
+ * sessions against /ws (display-board, queue-updates and one
+ * /topic/patient/{tokenNumber} per patient) and then publishes TOKEN_CALLED
+ * events through the real QueueEventPublisher at each of the given rates,
+ * the way a call-next does: the queue topics, then the called patient.
+ *
+ * Per rate step and topic it reports delivery latency p50/p99/p999 from
+ * publish to the subscriber's frame handler, deliveries missing after the
+ * drain period (slow sessions the broker gave up on show up here and as
+ * lost sessions), and process CPU per delivered message; once for the run,
+ * heap per session after GC.
+ *
+ * Publisher, broker and subscribers share the JVM, so heap and CPU include
+ * the client half of every session (its own websocket and STOMP state,
+ * frame decoding); read them as an upper bound for the server side alone.
+ * Events carry no timestamp, so the sequence number rides in counterName.
+ *
+ *   mvn -pl backend-benchmarks exec:java@fanout \
+ *       -Dexec.args="--boards=500 --queue-subscribers=500 --patients=4000 --rates=10,50,100,200"
+ * Add --profile=virtual for the virtual-thread broker channels. Beyond about
+ * 8000 sessions raise Tomcat's limit too (-Dserver.tomcat.max-connections=20000),
+ * and the open-file limit of the shell; MAVEN_OPTS sizes the heap.
+ */
+public class StompFanoutBenchmark {
+
+    private static final String[] TOPICS = {"display-board", "queue-updates", "patient"};
+    private static final int BOARD = 0;
+    private static final int QUEUE = 1;
+    private static final int PATIENT = 2;
+
+    // latency sketches per step and topic are striped by session to keep handler threads apart
+    private static final int STRIPES = 16;
+
+    private int boards = 500;
+    private int queueSubscribers = 500;
+    private int patients = 2000;
+    private double[] rates = {10, 50, 100, 200};
+    private long stepSeconds = 30;
+    private long warmupSeconds = 10;
+    private long drainSeconds = 10;
+    private int connectConcurrency = 100;
+    private String profile = "";
+    private String reportFile = "target/fanout-report.json";
+
+    private final List<StompSession> sessions = new ArrayList<>();
+    private final AtomicInteger failedConnects = new AtomicInteger();
+    private final AtomicInteger lostSessions = new AtomicInteger();
+
+    // indexed by event sequence number
+    private long[] sentAt;
+    private int[] stepOf;
+    private int published;
+
+    // [step][topic][stripe]; QuantileSketch is fed microseconds, its "under one" bucket is then sub-microsecond
+    private QuantileSketch[][][] latency;
+    private LongAdder[] delivered;
+
+    public static void main(String[] args) throws Exception {
+        StompFanoutBenchmark benchmark = new StompFanoutBenchmark();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            switch (kv[0]) {
+                case "boards" -> benchmark.boards = Integer.parseInt(kv[1]);
+                case "queue-subscribers" -> benchmark.queueSubscribers = Integer.parseInt(kv[1]);
+                case "patients" -> benchmark.patients = Integer.parseInt(kv[1]);
+                case "rates" -> benchmark.rates = Arrays.stream(kv[1].split(","))
+                        .mapToDouble(r -> Double.parseDouble(r.trim())).toArray();
+                case "step-seconds" -> benchmark.stepSeconds = Long.parseLong(kv[1]);
+                case "warmup-seconds" -> benchmark.warmupSeconds = Long.parseLong(kv[1]);
+                case "drain-seconds" -> benchmark.drainSeconds = Long.parseLong(kv[1]);
+                case "connect-concurrency" -> benchmark.connectConcurrency = Integer.parseInt(kv[1]);
+                case "profile" -> benchmark.profile = kv[1];
+                case "report" -> benchmark.reportFile = kv[1];
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+
+        ConfigurableApplicationContext context = benchmark.profile.isEmpty()
+                ? EmbeddedBackend.start()
+                : EmbeddedBackend.start(benchmark.profile.split(","));
+        try {
+            benchmark.run(context.getBean(QueueEventPublisher.class), EmbeddedBackend.baseUrl(context));
+        } finally {
+            context.close();
+        }
+    }
+
+    void run(QueueEventPublisher publisher, String baseUrl) throws Exception {
+        // step 0 is the warm-up at the lowest rate
+        double[] stepRates = new double[rates.length + 1];
+        long[] stepLengths = new long[rates.length + 1];
+        stepRates[0] = Arrays.stream(rates).min().orElse(10);
+        stepLengths[0] = warmupSeconds;
+        System.arraycopy(rates, 0, stepRates, 1, rates.length);
+        Arrays.fill(stepLengths, 1, stepLengths.length, stepSeconds);
+        allocate(stepRates, stepLengths);
+
+        int total = boards + queueSubscribers + patients;
+        long heapBefore = usedHeapAfterGc();
+        long connectStart = System.nanoTime();
+        WebSocketStompClient client = connect(baseUrl, total);
+        long connectMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
+        long heapPerSession = (usedHeapAfterGc() - heapBefore) / Math.max(1, sessions.size());
+
+        System.out.printf("%d sessions (%d display-board, %d queue-updates, %d patient) in %d ms, %d failed%n",
+                sessions.size(), boards, queueSubscribers, patients, connectMs, failedConnects.get());
+        System.out.printf("Heap per session after GC: %.1f KB (client and server side)%n", heapPerSession / 1024.0);
+
+        // let the SUBSCRIBE frames reach the broker before anything is counted as missing
+        Thread.sleep(2000);
+
+        List<Map<String, Object>> steps = new ArrayList<>();
+        System.out.printf("%n%-10s %-14s %9s %10s %9s %8s %9s %9s %9s %12s%n",
+                "step", "topic", "events/s", "delivered", "dropped", "drop %", "p50 ms", "p99 ms", "p999 ms", "cpu us/msg");
+        for (int step = 0; step < stepRates.length; step++) {
+            steps.addAll(runStep(publisher, step, stepRates[step], stepLengths[step]));
+        }
+        System.out.printf("Sessions lost during the run: %d%n", lostSessions.get());
+
+        sessions.forEach(s -> {
+            if (s.isConnected()) {
+                s.disconnect();
+            }
+        });
+        client.stop();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("sessions", sessions.size());
+        report.put("failedConnects", failedConnects.get());
+        report.put("lostSessions", lostSessions.get());
+        report.put("connectMs", connectMs);
+        report.put("heapBytesPerSession", heapPerSession);
+        report.put("steps", steps);
+        File out = new File(reportFile);
+        if (out.getParentFile() != null) {
+            out.getParentFile().mkdirs();
+        }
+        JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(out, report);
+        System.out.println("Report written to " + out.getAbsolutePath());
+    }
+
+    // -------------------------------
+    // SUBSCRIBERS
+    // -------------------------------
+
+    private WebSocketStompClient connect(String baseUrl, int total) throws InterruptedException {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new JacksonJsonMessageConverter());
+
+        // /ws is registered with SockJS; its raw websocket transport lives at /ws/websocket
+        String url = baseUrl.replaceFirst("^http", "ws") + "/ws/websocket";
+
+        Queue<StompSession> connected = new ConcurrentLinkedQueue<>();
+        Semaphore inFlight = new Semaphore(connectConcurrency);
+        for (int i = 0; i < total; i++) {
+            int index = i;
+            inFlight.acquire();
+            client.connectAsync(url, new StompSessionHandlerAdapter() {
+                private volatile boolean up;
+
+                @Override
+                public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+                    up = true;
+                }
+
+                // a failed connect lands here too, but is already counted as failed
+                @Override
+                public void handleTransportError(StompSession session, Throwable exception) {
+                    if (up) {
+                        up = false;
+                        lostSessions.incrementAndGet();
+                    }
+                }
+            }).whenComplete((session, error) -> {
+                try {
+                    if (error != null) {
+                        failedConnects.incrementAndGet();
+                    } else {
+                        subscribe(session, index);
+                        connected.add(session);
+                    }
+                } finally {
+                    inFlight.release();
+                }
+            });
+        }
+        inFlight.acquire(connectConcurrency);
+        sessions.addAll(connected);
+        return client;
+    }
+
+    private void subscribe(StompSession session, int index) {
+        int stripe = index % STRIPES;
+        if (index < boards) {
+            session.subscribe("/topic/display-board", deliveries(BOARD, stripe));
+        } else if (index < boards + queueSubscribers) {
+            session.subscribe("/topic/queue-updates", deliveries(QUEUE, stripe));
+        } else {
+            session.subscribe("/topic/patient/" + tokenNumber(index - boards - queueSubscribers),
+                    deliveries(PATIENT, stripe));
+        }
+    }
+
+    private StompFrameHandler deliveries(int topic, int stripe) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return QueueEvent.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                long now = System.nanoTime();
+                int seq = Integer.parseInt(((QueueEvent) payload).getCounterName());
+                int step = stepOf[seq];
+                latency[step][topic][stripe].add((now - sentAt[seq]) / 1_000.0);
+                delivered[step].increment();
+            }
+        };
+    }
+
+    // -------------------------------
+    // PUBLISHING
+    // -------------------------------
+
+    private List<Map<String, Object>> runStep(QueueEventPublisher publisher, int step, double rate, long seconds) {
+        long interval = (long) (1e9 / rate);
+        long events = (long) (rate * seconds);
+        long cpuBefore = processCpuNanos();
+        long start = System.nanoTime();
+
+        long next = start;
+        for (long i = 0; i < events; i++) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            publish(publisher, step);
+            next += interval;
+        }
+        double achieved = events / ((System.nanoTime() - start) / 1e9);
+
+        long[] expected = {
+                events * boards,
+                events * queueSubscribers,
+                patients > 0 ? events : 0
+        };
+        drain(step, expected[BOARD] + expected[QUEUE] + expected[PATIENT]);
+        long cpu = processCpuNanos() - cpuBefore;
+        double cpuMicrosPerMessage = cpu / 1_000.0 / Math.max(1, delivered[step].sum());
+
+        String label = step == 0 ? "warm-up" : String.format("%.0f/s", rate);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int topic = 0; topic < TOPICS.length; topic++) {
+            QuantileSketch merged = new QuantileSketch();
+            for (QuantileSketch stripe : latency[step][topic]) {
+                merged.merge(stripe);
+            }
+            long received = merged.getCount();
+            long dropped = Math.max(0, expected[topic] - received);
+            double dropPercent = expected[topic] == 0 ? 0 : 100.0 * dropped / expected[topic];
+            double p50 = millis(merged, 0.50);
+            double p99 = millis(merged, 0.99);
+            double p999 = millis(merged, 0.999);
+
+            System.out.printf("%-10s %-14s %9.1f %10d %9d %8.3f %9.2f %9.2f %9.2f %12.2f%n",
+                    label, TOPICS[topic], achieved, received, dropped, dropPercent, p50, p99, p999, cpuMicrosPerMessage);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("step", label);
+            row.put("topic", TOPICS[topic]);
+            row.put("targetRate", rate);
+            row.put("achievedRate", achieved);
+            row.put("expected", expected[topic]);
+            row.put("delivered", received);
+            row.put("dropped", dropped);
+            row.put("p50Ms", p50);
+            row.put("p99Ms", p99);
+            row.put("p999Ms", p999);
+            row.put("cpuMicrosPerDelivery", cpuMicrosPerMessage);
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private void publish(QueueEventPublisher publisher, int step) {
+        int seq = published++;
+        int patient = patients > 0 ? ThreadLocalRandom.current().nextInt(patients) : 0;
+        QueueEvent event = new QueueEvent("TOKEN_CALLED", tokenNumber(patient), String.valueOf(seq), "General", "CALLED");
+        stepOf[seq] = step;
+        sentAt[seq] = System.nanoTime();
+        publisher.publishQueueUpdate(event);
+        if (patients > 0) {
+            publisher.publishToPatient(event.getTokenNumber(), event);
+        }
+    }
+
+    /** Waits until every expected delivery arrived, or none did for drainSeconds. */
+    private void drain(int step, long expected) {
+        long lastCount = -1;
+        long lastProgress = System.nanoTime();
+        long quiet = TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (true) {
+            long count = delivered[step].sum();
+            if (count >= expected) {
+                return;
+            }
+            if (count != lastCount) {
+                lastCount = count;
+                lastProgress = System.nanoTime();
+            } else if (System.nanoTime() - lastProgress > quiet) {
+                return;
+            }
+            sleep(100);
+        }
+    }
+
+    private void allocate(double[] stepRates, long[] stepLengths) {
+        int capacity = 0;
+        for (int i = 0; i < stepRates.length; i++) {
+            capacity += (int) (stepRates[i] * stepLengths[i]);
+        }
+        sentAt = new long[capacity];
+        stepOf = new int[capacity];
+        latency = new QuantileSketch[stepRates.length][TOPICS.length][STRIPES];
+        delivered = new LongAdder[stepRates.length];
+        for (int step = 0; step < stepRates.length; step++) {
+            delivered[step] = new LongAdder();
+            for (int topic = 0; topic < TOPICS.length; topic++) {
+                for (int stripe = 0; stripe < STRIPES; stripe++) {
+                    latency[step][topic][stripe] = new QuantileSketch();
+                }
+            }
+        }
+    }
+
+    private static String tokenNumber(int patient) {
+        return "F-" + (patient + 1);
+    }
+
+    private static double millis(QuantileSketch sketch, double q) {
+        return sketch.getCount() == 0 ? 0 : sketch.quantile(q) / 1_000.0;
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+
+    private static long usedHeapAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            sleep(200);
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
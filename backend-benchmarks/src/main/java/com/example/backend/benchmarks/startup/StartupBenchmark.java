@@ -0,0 +1,252 @@
+package com.example.backend.benchmarks.startup;
+
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the backend jar as a fresh JVM several times and measures, from
+ * process start, when /actuator/health/readiness first reports UP and when
+ * the first call-next after that succeeds (staff login, one kiosk token,
+ * call-next). Called tokens are completed again so runs don't pile up state.
+ *
+ * With --requests=N it then keeps going until N requests have been sent
+ * since readiness, in kiosk / call-next / complete / ETA cycles, and reports
+ * their latency for the first 100 and for all N. That is the cold-JVM tail
+ * a freshly deployed instance shows its first users.
+ *
+ * Needs the local Postgres and a staff login that may call the given
+ * counter / department. The launched backend runs with
+ * --queue.admission.enabled=false, since one client would trip the kiosk limit.
+ *
+ *   mvn -pl backend -am package -DskipTests
+ *   mvn -pl backend-benchmarks exec:java@startup -Dexec.args="--requests=1000"
+ *   mvn -pl backend-benchmarks exec:java@startup -Dexec.args="--requests=1000 --app-args=--queue.warmup.enabled=false"
+ * Fast-start mode (migrations, AOT, CDS archive from mvn -Pfast-start package):
+ *   -Dexec.args="--jar=../backend/target/fast-start/backend-0.0.1-SNAPSHOT-exec.jar --profile=fast-start
+ *       '--jvm-args=-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true'"
+ */
+public class StartupBenchmark {
+
+    private static final int FIRST_BUCKET = 100;
+
+    private final JsonMapper mapper = JsonMapper.builder().build();
+    private final HttpClient http = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(1))
+            .build();
+
+    private String jar = "../backend/target/backend-0.0.1-SNAPSHOT-exec.jar";
+    private String profile = "";
+    private List<String> jvmArgs = List.of();
+    private List<String> appArgs = List.of();
+    private int runs = 5;
+    private int requests;
+    private int port = 8080;
+    private String staffUser = "staff";
+    private String staffPassword = "staff123";
+    private long counterId = 1;
+    private long serviceId = 1;
+    private long timeoutSeconds = 120;
+
+    // latencies (ns) of the requests sent since readiness in the current run
+    private final List<Long> recorded = new ArrayList<>();
+    private boolean recording;
+
+    public static void main(String[] args) throws Exception {
+        StartupBenchmark benchmark = new StartupBenchmark();
+        for (String arg : args) {
+            String[] kv = arg.replaceFirst("^--", "").split("=", 2);
+            switch (kv[0]) {
+                case "jar" -> benchmark.jar = kv[1];
+                case "profile" -> benchmark.profile = kv[1];
+                case "jvm-args" -> benchmark.jvmArgs = List.of(kv[1].trim().split("\\s+"));
+                case "app-args" -> benchmark.appArgs = List.of(kv[1].trim().split("\\s+"));
+                case "runs" -> benchmark.runs = Integer.parseInt(kv[1]);
+                case "requests" -> benchmark.requests = Integer.parseInt(kv[1]);
+                case "port" -> benchmark.port = Integer.parseInt(kv[1]);
+                case "staff-user" -> benchmark.staffUser = kv[1];
+                case "staff-password" -> benchmark.staffPassword = kv[1];
+                case "counter-id" -> benchmark.counterId = Long.parseLong(kv[1]);
+                case "service-id" -> benchmark.serviceId = Long.parseLong(kv[1]);
+                case "timeout-seconds" -> benchmark.timeoutSeconds = Long.parseLong(kv[1]);
+                default -> throw new IllegalArgumentException("Unknown option " + arg);
+            }
+        }
+        benchmark.run();
+    }
+
+    void run() throws Exception {
+        File jarFile = new File(jar).getCanonicalFile();
+        System.out.printf("%s, profile '%s', jvm args %s, app args %s, %d runs%n",
+                jarFile, profile, jvmArgs, appArgs, runs);
+        System.out.printf("%-5s %10s %16s", "run", "ready", "first call-next");
+        if (requests > 0) {
+            System.out.printf(" %28s %28s", "first " + FIRST_BUCKET + " p50/p99/max", "all " + requests + " p50/p99/max");
+        }
+        System.out.println();
+
+        long[] ready = new long[runs];
+        long[] firstCall = new long[runs];
+        for (int i = 0; i < runs; i++) {
+            long[] result = measure(jarFile, i);
+            ready[i] = result[0];
+            firstCall[i] = result[1];
+            System.out.printf("%-5d %7d ms %13d ms", i + 1, ready[i], firstCall[i]);
+            if (requests > 0) {
+                System.out.printf(" %28s %28s",
+                        summary(recorded.subList(0, Math.min(FIRST_BUCKET, recorded.size()))),
+                        summary(recorded));
+            }
+            System.out.println();
+        }
+        System.out.printf("%-5s %7d ms %13d ms%n", "p50", median(ready), median(firstCall));
+    }
+
+    private long[] measure(File jarFile, int run) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs);
+        command.add("-jar");
+        command.add(jarFile.getName());
+        command.add("--server.port=" + port);
+        command.add("--queue.admission.enabled=false");
+        if (!profile.isEmpty()) {
+            command.add("--spring.profiles.active=" + profile);
+        }
+        command.addAll(appArgs);
+
+        File log = new File("target/startup-run-" + (run + 1) + ".log");
+        log.getParentFile().mkdirs();
+        // from the jar's directory, so relative paths such as the CDS archive resolve
+        Process process = new ProcessBuilder(command)
+                .directory(jarFile.getParentFile())
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        recorded.clear();
+        recording = false;
+
+        try {
+            // what a load balancer would wait for
+            while (send("GET", "/actuator/health/readiness", null, null) == null) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Backend exited with " + process.exitValue() + ", see " + log);
+                }
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Not ready within " + timeoutSeconds + " s, see " + log);
+                }
+                Thread.sleep(20);
+            }
+            long ready = elapsedMs(start);
+            recording = true;
+
+            JsonNode login = send("POST", "/api/auth/login", mapper.createObjectNode()
+                    .put("username", staffUser)
+                    .put("password", staffPassword), null);
+            if (login == null) {
+                throw new IllegalStateException("Staff login failed, see " + log);
+            }
+            String jwt = login.get("token").asString();
+
+            long firstCall = -1;
+            int cycle = 0;
+            do {
+                JsonNode token = send("POST", "/api/tokens/patient", kioskToken(run, cycle++), null);
+                JsonNode called = send("POST", "/api/counters/" + counterId + "/call-next/" + serviceId, null, jwt);
+                if (called == null) {
+                    throw new IllegalStateException("call-next failed, see " + log);
+                }
+                if (firstCall < 0) {
+                    firstCall = elapsedMs(start);
+                }
+                send("PUT", "/api/counters/tokens/" + called.get("id").asLong() + "/complete", null, jwt);
+                if (token != null) {
+                    send("GET", "/api/metrics/eta/" + token.get("id").asLong(), null, null);
+                }
+            } while (recorded.size() < requests);
+            return new long[]{ready, firstCall};
+        } finally {
+            process.destroy();
+            if (!process.waitFor(20, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private ObjectNode kioskToken(int run, int cycle) {
+        ObjectNode body = mapper.createObjectNode();
+        body.set("patient", mapper.createObjectNode()
+                .put("name", "Startup run " + (run + 1))
+                .put("phone", "startup-" + System.currentTimeMillis() + "-" + cycle));
+        body.put("serviceTypeId", serviceId);
+        return body;
+    }
+
+    /** Parsed body (empty object for an empty 2xx body), null otherwise. */
+    private JsonNode send(String method, String path, JsonNode body, String jwt) {
+        HttpRequest.Builder req = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .timeout(Duration.ofSeconds(5))
+                .header("Accept", "application/json");
+        if (jwt != null) {
+            req.header("Authorization", "Bearer " + jwt);
+        }
+        if (body != null) {
+            req.header("Content-Type", "application/json");
+            req.method(method, HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body)));
+        } else {
+            req.method(method, HttpRequest.BodyPublishers.noBody());
+        }
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> res = http.send(req.build(), HttpResponse.BodyHandlers.ofString());
+            if (recording) {
+                recorded.add(System.nanoTime() - sent);
+            }
+            if (res.statusCode() / 100 != 2) {
+                return null;
+            }
+            return res.body().isEmpty() ? mapper.createObjectNode() : mapper.readTree(res.body());
+        } catch (IOException e) {
+            // not listening yet
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String summary(List<Long> latenciesNanos) {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+        if (sorted.length == 0) {
+            return "-";
+        }
+        return String.format("%.1f/%.1f/%.1f ms",
+                sorted[(int) Math.floor(0.5 * (sorted.length - 1))] / 1e6,
+                sorted[(int) Math.floor(0.99 * (sorted.length - 1))] / 1e6,
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
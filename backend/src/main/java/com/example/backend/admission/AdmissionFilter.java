@@ -0,0 +1,141 @@
+package com.example.backend.admission;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First filter in the chain: rejects with 429 before security, JPA or a
+ * connection is touched.
+ *
+ * 1. Overload: while threads are queued for a DB connection, PUBLIC_READ
+ *    requests are shed; past queue.admission.shed-kiosk-at-waiters KIOSK
+ *    requests are shed too. STAFF traffic always gets through.
+ * 2. Rate limit: one token bucket per client IP and endpoint class.
+ *
+ * Rejections are counted as queue.admission.rejected{class, reason}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "queue.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    private static final long IDLE_BUCKET_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final PoolPressure poolPressure;
+    private final Map<EndpointClass, double[]> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> rateLimited = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Counter> shed = new EnumMap<>(EndpointClass.class);
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final int shedKioskAtWaiters;
+    private final boolean trustForwardedFor;
+
+    public AdmissionFilter(
+            PoolPressure poolPressure,
+            MeterRegistry registry,
+            @Value("${queue.admission.kiosk.burst:20}") double kioskBurst,
+            @Value("${queue.admission.kiosk.per-second:2}") double kioskRate,
+            @Value("${queue.admission.public-read.burst:60}") double readBurst,
+            @Value("${queue.admission.public-read.per-second:10}") double readRate,
+            @Value("${queue.admission.staff.burst:200}") double staffBurst,
+            @Value("${queue.admission.staff.per-second:50}") double staffRate,
+            @Value("${queue.admission.shed-kiosk-at-waiters:5}") int shedKioskAtWaiters,
+            @Value("${queue.admission.trust-forwarded-for:false}") boolean trustForwardedFor) {
+        this.poolPressure = poolPressure;
+        this.shedKioskAtWaiters = shedKioskAtWaiters;
+        this.trustForwardedFor = trustForwardedFor;
+
+        limits.put(EndpointClass.KIOSK, new double[]{kioskBurst, kioskRate});
+        limits.put(EndpointClass.PUBLIC_READ, new double[]{readBurst, readRate});
+        limits.put(EndpointClass.STAFF, new double[]{staffBurst, staffRate});
+
+        for (EndpointClass c : limits.keySet()) {
+            String tag = c.name().toLowerCase();
+            rateLimited.put(c, Counter.builder("queue.admission.rejected")
+                    .description("Requests rejected with 429 by the admission filter")
+                    .tag("class", tag).tag("reason", "rate_limit")
+                    .register(registry));
+            shed.put(c, Counter.builder("queue.admission.rejected")
+                    .description("Requests rejected with 429 by the admission filter")
+                    .tag("class", tag).tag("reason", "overload")
+                    .register(registry));
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        EndpointClass endpoint = EndpointClass.of(request);
+        if (endpoint == EndpointClass.UNLIMITED) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (endpoint != EndpointClass.STAFF) {
+            int waiting = poolPressure.waitingThreads();
+            if (waiting > 0 && (endpoint == EndpointClass.PUBLIC_READ || waiting >= shedKioskAtWaiters)) {
+                shed.get(endpoint).increment();
+                reject(response, 1, "Server busy, retry shortly");
+                return;
+            }
+        }
+
+        long now = System.nanoTime();
+        double[] limit = limits.get(endpoint);
+        TokenBucket bucket = buckets.computeIfAbsent(
+                endpoint.name() + '|' + clientOf(request),
+                k -> new TokenBucket(limit[0], limit[1], now));
+        if (!bucket.tryAcquire(now)) {
+            rateLimited.get(endpoint).increment();
+            reject(response, Math.max(1, bucket.secondsUntilToken(now)), "Too many requests");
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(b -> b.isIdle(now, IDLE_BUCKET_NANOS));
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                int comma = forwarded.indexOf(',');
+                return (comma < 0 ? forwarded : forwarded.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterSeconds, String message) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.backend.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * Rate-limit classes. STAFF is never shed when the connection pool is
+ * saturated; PUBLIC_READ is shed first, then KIOSK.
+ */
+enum EndpointClass {
+    KIOSK,          // token creation
+    PUBLIC_READ,    // ETA / queue / history polling, display boards
+    STAFF,          // counters, admin and token status dumps
+    UNLIMITED;      // auth, websockets, actuator, CORS preflight
+
+    static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+
+        if ("OPTIONS".equals(method)) {
+            return UNLIMITED;
+        }
+        // staff report pulls (all tokens in one status), not anonymous polling
+        if (path.startsWith("/api/tokens/status/")) {
+            return STAFF;
+        }
+        if (path.startsWith("/api/tokens")) {
+            return "POST".equals(method) ? KIOSK : PUBLIC_READ;
+        }
+        if (path.startsWith("/api/metrics")
+                || path.startsWith("/api/patients/history")
+                || path.startsWith("/api/display")
+                || path.startsWith("/api/services")) {
+            return PUBLIC_READ;
+        }
+        if (path.startsWith("/api/counters") || path.startsWith("/api/admin")
+                || path.startsWith("/api/patients/search")) {
+            return STAFF;
+        }
+        return UNLIMITED;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.backend.admission;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * Threads currently queued for a connection in the primary Hikari pool
+ * (an AtomicInteger read, cheap enough to check on every request).
+ * Reports no pressure when the pool is not Hikari or not started yet.
+ */
+@Slf4j
+@Component
+public class PoolPressure {
+
+    private final ObjectProvider<DataSource> dataSource;
+    private volatile HikariPoolMXBean pool;
+
+    public PoolPressure(ObjectProvider<DataSource> dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public int waitingThreads() {
+        HikariPoolMXBean bean = pool();
+        return bean == null ? 0 : bean.getThreadsAwaitingConnection();
+    }
+
+    private HikariPoolMXBean pool() {
+        HikariPoolMXBean bean = pool;
+        if (bean != null) {
+            return bean;
+        }
+        DataSource ds = dataSource.getIfAvailable();
+        if (ds == null) {
+            return null;
+        }
+        try {
+            if (ds.isWrapperFor(HikariDataSource.class)) {
+                bean = ds.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            }
+        } catch (SQLException e) {
+            log.debug("Cannot inspect connection pool: {}", e.getMessage());
+        }
+        pool = bean;
+        return bean;
+    }
+}
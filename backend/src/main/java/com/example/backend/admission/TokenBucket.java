@@ -0,0 +1,60 @@
+package com.example.backend.admission;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free token bucket. State is an immutable (tokens, timestamp) pair
+ * swapped with CAS; refill is computed lazily from elapsed time, so there
+ * is no background refill thread and a rejection never writes.
+ */
+final class TokenBucket {
+
+    private final double capacity;
+    private final double tokensPerNano;
+    private final AtomicReference<State> state;
+
+    TokenBucket(double capacity, double tokensPerSecond, long nowNanos) {
+        this.capacity = capacity;
+        this.tokensPerNano = tokensPerSecond / 1_000_000_000d;
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    boolean tryAcquire(long nowNanos) {
+        while (true) {
+            State current = state.get();
+            double available = refilled(current, nowNanos);
+            if (available < 1) {
+                return false;
+            }
+            if (state.compareAndSet(current, new State(available - 1, nowNanos))) {
+                return true;
+            }
+        }
+    }
+
+    /** Whole seconds until the next token, for Retry-After. */
+    long secondsUntilToken(long nowNanos) {
+        double missing = 1 - refilled(state.get(), nowNanos);
+        return missing <= 0 ? 0 : (long) Math.ceil(missing / tokensPerNano / 1_000_000_000d);
+    }
+
+    /** Full and untouched since idleNanos: safe to forget. */
+    boolean isIdle(long nowNanos, long idleNanos) {
+        State current = state.get();
+        return nowNanos - current.at > idleNanos && refilled(current, nowNanos) >= capacity;
+    }
+
+    private double refilled(State s, long nowNanos) {
+        return Math.min(capacity, s.tokens + (nowNanos - s.at) * tokensPerNano);
+    }
+
+    private static final class State {
+        final double tokens;
+        final long at;
+
+        State(double tokens, long at) {
+            this.tokens = tokens;
+            this.at = at;
+        }
+    }
+}
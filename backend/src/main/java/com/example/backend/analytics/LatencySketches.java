@@ -0,0 +1,177 @@
+package com.example.backend.analytics;
+
+import com.example.backend.config.NodeIdentity;
+import com.example.backend.datasource.ReadYourWrites;
+import com.example.backend.entity.LatencySketch;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.LatencySketchRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Wait-time (created -> called) and service-time (called -> completed)
+ * quantile sketches per department and doctor per day.
+ *
+ * Updated in memory on every committed transition, flushed as this node's
+ * own rows in latency_sketches every queue.sketches.flush-ms. Readers merge
+ * the other nodes' persisted rows with this node's live sketches.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LatencySketches implements TokenTransitionListener {
+
+    public static final String SERVICE_SCOPE = "service";
+    public static final String DOCTOR_SCOPE = "doctor";
+    public static final String WAIT = "wait";
+    public static final String SERVICE_TIME = "service";
+
+    private final LatencySketchRepository repository;
+    private final NodeIdentity nodeIdentity;
+
+    private final Map<Key, QuantileSketch> sketches = new ConcurrentHashMap<>();
+    private final Set<Key> dirty = ConcurrentHashMap.newKeySet();
+
+    @Override
+    public void onTransition(TokenTransition t) {
+        LocalDate day = LocalDate.ofInstant(Instant.ofEpochMilli(t.getOccurredAt()), ZoneId.systemDefault());
+
+        if ((t.getTo() == TokenStatus.SERVING || t.getTo() == TokenStatus.CALLED)
+                && t.getCreatedAt() != null && t.getCalledAt() != null) {
+            record(t, WAIT, day, Duration.between(t.getCreatedAt(), t.getCalledAt()));
+        }
+        if (t.getTo() == TokenStatus.COMPLETED && t.getCalledAt() != null && t.getCompletedAt() != null) {
+            record(t, SERVICE_TIME, day, Duration.between(t.getCalledAt(), t.getCompletedAt()));
+        }
+    }
+
+    /** metric -> subject id -> sketch merged across all nodes, for today. */
+    public Map<String, Map<Long, QuantileSketch>> mergedToday(String scope) {
+        LocalDate today = LocalDate.now();
+        Map<String, Map<Long, QuantileSketch>> merged = new HashMap<>();
+
+        for (LatencySketch row : repository.findByScopeAndSketchDateAndNodeIdNot(scope, today, nodeIdentity.getId())) {
+            merged.computeIfAbsent(row.getMetric(), m -> new HashMap<>())
+                    .computeIfAbsent(row.getSubjectId(), s -> new QuantileSketch())
+                    .merge(QuantileSketch.fromBytes(row.getData()));
+        }
+        sketches.forEach((key, sketch) -> {
+            if (key.scope.equals(scope) && key.day.equals(today)) {
+                merged.computeIfAbsent(key.metric, m -> new HashMap<>())
+                        .computeIfAbsent(key.subjectId, s -> new QuantileSketch())
+                        .merge(sketch);
+            }
+        });
+        return merged;
+    }
+
+    // picks up where this node left off when it restarts with a fixed queue.node-id
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadYourWrites
+    public void load() {
+        for (LatencySketch row : repository.findByNodeIdAndSketchDate(nodeIdentity.getId(), LocalDate.now())) {
+            sketches.merge(
+                    new Key(row.getScope(), row.getSubjectId(), row.getMetric(), row.getSketchDate()),
+                    QuantileSketch.fromBytes(row.getData()),
+                    (live, stored) -> {
+                        live.merge(stored);
+                        return live;
+                    });
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.sketches.flush-ms:30000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        List<Key> pending = new ArrayList<>(dirty);
+        dirty.removeAll(pending);
+
+        Map<LocalDate, List<Key>> byDay = pending.stream().collect(Collectors.groupingBy(k -> k.day));
+        try {
+            byDay.forEach(this::persist);
+        } catch (RuntimeException e) {
+            dirty.addAll(pending);
+            log.warn("Latency sketch flush failed, will retry: {}", e.getMessage());
+            return;
+        }
+
+        // earlier days are final once flushed
+        LocalDate today = LocalDate.now();
+        sketches.keySet().removeIf(k -> k.day.isBefore(today) && !dirty.contains(k));
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+
+    private void persist(LocalDate day, List<Key> keys) {
+        Map<Key, LatencySketch> existing = repository.findByNodeIdAndSketchDate(nodeIdentity.getId(), day).stream()
+                .collect(Collectors.toMap(
+                        row -> new Key(row.getScope(), row.getSubjectId(), row.getMetric(), row.getSketchDate()),
+                        row -> row));
+
+        List<LatencySketch> rows = new ArrayList<>(keys.size());
+        for (Key key : keys) {
+            QuantileSketch sketch = sketches.get(key);
+            if (sketch == null) {
+                continue;
+            }
+            LatencySketch row = existing.getOrDefault(key, new LatencySketch());
+            row.setNodeId(nodeIdentity.getId());
+            row.setScope(key.scope);
+            row.setSubjectId(key.subjectId);
+            row.setMetric(key.metric);
+            row.setSketchDate(key.day);
+            row.setSampleCount(sketch.getCount());
+            row.setData(sketch.toBytes());
+            row.setUpdatedAt(LocalDateTime.now());
+            rows.add(row);
+        }
+        repository.saveAll(rows);
+    }
+
+    private void record(TokenTransition t, String metric, LocalDate day, Duration duration) {
+        double seconds = Math.max(0, duration.toMillis() / 1000.0);
+        add(new Key(SERVICE_SCOPE, t.getServiceTypeId(), metric, day), seconds);
+        if (t.getDoctorId() != null) {
+            add(new Key(DOCTOR_SCOPE, t.getDoctorId(), metric, day), seconds);
+        }
+    }
+
+    private void add(Key key, double seconds) {
+        sketches.computeIfAbsent(key, k -> new QuantileSketch()).add(seconds);
+        dirty.add(key);
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static final class Key {
+        private final String scope;
+        private final Long subjectId;
+        private final String metric;
+        private final LocalDate day;
+    }
+}
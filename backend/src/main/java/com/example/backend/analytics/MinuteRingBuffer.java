@@ -0,0 +1,237 @@
+package com.example.backend.analytics;
+
+import com.example.backend.dto.TimeSeriesPoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fixed-size per-minute counters for one department or doctor, in parallel
+ * primitive arrays indexed by epochMinute % capacity. A slot is reset the
+ * first time a new minute lands on it, so memory never grows and nothing
+ * needs cleaning up. Depth is a running gauge copied into each slot.
+ * writeTo / readFrom carry the slots across a restart.
+ */
+final class MinuteRingBuffer {
+
+    private final int capacity;
+    private final long[] minutes;
+    private final int[] arrivals;
+    private final int[] served;
+    private final int[] depth;
+    private final long[] waitSeconds;
+    private final int[] waitCount;
+    private final long[] serviceSeconds;
+    private final int[] serviceCount;
+
+    private int runningDepth;
+
+    MinuteRingBuffer(int capacity) {
+        this.capacity = capacity;
+        this.minutes = new long[capacity];
+        this.arrivals = new int[capacity];
+        this.served = new int[capacity];
+        this.depth = new int[capacity];
+        this.waitSeconds = new long[capacity];
+        this.waitCount = new int[capacity];
+        this.serviceSeconds = new long[capacity];
+        this.serviceCount = new int[capacity];
+    }
+
+    synchronized void arrival(long minute) {
+        int i = slot(minute);
+        if (i >= 0) {
+            arrivals[i]++;
+        }
+    }
+
+    synchronized void served(long minute) {
+        int i = slot(minute);
+        if (i >= 0) {
+            served[i]++;
+        }
+    }
+
+    synchronized void waited(long minute, long seconds) {
+        int i = slot(minute);
+        if (i >= 0) {
+            waitSeconds[i] += seconds;
+            waitCount[i]++;
+        }
+    }
+
+    synchronized void serviced(long minute, long seconds) {
+        int i = slot(minute);
+        if (i >= 0) {
+            serviceSeconds[i] += seconds;
+            serviceCount[i]++;
+        }
+    }
+
+    synchronized void depthDelta(long minute, int delta) {
+        runningDepth = Math.max(0, runningDepth + delta);
+        int i = slot(minute);
+        if (i >= 0) {
+            depth[i] = runningDepth;
+        }
+    }
+
+    synchronized void resetDepth(long minute, int value) {
+        runningDepth = value;
+        int i = slot(minute);
+        if (i >= 0) {
+            depth[i] = value;
+        }
+    }
+
+    /** Opens the current minute even when nothing happened, so depth is known for every minute. */
+    synchronized void touch(long minute) {
+        slot(minute);
+    }
+
+    long oldestMinute(long nowMinute) {
+        return nowMinute - capacity + 1;
+    }
+
+    /**
+     * Buckets [fromMinute, toMinute) in steps of stepMinutes. Minutes this
+     * node never saw (before start-up, or overwritten) contribute nothing.
+     */
+    synchronized List<TimeSeriesPoint> read(long fromMinute, long toMinute, int stepMinutes) {
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        for (long start = fromMinute; start < toMinute; start += stepMinutes) {
+            long arrived = 0;
+            long done = 0;
+            Integer lastDepth = null;
+            long waitSum = 0;
+            long waits = 0;
+            long serviceSum = 0;
+            long services = 0;
+
+            long end = Math.min(start + stepMinutes, toMinute);
+            for (long m = start; m < end; m++) {
+                int i = (int) (m % capacity);
+                if (minutes[i] != m) {
+                    continue;
+                }
+                arrived += arrivals[i];
+                done += served[i];
+                lastDepth = depth[i];
+                waitSum += waitSeconds[i];
+                waits += waitCount[i];
+                serviceSum += serviceSeconds[i];
+                services += serviceCount[i];
+            }
+
+            points.add(new TimeSeriesPoint(
+                    toDateTime(start),
+                    arrived,
+                    done,
+                    lastDepth,
+                    waits == 0 ? null : waitSum / 60.0 / waits,
+                    services == 0 ? null : serviceSum / 60.0 / services,
+                    "memory"
+            ));
+        }
+        return points;
+    }
+
+    /** Running depth, then every slot still inside retention as of nowMinute. */
+    synchronized void writeTo(DataOutput out, long nowMinute) throws IOException {
+        long oldest = oldestMinute(nowMinute);
+        int used = 0;
+        for (long m : minutes) {
+            if (m >= oldest && m <= nowMinute) {
+                used++;
+            }
+        }
+        out.writeInt(runningDepth);
+        out.writeInt(used);
+        for (int i = 0; i < capacity; i++) {
+            if (minutes[i] >= oldest && minutes[i] <= nowMinute) {
+                out.writeLong(minutes[i]);
+                out.writeInt(arrivals[i]);
+                out.writeInt(served[i]);
+                out.writeInt(depth[i]);
+                out.writeLong(waitSeconds[i]);
+                out.writeInt(waitCount[i]);
+                out.writeLong(serviceSeconds[i]);
+                out.writeInt(serviceCount[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads what writeTo wrote. Slots this buffer has already moved past are
+     * kept; a minute both sides saw is summed.
+     */
+    synchronized void readFrom(DataInput in, long oldestMinute) throws IOException {
+        in.readInt(); // running depth: reseeded from the database, not trusted from disk
+        int used = in.readInt();
+        for (int n = 0; n < used; n++) {
+            long minute = in.readLong();
+            int arrived = in.readInt();
+            int done = in.readInt();
+            int depthThen = in.readInt();
+            long waitSum = in.readLong();
+            int waits = in.readInt();
+            long serviceSum = in.readLong();
+            int services = in.readInt();
+
+            if (minute < oldestMinute) {
+                continue;
+            }
+            int i = (int) (minute % capacity);
+            if (minutes[i] > minute) {
+                continue;
+            }
+            if (minutes[i] < minute) {
+                minutes[i] = minute;
+                arrivals[i] = 0;
+                served[i] = 0;
+                waitSeconds[i] = 0;
+                waitCount[i] = 0;
+                serviceSeconds[i] = 0;
+                serviceCount[i] = 0;
+                depth[i] = depthThen;
+            }
+            arrivals[i] += arrived;
+            served[i] += done;
+            waitSeconds[i] += waitSum;
+            waitCount[i] += waits;
+            serviceSeconds[i] += serviceSum;
+            serviceCount[i] += services;
+        }
+    }
+
+    static LocalDateTime toDateTime(long epochMinute) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochMinute * 60), ZoneId.systemDefault());
+    }
+
+    private int slot(long minute) {
+        int i = (int) (minute % capacity);
+        if (minutes[i] == minute) {
+            return i;
+        }
+        if (minutes[i] > minute) {
+            // a late write for a minute that has already been recycled
+            return -1;
+        }
+        minutes[i] = minute;
+        arrivals[i] = 0;
+        served[i] = 0;
+        depth[i] = runningDepth;
+        waitSeconds[i] = 0;
+        waitCount[i] = 0;
+        serviceSeconds[i] = 0;
+        serviceCount[i] = 0;
+        return i;
+    }
+}
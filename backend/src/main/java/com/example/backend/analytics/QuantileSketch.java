@@ -0,0 +1,127 @@
+package com.example.backend.analytics;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Log-bucketed quantile sketch (DDSketch style) for durations in seconds.
+ *
+ * Bucket i holds values in (gamma^(i-1), gamma^i]; every estimate is within
+ * RELATIVE_ACCURACY of the true quantile. Adding is one log and one array
+ * increment, two sketches merge by adding counts, and the serialized form
+ * only stores non-empty buckets as varints (typically well under 1 KB).
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.01;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int BUCKETS = 1024;    // gamma^1024 is far beyond any wait
+    private static final int FORMAT_VERSION = 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long zeroCount;                     // values under one second
+    private long count;
+
+    public synchronized void add(double seconds) {
+        if (seconds < 1) {
+            zeroCount++;
+        } else {
+            counts[Math.min(BUCKETS - 1, (int) Math.ceil(Math.log(seconds) / LOG_GAMMA))]++;
+        }
+        count++;
+    }
+
+    public synchronized void merge(QuantileSketch other) {
+        long[] theirs;
+        long theirZero;
+        long theirCount;
+        synchronized (other) {
+            theirs = other.counts.clone();
+            theirZero = other.zeroCount;
+            theirCount = other.count;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] += theirs[i];
+        }
+        zeroCount += theirZero;
+        count += theirCount;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    /** Estimated q-quantile in seconds, or NaN when empty. */
+    public synchronized double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) Math.floor(q * (count - 1));
+        long seen = zeroCount;
+        if (rank < seen) {
+            return 0;
+        }
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return 2 * Math.pow(GAMMA, i) / (GAMMA + 1);
+            }
+        }
+        return 2 * Math.pow(GAMMA, BUCKETS - 1) / (GAMMA + 1);
+    }
+
+    public synchronized byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        writeVarLong(out, FORMAT_VERSION);
+        writeVarLong(out, zeroCount);
+        int previous = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - previous);
+                writeVarLong(out, counts[i]);
+                previous = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    public static QuantileSketch fromBytes(byte[] data) {
+        QuantileSketch sketch = new QuantileSketch();
+        int[] pos = {0};
+        long version = readVarLong(data, pos);
+        if (version != FORMAT_VERSION) {
+            throw new RuntimeException("Unsupported sketch format " + version);
+        }
+        sketch.zeroCount = readVarLong(data, pos);
+        sketch.count = sketch.zeroCount;
+        int index = 0;
+        while (pos[0] < data.length) {
+            index += (int) readVarLong(data, pos);
+            long n = readVarLong(data, pos);
+            sketch.counts[index] += n;
+            sketch.count += n;
+        }
+        return sketch;
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(byte[] data, int[] pos) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = data[pos[0]++];
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
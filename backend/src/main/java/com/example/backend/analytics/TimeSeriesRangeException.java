@@ -0,0 +1,8 @@
+package com.example.backend.analytics;
+
+public class TimeSeriesRangeException extends RuntimeException {
+
+    public TimeSeriesRangeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.backend.analytics;
+
+import com.example.backend.datasource.ReadYourWrites;
+import com.example.backend.dto.TimeSeriesPoint;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.GroupedCount;
+import com.example.backend.repository.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Per-minute arrivals, served, depth, wait and service time for every
+ * department and doctor, kept in memory for queue.timeseries.retention-minutes.
+ * Fed by committed token transitions; depth is seeded from the database on
+ * start-up and after bulk updates the transitions never see. The buckets
+ * survive a restart through the live-state snapshot (exportSeries /
+ * importSeries), which also seeds depth when it is usable.
+ *
+ * The buckets are per node: transitions handled by other nodes are not in
+ * them. Cluster-wide figures come from the daily rollups.
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenTimeSeries implements TokenTransitionListener {
+
+    private final TokenRepository tokenRepository;
+
+    @Value("${queue.timeseries.retention-minutes:1440}")
+    private int retentionMinutes;
+
+    private final Map<Long, MinuteRingBuffer> services = new ConcurrentHashMap<>();
+    private final Map<Long, MinuteRingBuffer> doctors = new ConcurrentHashMap<>();
+    private volatile boolean seeded;
+
+    @Override
+    public void onTransition(TokenTransition t) {
+        long minute = t.getOccurredAt() / 60_000;
+        MinuteRingBuffer service = service(t.getServiceTypeId());
+        MinuteRingBuffer doctor = t.getDoctorId() != null ? doctor(t.getDoctorId()) : null;
+
+        if (t.getFrom() == null) {
+            service.arrival(minute);
+            if (doctor != null) {
+                doctor.arrival(minute);
+            }
+        }
+
+        boolean wasWaiting = t.getFrom() == TokenStatus.WAITING;
+        boolean isWaiting = t.getTo() == TokenStatus.WAITING;
+        if (wasWaiting != isWaiting) {
+            service.depthDelta(minute, isWaiting ? 1 : -1);
+        }
+        if (wasWaiting && t.getFromDoctorId() != null
+                && (!isWaiting || !t.getFromDoctorId().equals(t.getDoctorId()))) {
+            doctor(t.getFromDoctorId()).depthDelta(minute, -1);
+        }
+        if (isWaiting && doctor != null
+                && (!wasWaiting || !t.getDoctorId().equals(t.getFromDoctorId()))) {
+            doctor.depthDelta(minute, 1);
+        }
+
+        if ((t.getTo() == TokenStatus.SERVING || t.getTo() == TokenStatus.CALLED)
+                && t.getCreatedAt() != null && t.getCalledAt() != null) {
+            long seconds = Duration.between(t.getCreatedAt(), t.getCalledAt()).toSeconds();
+            service.waited(minute, seconds);
+            if (doctor != null) {
+                doctor.waited(minute, seconds);
+            }
+        }
+
+        if (t.getTo() == TokenStatus.COMPLETED) {
+            service.served(minute);
+            if (doctor != null) {
+                doctor.served(minute);
+            }
+            if (t.getCalledAt() != null && t.getCompletedAt() != null) {
+                long seconds = Duration.between(t.getCalledAt(), t.getCompletedAt()).toSeconds();
+                service.serviced(minute, seconds);
+                if (doctor != null) {
+                    doctor.serviced(minute, seconds);
+                }
+            }
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadYourWrites
+    public void resyncOnStart() {
+        if (!seeded) {
+            resyncDepth();
+        }
+    }
+
+    @ReadYourWrites
+    public void resyncDepth() {
+        seedDepth(byId(tokenRepository.countByStatusGroupByServiceType(TokenStatus.WAITING)),
+                byId(tokenRepository.countByStatusGroupByDoctor(TokenStatus.WAITING)));
+    }
+
+    /** Waiting tokens per department and per doctor lane, as of now. */
+    public void seedDepth(Map<Long, Long> waitingByService, Map<Long, Long> waitingByDoctor) {
+        long minute = nowMinute();
+        reset(services, waitingByService, minute);
+        reset(doctors, waitingByDoctor, minute);
+        seeded = true;
+    }
+
+    /** Every retained bucket of every department and doctor, for the live-state snapshot. */
+    public byte[] exportSeries() {
+        long minute = nowMinute();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            for (Map<Long, MinuteRingBuffer> buffers : List.of(services, doctors)) {
+                Map<Long, MinuteRingBuffer> copy = Map.copyOf(buffers);
+                out.writeInt(copy.size());
+                for (Map.Entry<Long, MinuteRingBuffer> e : copy.entrySet()) {
+                    out.writeLong(e.getKey());
+                    e.getValue().writeTo(out, minute);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Puts exported buckets back, skipping minutes that have since aged out
+     * of retention. Depth is left to seedDepth.
+     */
+    public void importSeries(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            long oldest = nowMinute() - retentionMinutes + 1;
+            for (Map<Long, MinuteRingBuffer> buffers : List.of(services, doctors)) {
+                int count = in.readInt();
+                for (int i = 0; i < count; i++) {
+                    long id = in.readLong();
+                    buffers.computeIfAbsent(id, k -> new MinuteRingBuffer(retentionMinutes)).readFrom(in, oldest);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // keeps a slot (and so a depth value) for every minute, busy or not
+    @Scheduled(fixedRate = 15_000)
+    public void tick() {
+        long minute = nowMinute();
+        services.values().forEach(b -> b.touch(minute));
+        doctors.values().forEach(b -> b.touch(minute));
+    }
+
+    /** Earliest minute still held in memory. */
+    public LocalDateTime retainedSince() {
+        return MinuteRingBuffer.toDateTime(nowMinute() - retentionMinutes + 1);
+    }
+
+    public List<TimeSeriesPoint> serviceSeries(Long serviceTypeId, LocalDateTime from, LocalDateTime to, int stepMinutes) {
+        return read(services.get(serviceTypeId), from, to, stepMinutes);
+    }
+
+    public List<TimeSeriesPoint> doctorSeries(Long doctorId, LocalDateTime from, LocalDateTime to, int stepMinutes) {
+        return read(doctors.get(doctorId), from, to, stepMinutes);
+    }
+
+    private List<TimeSeriesPoint> read(MinuteRingBuffer buffer, LocalDateTime from, LocalDateTime to, int stepMinutes) {
+        // an id we have never seen reads as an empty buffer rather than an error
+        MinuteRingBuffer source = buffer != null ? buffer : new MinuteRingBuffer(1);
+        long now = nowMinute();
+        long fromMinute = Math.max(toMinute(from), now - retentionMinutes + 1);
+        long toMinute = Math.min(toMinute(to), now + 1);
+        return source.read(fromMinute, toMinute, stepMinutes);
+    }
+
+    private MinuteRingBuffer service(Long id) {
+        return services.computeIfAbsent(id, k -> new MinuteRingBuffer(retentionMinutes));
+    }
+
+    private MinuteRingBuffer doctor(Long id) {
+        return doctors.computeIfAbsent(id, k -> new MinuteRingBuffer(retentionMinutes));
+    }
+
+    private void reset(Map<Long, MinuteRingBuffer> buffers, Map<Long, Long> waiting, long minute) {
+        buffers.values().forEach(b -> b.resetDepth(minute, 0));
+        waiting.forEach((id, total) -> buffers.computeIfAbsent(id, k -> new MinuteRingBuffer(retentionMinutes))
+                .resetDepth(minute, total.intValue()));
+    }
+
+    private static Map<Long, Long> byId(List<GroupedCount> counts) {
+        return counts.stream().collect(Collectors.toMap(GroupedCount::getId, GroupedCount::getTotal));
+    }
+
+    private static long nowMinute() {
+        return System.currentTimeMillis() / 60_000;
+    }
+
+    private static long toMinute(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+}
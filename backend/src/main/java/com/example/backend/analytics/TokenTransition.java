@@ -0,0 +1,28 @@
+package com.example.backend.analytics;
+
+import com.example.backend.entity.enums.TokenStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of one token status change, taken inside the
+ * transaction and handed to listeners after it commits.
+ */
+@Getter
+@AllArgsConstructor
+public class TokenTransition {
+
+    private final Long tokenId;
+    private final Long serviceTypeId;
+    private final Long doctorId;       // doctor after the change
+    private final Long fromDoctorId;   // doctor lane the token sat in before
+    private final TokenStatus from;    // null when the token was just created
+    private final TokenStatus to;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime calledAt;
+    private final LocalDateTime completedAt;
+    private final long occurredAt;     // epoch millis
+    private final String actor;        // username, or "system" outside a request
+}
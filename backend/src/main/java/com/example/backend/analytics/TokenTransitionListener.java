@@ -0,0 +1,7 @@
+package com.example.backend.analytics;
+
+public interface TokenTransitionListener {
+
+    /** Called after the transition's transaction committed; must not block. */
+    void onTransition(TokenTransition transition);
+}
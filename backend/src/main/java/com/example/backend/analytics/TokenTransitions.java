@@ -0,0 +1,78 @@
+package com.example.backend.analytics;
+
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.TokenStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+/**
+ * Single place every token status change is reported to.
+ * Listeners only see transitions whose transaction actually committed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TokenTransitions {
+
+    private final List<TokenTransitionListener> listeners;
+
+    public void record(Token token, TokenStatus from) {
+        record(token, from, token.getDoctor());
+    }
+
+    public void record(Token token, TokenStatus from, Counter fromDoctor) {
+        TokenTransition transition = new TokenTransition(
+                token.getId(),
+                token.getServiceType().getId(),
+                token.getDoctor() != null ? token.getDoctor().getId() : null,
+                fromDoctor != null ? fromDoctor.getId() : null,
+                from,
+                token.getStatus(),
+                token.getCreatedAt(),
+                token.getCalledAt(),
+                token.getCompletedAt(),
+                System.currentTimeMillis(),
+                currentActor()
+        );
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(transition);
+                }
+            });
+        } else {
+            dispatch(transition);
+        }
+    }
+
+    private static String currentActor() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            return "system"; // scheduled jobs and start-up work
+        }
+        return auth instanceof AnonymousAuthenticationToken ? "anonymous" : auth.getName();
+    }
+
+    private void dispatch(TokenTransition transition) {
+        for (TokenTransitionListener listener : listeners) {
+            try {
+                listener.onTransition(transition);
+            } catch (RuntimeException e) {
+                // analytics must never fail a queue operation that already committed
+                log.warn("Token transition listener {} failed: {}",
+                        listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Stable id of this backend instance. Used to tag anything that
+ * leaves the node (bus events, persisted per-node state).
+ */
+@Component
+public class NodeIdentity {
+
+    private final String id;
+
+    public NodeIdentity(@Value("${queue.node-id:}") String configuredId) {
+        this.id = configuredId == null || configuredId.isBlank()
+                ? UUID.randomUUID().toString()
+                : configuredId;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.backend.config;
+
+import com.example.backend.metrics.QueueMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Virtual-thread mode only: streams JFR's jdk.VirtualThreadPinned events
+ * (a virtual thread that blocked while holding a monitor or inside native
+ * code, so it kept its carrier) and reports the ones raised from our code.
+ *
+ * Each event longer than queue.virtual.pinned-threshold-ms is counted as
+ * queue.virtual.pinned, tagged with the innermost com.example.backend frame
+ * ("other" when the pin happened entirely in library code), and ours are
+ * logged with that frame.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+    private static final String OUR_CODE = "com.example.backend.";
+
+    private final QueueMetrics queueMetrics;
+
+    @Value("${queue.virtual.pinned-threshold-ms:20}")
+    private long thresholdMs;
+
+    private RecordingStream stream;
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED, this::pinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void pinned(RecordedEvent event) {
+        String site = ourFrame(event.getStackTrace());
+        queueMetrics.recordPinned(site);
+        if (!"other".equals(site)) {
+            log.warn("Virtual thread pinned for {} ms at {} on {}",
+                    event.getDuration().toMillis(), site, event.getThread() != null ? event.getThread().getJavaName() : "?");
+        }
+    }
+
+    private static String ourFrame(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "other";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith(OUR_CODE)) {
+                return type.substring(OUR_CODE.length()) + "." + frame.getMethod().getName();
+            }
+        }
+        return "other";
+    }
+}
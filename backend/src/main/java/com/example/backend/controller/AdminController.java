@@ -1,5 +1,6 @@
 package com.example.backend.controller;
 
+import com.example.backend.datasource.ReadYourWrites;
 import com.example.backend.dto.CounterRequest;
 import com.example.backend.dto.TokenResponse;
 import com.example.backend.entity.Counter;
@@ -7,11 +8,17 @@ import com.example.backend.entity.ServiceType;
 import com.example.backend.entity.Token;
 import com.example.backend.entity.enums.TokenPriority;
 import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.journal.JournalEntry;
+import com.example.backend.journal.TransitionJournal;
+import com.example.backend.metrics.QueueMetrics;
 import com.example.backend.repository.CounterRepository;
 import com.example.backend.repository.ServiceTypeRepository;
 import com.example.backend.repository.TokenRepository;
 import com.example.backend.service.TokenService;
+import com.example.backend.versioning.ConditionalGet;
+import com.example.backend.versioning.DataDomain;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.web.bind.annotation.*;
 import lombok.Data;
 
@@ -26,6 +33,8 @@ public class AdminController {
     private final ServiceTypeRepository serviceTypeRepository;
     private final TokenService tokenService;
     private final TokenRepository tokenRepository;
+    private final QueueMetrics queueMetrics;
+    private final ObjectProvider<TransitionJournal> transitionJournal;
 
     @PostMapping("/services")
     public ServiceType createService(@RequestBody ServiceType serviceType) {
@@ -41,11 +50,13 @@ public class AdminController {
     }
 
     @GetMapping("/counters")
+    @ConditionalGet(DataDomain.COUNTERS)
     public List<Counter> getCounters() {
         return counterRepository.findAll();
     }
 
     @GetMapping("/emergencies")
+    @ReadYourWrites
     public List<TokenResponse> getPendingEmergencies() {
         return tokenRepository
                 .findByStatusAndPriorityTypeAndApproved(
@@ -60,13 +71,29 @@ public class AdminController {
 
     @PutMapping("/emergencies/{tokenId}/approve")
     public TokenResponse approveEmergency(@PathVariable Long tokenId) {
-        return map(tokenService.approveEmergency(tokenId));
+        return map(queueMetrics.time("approve_emergency",
+                () -> tokenService.approveEmergency(tokenId)));
     }
 
     @PutMapping("/emergencies/{tokenId}/reject")
     public void rejectEmergency(@PathVariable Long tokenId) {
         tokenService.rejectEmergency(tokenId);
     }
+
+    // Audit trail of this node's token transitions; page with from = last sequence + 1
+    @GetMapping("/journal")
+    public List<JournalEntry> getJournal(
+            @RequestParam(defaultValue = "1") long from,
+            @RequestParam(required = false) Long tokenId,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        TransitionJournal journal = transitionJournal.getIfAvailable();
+        if (journal == null) {
+            throw new RuntimeException("Transition journal is disabled");
+        }
+        return journal.read(from, tokenId, Math.min(Math.max(limit, 1), 1000));
+    }
+
     private TokenResponse map(Token token) {
         TokenResponse res = new TokenResponse();
         res.setId(token.getId());
@@ -1,15 +1,30 @@
 package com.example.backend.controller;
 
 import com.example.backend.dto.AdminDashboardSummary;
+import com.example.backend.dto.DailyRollupResponse;
 import com.example.backend.dto.DoctorLoadResponse;
 import com.example.backend.dto.ServiceStatsResponse;
+import com.example.backend.dto.TimeSeriesResponse;
+import com.example.backend.metrics.QueryBudget;
 import com.example.backend.service.AdminDashboardService;
+import com.example.backend.service.TokenExportService;
+import com.example.backend.service.TimeSeriesService;
+import com.example.backend.versioning.ConditionalGet;
+import com.example.backend.versioning.DataDomain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/admin/dashboard")
@@ -17,20 +32,91 @@ import java.util.List;
 public class AdminDashboardController {
 
     private final AdminDashboardService dashboardService;
+    private final TimeSeriesService timeSeriesService;
+    private final TokenExportService exportService;
 
     @GetMapping("/summary")
+    @QueryBudget(4)
+    @ConditionalGet(DataDomain.DASHBOARD)
     public AdminDashboardSummary summary() {
         return dashboardService.getSummary();
     }
 
     @GetMapping("/doctors")
+    @QueryBudget(4)
+    @ConditionalGet(DataDomain.DASHBOARD)
     public List<DoctorLoadResponse> doctorLoad() {
         return dashboardService.doctorLoad();
     }
 
     @GetMapping("/services")
+    @QueryBudget(4)
+    @ConditionalGet(DataDomain.DASHBOARD)
     public List<ServiceStatsResponse> serviceStats() {
         return dashboardService.serviceStats();
     }
-}
 
+    @GetMapping("/history/services")
+    @QueryBudget(1)
+    @ConditionalGet(DataDomain.DASHBOARD)
+    public List<DailyRollupResponse> serviceHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return dashboardService.serviceHistory(from, to);
+    }
+
+    @GetMapping("/history/doctors")
+    @QueryBudget(1)
+    @ConditionalGet(DataDomain.DASHBOARD)
+    public List<DailyRollupResponse> doctorHistory(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return dashboardService.doctorHistory(from, to);
+    }
+
+    // e.g. /timeseries?scope=service&id=3&from=2026-10-19T08:00&resolution=15
+    @GetMapping("/timeseries")
+    @QueryBudget(1)
+    public TimeSeriesResponse timeSeries(
+            @RequestParam String scope,
+            @RequestParam Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "1") int resolution
+    ) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusHours(1);
+        return timeSeriesService.series(scope, id, start, end, resolution);
+    }
+
+    // Streams every token in the range; gzip-encoded when the client accepts it.
+    // e.g. /export/tokens?from=2026-01-01&to=2026-03-31&format=jsonl&serviceId=2
+    @GetMapping("/export/tokens")
+    public void exportTokens(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long serviceId,
+            @RequestParam(required = false) Long doctorId,
+            @RequestParam(defaultValue = "csv") String format,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) {
+        TokenExportService.Format exportFormat = TokenExportService.Format.of(format);
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+
+        exportService.export(from, to, serviceId, doctorId, exportFormat, () -> {
+            response.setContentType(exportFormat.contentType());
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                    "attachment; filename=\"tokens-" + from + "-" + to + "." + exportFormat.extension() + "\"");
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (!gzip) {
+                return response.getOutputStream();
+            }
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+        });
+    }
+}
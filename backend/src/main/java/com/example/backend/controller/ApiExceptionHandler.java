@@ -0,0 +1,65 @@
+package com.example.backend.controller;
+
+import com.example.backend.analytics.TimeSeriesRangeException;
+import com.example.backend.datasource.BulkheadFullException;
+import com.example.backend.metrics.QueueMetrics;
+import com.example.backend.service.IdempotencyKeyReusedException;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+@RestControllerAdvice
+@RequiredArgsConstructor
+public class ApiExceptionHandler {
+
+    private final QueueMetrics queueMetrics;
+
+    // Two staff members (or a staff member and an admin) touched the same token/doctor at once
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> optimisticLock(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        queueMetrics.optimisticLockFailure(
+                request.getMethod() + " " + (pattern != null ? pattern : "unknown"));
+
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("message", "Updated concurrently, please retry"));
+    }
+
+    // A kiosk sent a known Idempotency-Key with a different phone / department / doctor / urgency
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<Map<String, String>> idempotencyKeyReused(IdempotencyKeyReusedException e) {
+        return ResponseEntity.unprocessableEntity()
+                .body(Map.of("message", e.getMessage()));
+    }
+
+    // Reporting bulkhead is full; queue transitions are unaffected
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<Map<String, String>> bulkheadFull() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "2")
+                .body(Map.of("message", "Reports are busy, please retry shortly"));
+    }
+
+    // unknown scope, empty or oversized range on /timeseries
+    @ExceptionHandler(TimeSeriesRangeException.class)
+    public ResponseEntity<Map<String, String>> timeSeriesRange(TimeSeriesRangeException e) {
+        return ResponseEntity.badRequest()
+                .body(Map.of("message", e.getMessage()));
+    }
+
+    // statement_timeout on the reporting pool
+    @ExceptionHandler(QueryTimeoutException.class)
+    public ResponseEntity<Map<String, String>> queryTimeout() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("message", "Query took too long, narrow the range and retry"));
+    }
+}
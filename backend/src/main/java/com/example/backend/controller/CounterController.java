@@ -6,6 +6,7 @@ import com.example.backend.entity.Counter;
 import com.example.backend.entity.ServiceType;
 import com.example.backend.entity.Token;
 import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.metrics.QueueMetrics;
 import com.example.backend.repository.CounterRepository;
 import com.example.backend.repository.ServiceTypeRepository;
 import com.example.backend.service.CounterService;
@@ -24,6 +25,7 @@ public class CounterController {
     private final CounterService counterService;
     private final CounterRepository counterRepository;
     private final ServiceTypeRepository serviceTypeRepository;
+    private final QueueMetrics queueMetrics;
 
     @PostMapping("/{counterId}/call-next/{serviceTypeId}")
     public TokenResponse callNext(
@@ -33,7 +35,8 @@ public class CounterController {
         ServiceType serviceType = serviceTypeRepository.findById(serviceTypeId)
                 .orElseThrow(() -> new RuntimeException("Service not found"));
 
-        Token token = counterService.callNextToken(counterId, serviceType);
+        Token token = queueMetrics.time("call_next",
+                () -> counterService.callNextToken(counterId, serviceType));
         return map(token);
     }
     @PutMapping("/{counterId}/availability")
@@ -44,7 +47,7 @@ public class CounterController {
     }
     @PutMapping("/tokens/{tokenId}/complete")
     public void completeToken(@PathVariable Long tokenId) {
-        counterService.completeToken(tokenId);
+        queueMetrics.time("complete_token", () -> counterService.completeToken(tokenId));
     }
 
     @PutMapping("/tokens/{tokenId}/skip")
@@ -1,5 +1,6 @@
 package com.example.backend.controller;
 
+import com.example.backend.datasource.ReadYourWrites;
 import com.example.backend.entity.Token;
 import com.example.backend.repository.ServiceTypeRepository;
 import com.example.backend.repository.TokenRepository;
@@ -20,6 +21,7 @@ public class MetricsController {
     private final TokenRepository tokenRepository;
 
     @GetMapping("/eta/{tokenId}")
+    @ReadYourWrites
     public long getEta(@PathVariable Long tokenId) {
 
         Token token = tokenRepository.findById(tokenId)
@@ -1,6 +1,7 @@
 package com.example.backend.controller;
 
 import com.example.backend.dto.PatientTokenHistoryResponse;
+import com.example.backend.metrics.QueryBudget;
 import com.example.backend.service.PatientHistoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +18,7 @@ public class PatientController {
 
     // 🔹 All visits
     @GetMapping
+    @QueryBudget(3)
     public List<PatientTokenHistoryResponse> getHistory(
             @RequestParam String phone
     ) {
@@ -25,6 +27,7 @@ public class PatientController {
 
     // 🔹 Filter by department
     @GetMapping("/service/{serviceId}")
+    @QueryBudget(4)
     public List<PatientTokenHistoryResponse> byService(
             @RequestParam String phone,
             @PathVariable Long serviceId
@@ -34,6 +37,7 @@ public class PatientController {
 
     // 🔹 Filter by doctor
     @GetMapping("/doctor/{doctorId}")
+    @QueryBudget(4)
     public List<PatientTokenHistoryResponse> byDoctor(
             @RequestParam String phone,
             @PathVariable Long doctorId
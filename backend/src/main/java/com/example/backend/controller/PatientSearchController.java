@@ -0,0 +1,30 @@
+package com.example.backend.controller;
+
+import com.example.backend.dto.PatientSearchResult;
+import com.example.backend.search.PatientSearch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/patients/search")
+@RequiredArgsConstructor
+public class PatientSearchController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final PatientSearch patientSearch;
+
+    // Phone or medical id prefix, a mistyped phone, or a (misspelt) name
+    @GetMapping
+    public List<PatientSearchResult> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit
+    ) {
+        return patientSearch.search(q, Math.min(Math.max(limit, 1), MAX_LIMIT)).stream()
+                .map(hit -> new PatientSearchResult(
+                        hit.id(), hit.name(), hit.phone(), hit.medicalId(), hit.match().name()))
+                .toList();
+    }
+}
@@ -2,6 +2,8 @@ package com.example.backend.controller;
 
 import com.example.backend.entity.ServiceType;
 import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.versioning.ConditionalGet;
+import com.example.backend.versioning.DataDomain;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -17,6 +19,7 @@ public class ServiceController {
     private final ServiceTypeRepository serviceTypeRepository;
 
     @GetMapping
+    @ConditionalGet(DataDomain.SERVICES)
     public List<ServiceType> getServices() {
         return serviceTypeRepository.findAll();
     }
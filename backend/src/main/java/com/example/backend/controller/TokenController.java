@@ -7,8 +7,12 @@ import com.example.backend.dto.TokenResponse;
 import com.example.backend.entity.ServiceType;
 import com.example.backend.entity.Token;
 import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.metrics.QueueMetrics;
 import com.example.backend.service.QueueService;
+import com.example.backend.service.TokenIdempotencyCache;
 import com.example.backend.service.TokenService;
+import com.example.backend.versioning.ConditionalGet;
+import com.example.backend.versioning.DataDomain;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -23,6 +27,8 @@ import java.util.stream.Collectors;
 public class TokenController {
     private final TokenService tokenService;
     private final QueueService queueService;
+    private final QueueMetrics queueMetrics;
+    private final TokenIdempotencyCache idempotencyCache;
 
     @PostMapping
     public TokenResponse createToken(@RequestBody CreateTokenRequest request) {
@@ -35,10 +41,14 @@ public class TokenController {
     // NEW
     @PostMapping("/patient")
     public TokenResponse createPatientToken(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody @Valid CreatePatientTokenRequest request) {
 
-        Token token = tokenService.createPatientToken(request);
-        return mapToResponse(token);
+        return idempotencyCache.createOnce(idempotencyKey, request, () -> {
+            Token token = queueMetrics.time("create_patient_token",
+                    () -> tokenService.createPatientToken(request));
+            return mapToResponse(token);
+        });
     }
 
     @GetMapping("/status/{status}")
@@ -54,6 +64,7 @@ public class TokenController {
                 .collect(Collectors.toList());
     }
     @GetMapping("/queue/{serviceTypeId}")
+    @ConditionalGet(value = DataDomain.QUEUE, key = "serviceTypeId")
     public QueueStatusResponse getQueueStatus(@PathVariable Long serviceTypeId) {
         QueueStatusResponse response = new QueueStatusResponse();
         response.setWaitingCount(queueService.getWaitingCount(serviceTypeId));
@@ -0,0 +1,85 @@
+package com.example.backend.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * At most maxConcurrent calls run at once; up to maxQueued more wait (FIFO)
+ * for at most maxWaitMs, anything beyond is rejected straight away.
+ * Calls run on the caller's thread, so transactions and other thread-bound
+ * state work as usual.
+ *
+ * queue.bulkhead.wait       time spent waiting for a slot (bulkhead)
+ * queue.bulkhead.rejected   calls turned away (bulkhead, reason = queue_full | timeout)
+ * queue.bulkhead.active / .queued  current occupancy
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long maxWaitMs;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final MeterRegistry registry;
+    private final Timer wait;
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, long maxWaitMs, MeterRegistry registry) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.maxWaitMs = maxWaitMs;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.registry = registry;
+        this.wait = registry.timer("queue.bulkhead.wait", "bulkhead", name);
+        Gauge.builder("queue.bulkhead.active", this, b -> b.maxConcurrent - b.permits.availablePermits())
+                .tag("bulkhead", name)
+                .register(registry);
+        Gauge.builder("queue.bulkhead.queued", queued, AtomicInteger::get)
+                .tag("bulkhead", name)
+                .register(registry);
+    }
+
+    public void acquire() {
+        if (permits.tryAcquire()) {
+            wait.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw reject("queue_full");
+        }
+        long start = System.nanoTime();
+        boolean acquired = false;
+        try {
+            acquired = permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            queued.decrementAndGet();
+            wait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        if (!acquired) {
+            throw reject("timeout");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    private BulkheadFullException reject(String reason) {
+        Counter.builder("queue.bulkhead.rejected")
+                .tag("bulkhead", name)
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+        return new BulkheadFullException(name, reason);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.backend.datasource;
+
+public class BulkheadFullException extends RuntimeException {
+
+    public BulkheadFullException(String bulkhead, String reason) {
+        super("Bulkhead " + bulkhead + " rejected the call: " + reason);
+    }
+}
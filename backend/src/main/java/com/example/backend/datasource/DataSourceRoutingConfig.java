@@ -0,0 +1,204 @@
+package com.example.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Connection pools and read routing.
+ *
+ * With read replicas (queue.replicas.enabled) or the reporting bulkhead
+ * (queue.reporting.enabled) the application DataSource becomes a
+ * LazyConnectionDataSourceProxy. It fetches the physical connection on the
+ * first statement, after the transaction has marked it read-only, and takes
+ * read-only connections from ReadRoutingDataSource. Everything else,
+ * including startup schema updates, goes to the primary pool, which is
+ * still a plain Hikari bean bound to spring.datasource.hikari.*. Every pool
+ * reports hikaricp.* meters tagged with its pool name
+ * (hikaricp.connections.acquire is the wait for a connection).
+ */
+@Configuration(proxyBeanMethods = false)
+public class DataSourceRoutingConfig {
+
+    // outside the transaction advice, so the pin is in place before any connection is taken
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor readYourWritesAdvisor() {
+        MethodInterceptor interceptor = invocation -> {
+            ReadYourWritesContext.enter();
+            try {
+                return invocation.proceed();
+            } finally {
+                ReadYourWritesContext.exit();
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(annotated(ReadYourWrites.class), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor reportingAdvisor(ObjectProvider<Bulkhead> reportingBulkhead) {
+        MethodInterceptor interceptor = invocation -> {
+            Bulkhead bulkhead = reportingBulkhead.getIfAvailable();
+            if (bulkhead == null) {
+                return invocation.proceed();
+            }
+            boolean outermost = ReportingContext.enter();
+            try {
+                if (outermost) {
+                    bulkhead.acquire();
+                }
+                try {
+                    return invocation.proceed();
+                } finally {
+                    if (outermost) {
+                        bulkhead.release();
+                    }
+                }
+            } finally {
+                ReportingContext.exit();
+            }
+        };
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(annotated(Reporting.class), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    private static ComposablePointcut annotated(Class<? extends Annotation> annotation) {
+        return new ComposablePointcut(new AnnotationMatchingPointcut(annotation, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(annotation));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnExpression("${queue.replicas.enabled:false} or ${queue.reporting.enabled:false}")
+    static class Routing {
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource primaryDataSource(@Value("${spring.datasource.url}") String url,
+                                           @Value("${spring.datasource.username}") String username,
+                                           @Value("${spring.datasource.password}") String password,
+                                           MeterRegistry registry) {
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setJdbcUrl(url);
+            dataSource.setUsername(username);
+            dataSource.setPassword(password);
+            dataSource.setPoolName("primary");
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            return dataSource;
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(HikariDataSource primaryDataSource,
+                              ObjectProvider<ReplicaSet> replicaSet,
+                              ObjectProvider<ReportingPool> reportingPool,
+                              MeterRegistry registry) {
+            ReportingPool reporting = reportingPool.getIfAvailable();
+            LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primaryDataSource);
+            proxy.setReadOnlyDataSource(new ReadRoutingDataSource(
+                    primaryDataSource,
+                    replicaSet.getIfAvailable(),
+                    reporting != null ? reporting.dataSource() : null,
+                    registry));
+            return proxy;
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "queue.replicas.enabled", havingValue = "true")
+    static class Replicas {
+
+        @Bean
+        ReplicaSet replicaSet(@Value("${queue.replicas.urls}") String[] urls,
+                              @Value("${queue.replicas.username:${spring.datasource.username}}") String username,
+                              @Value("${queue.replicas.password:${spring.datasource.password}}") String password,
+                              @Value("${queue.replicas.pool-size:10}") int poolSize,
+                              @Value("${queue.replicas.max-lag-ms:2000}") long maxLagMs,
+                              MeterRegistry registry) {
+            List<HikariDataSource> pools = new ArrayList<>();
+            for (int i = 0; i < urls.length; i++) {
+                HikariDataSource pool = new HikariDataSource();
+                pool.setJdbcUrl(urls[i].trim());
+                pool.setUsername(username);
+                pool.setPassword(password);
+                pool.setPoolName("replica-" + i);
+                pool.setMaximumPoolSize(poolSize);
+                pool.setReadOnly(true);
+                // a dead replica must not hold up reads that can fall back to the primary
+                pool.setConnectionTimeout(2000);
+                pool.setInitializationFailTimeout(-1);
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                pools.add(pool);
+            }
+            return new ReplicaSet(pools, maxLagMs, registry);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "queue.reporting.enabled", havingValue = "true")
+    static class Reports {
+
+        // not a DataSource bean, so nothing else picks it up by type
+        @Bean
+        ReportingPool reportingPool(@Value("${spring.datasource.url}") String url,
+                                    @Value("${spring.datasource.username}") String username,
+                                    @Value("${spring.datasource.password}") String password,
+                                    @Value("${queue.reporting.pool-size:3}") int poolSize,
+                                    @Value("${queue.reporting.statement-timeout-ms:10000}") long statementTimeoutMs,
+                                    MeterRegistry registry) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setJdbcUrl(url);
+            pool.setUsername(username);
+            pool.setPassword(password);
+            pool.setPoolName("reporting");
+            pool.setMaximumPoolSize(poolSize);
+            pool.setMinimumIdle(1);
+            pool.setReadOnly(true);
+            pool.setConnectionInitSql("SET statement_timeout = " + statementTimeoutMs);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+            return new ReportingPool(pool);
+        }
+
+        @Bean
+        Bulkhead reportingBulkhead(@Value("${queue.reporting.pool-size:3}") int poolSize,
+                                   @Value("${queue.reporting.max-queued:20}") int maxQueued,
+                                   @Value("${queue.reporting.max-wait-ms:3000}") long maxWaitMs,
+                                   MeterRegistry registry) {
+            // callers queue here, in a bounded line, rather than inside the pool
+            return new Bulkhead("reporting", poolSize, maxQueued, maxWaitMs, registry);
+        }
+    }
+
+    record ReportingPool(HikariDataSource dataSource) implements AutoCloseable {
+
+        @Override
+        public void close() {
+            dataSource.close();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.backend.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+
+/**
+ * Connection source for read-only transactions (the read-only side of the
+ * LazyConnectionDataSourceProxy), in order of preference:
+ * 1. a usable replica, unless reads are pinned by @ReadYourWrites,
+ * 2. the reporting pool for @Reporting work (it points at the primary,
+ *    so it also satisfies read-your-writes),
+ * 3. the primary pool.
+ * Either of replicas / reporting may be null when disabled.
+ *
+ * queue.datasource.reads counts every read-only connection by target and,
+ * for the primary, why (pinned, no_replica, unreachable).
+ *
+ * getConnection(username, password) routes the same way and passes the
+ * credentials to the chosen pool (Hikari pools refuse them with
+ * SQLFeatureNotSupportedException, as they do when called directly).
+ */
+public class ReadRoutingDataSource extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final ReplicaSet replicas;
+    private final DataSource reporting;
+    private final Counter toReplica;
+    private final Counter toReporting;
+    private final Counter pinned;
+    private final Counter noReplica;
+    private final Counter unreachable;
+
+    public ReadRoutingDataSource(DataSource primary, ReplicaSet replicas, DataSource reporting, MeterRegistry registry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.reporting = reporting;
+        this.toReplica = reads(registry, "replica", "replica");
+        this.toReporting = reads(registry, "reporting", "reporting");
+        this.pinned = reads(registry, "primary", "pinned");
+        this.noReplica = reads(registry, "primary", "no_replica");
+        this.unreachable = reads(registry, "primary", "unreachable");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        Counter fallback = noReplica;
+        if (ReadYourWritesContext.isActive()) {
+            fallback = pinned;
+        } else if (replicas != null) {
+            ReplicaSet.Replica replica = replicas.pick();
+            if (replica != null) {
+                try {
+                    Connection connection = source.open(replica.dataSource());
+                    toReplica.increment();
+                    return connection;
+                } catch (SQLFeatureNotSupportedException e) {
+                    throw e; // says nothing about the replica's health
+                } catch (SQLException e) {
+                    replicas.markDown(replica, e);
+                    fallback = unreachable;
+                }
+            }
+        }
+
+        if (reporting != null && ReportingContext.isActive()) {
+            toReporting.increment();
+            return source.open(reporting);
+        }
+        fallback.increment();
+        return source.open(primary);
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static Counter reads(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("queue.datasource.reads")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.backend.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Read-only work inside the annotated method goes to the primary, never to
+ * a replica that may not have replayed the caller's latest writes yet.
+ * No effect unless queue.replicas.enabled=true.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadYourWrites {
+}
@@ -0,0 +1,28 @@
+package com.example.backend.datasource;
+
+/**
+ * Thread-bound "pin reads to the primary" scope; nests, so an annotated
+ * method calling another one keeps the pin until the outer one returns.
+ */
+public final class ReadYourWritesContext {
+
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private ReadYourWritesContext() {
+    }
+
+    public static void enter() {
+        DEPTH.get()[0]++;
+    }
+
+    public static void exit() {
+        int[] depth = DEPTH.get();
+        if (--depth[0] <= 0) {
+            DEPTH.remove();
+        }
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get()[0] > 0;
+    }
+}
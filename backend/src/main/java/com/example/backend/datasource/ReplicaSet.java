@@ -0,0 +1,126 @@
+package com.example.backend.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The read replicas, each with its own pool and last measured replay lag.
+ *
+ * A replica counts as usable while it is a streaming standby whose lag is
+ * within queue.replicas.max-lag-ms. Lag is zero when everything received
+ * has been replayed, otherwise the age of the last replayed transaction
+ * (which over-states lag on an idle primary; that only costs offload).
+ * Unreachable or non-standby servers get Long.MAX_VALUE and are skipped
+ * until a later probe succeeds.
+ */
+@Slf4j
+public class ReplicaSet implements AutoCloseable {
+
+    private static final String LAG_SQL = """
+            select pg_is_in_recovery()
+                       and exists (select 1 from pg_stat_wal_receiver where status = 'streaming'),
+                   case when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                        else extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000
+                   end
+            """;
+
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaSet(List<HikariDataSource> dataSources, long maxLagMs, MeterRegistry registry) {
+        this.replicas = dataSources.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+        for (Replica replica : replicas) {
+            Gauge.builder("queue.datasource.replica.lag", replica, r -> r.lagMs == Long.MAX_VALUE ? -1 : r.lagMs)
+                    .description("Replay lag in ms as last probed, -1 when unusable")
+                    .tag("replica", replica.name())
+                    .register(registry);
+        }
+    }
+
+    /** Round-robin over replicas within the lag budget; null when there is none. */
+    public Replica pick() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.lagMs <= maxLagMs) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /** Worst-case staleness of a read served by a usable replica. */
+    public long maxLagMs() {
+        return maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${queue.replicas.probe-ms:1000}")
+    public void probe() {
+        for (Replica replica : replicas) {
+            try (Connection conn = replica.dataSource.getConnection();
+                 Statement st = conn.createStatement()) {
+                st.setQueryTimeout(1);
+                try (ResultSet rs = st.executeQuery(LAG_SQL)) {
+                    rs.next();
+                    boolean streaming = rs.getBoolean(1);
+                    long lag = (long) rs.getDouble(2);
+                    replica.update(streaming && !rs.wasNull() ? Math.max(0, lag) : Long.MAX_VALUE);
+                }
+            } catch (SQLException e) {
+                markDown(replica, e);
+            }
+        }
+    }
+
+    void markDown(Replica replica, SQLException cause) {
+        if (replica.lagMs != Long.MAX_VALUE) {
+            log.warn("Replica {} unusable, reading from primary: {}", replica.name(), cause.getMessage());
+        }
+        replica.lagMs = Long.MAX_VALUE;
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(r -> r.dataSource.close());
+    }
+
+    public static final class Replica {
+
+        private final HikariDataSource dataSource;
+        // unusable until the first probe says otherwise
+        private volatile long lagMs = Long.MAX_VALUE;
+
+        private Replica(HikariDataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        public String name() {
+            return dataSource.getPoolName();
+        }
+
+        DataSource dataSource() {
+            return dataSource;
+        }
+
+        private void update(long lag) {
+            if (lagMs == Long.MAX_VALUE && lag != Long.MAX_VALUE) {
+                log.info("Replica {} usable, lag {} ms", name(), lag);
+            }
+            lagMs = lag;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.backend.datasource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks reporting / history reads. They run inside the reporting bulkhead
+ * (bounded concurrency, short queue, 503 when full), and their read-only
+ * connections come from the small reporting pool (with statement_timeout)
+ * unless a replica serves them. This keeps them off the primary pool that
+ * queue transitions use. No effect with queue.reporting.enabled=false.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Reporting {
+}
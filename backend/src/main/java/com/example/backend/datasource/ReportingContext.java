@@ -0,0 +1,29 @@
+package com.example.backend.datasource;
+
+/**
+ * Thread-bound "inside a @Reporting call" scope. Nested reporting calls
+ * share the outermost call's bulkhead permit.
+ */
+public final class ReportingContext {
+
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private ReportingContext() {
+    }
+
+    /** @return true for the outermost scope on this thread */
+    static boolean enter() {
+        return DEPTH.get()[0]++ == 0;
+    }
+
+    static void exit() {
+        int[] depth = DEPTH.get();
+        if (--depth[0] <= 0) {
+            DEPTH.remove();
+        }
+    }
+
+    public static boolean isActive() {
+        return DEPTH.get()[0] > 0;
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.backend.dispatch;
+
+import com.example.backend.analytics.TokenTransition;
+import com.example.backend.analytics.TokenTransitionListener;
+import com.example.backend.datasource.ReadYourWrites;
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.GroupedCount;
+import com.example.backend.repository.TokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Picks the least-loaded AVAILABLE doctor of a department.
+ *
+ * Doctors are ranked by own-lane waiting + serving, then by served today
+ * relative to maxPatientsPerDay; anyone whose total has reached that cap
+ * sorts behind every doctor with room and is never picked. Ranking on the daily share alone pushes work to the slowest
+ * doctors (see DispatchSimulation in backend-benchmarks). Each department keeps an indexed min-heap of its available doctors;
+ * committed token transitions and availability changes re-key the doctor
+ * in O(log n), so picking is an in-memory decision. State is rebuilt from
+ * the database on start-up (unless a live-state snapshot got there first),
+ * after the day rollover and every queue.dispatch.resync-ms to absorb
+ * changes made by other nodes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DoctorDispatcher implements TokenTransitionListener {
+
+    private static final int MAX_STALE_PICKS = 3;
+
+    private final CounterRepository counterRepository;
+    private final TokenRepository tokenRepository;
+
+    @Value("${queue.dispatch.default-capacity:40}")
+    private int defaultCapacity;
+
+    private final Map<Long, DoctorLoad> doctors = new HashMap<>();
+    private final Map<Long, LoadHeap> departments = new HashMap<>();
+    private long assignments;
+    private volatile boolean loaded;
+
+    /**
+     * Reserves the least-loaded available doctor of the department for the
+     * current transaction. The in-memory reservation is undone on rollback;
+     * callers still flip the doctor to BUSY and save as before.
+     */
+    public Optional<Counter> assign(ServiceType department) {
+        if (!loaded) {
+            return counterRepository.findFirstByDepartmentsContainsAndAvailability(
+                    department, DoctorAvailability.AVAILABLE);
+        }
+        for (int attempt = 0; attempt < MAX_STALE_PICKS; attempt++) {
+            Optional<Long> picked = reserve(department.getId());
+            if (picked.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Counter> doctor = counterRepository.findById(picked.get());
+            if (doctor.isPresent() && doctor.get().getAvailability() == DoctorAvailability.AVAILABLE) {
+                return doctor;
+            }
+            // another node took this doctor since our last resync; skip it and keep going
+            log.debug("Dispatcher picked stale doctor {}", picked.get());
+        }
+        return Optional.empty();
+    }
+
+    public void availabilityChanged(Long doctorId, DoctorAvailability availability) {
+        afterCommit(() -> setAvailable(doctorId, availability == DoctorAvailability.AVAILABLE));
+    }
+
+    @Override
+    public synchronized void onTransition(TokenTransition t) {
+        DoctorLoad from = t.getFromDoctorId() != null ? doctors.get(t.getFromDoctorId()) : null;
+        DoctorLoad to = t.getDoctorId() != null ? doctors.get(t.getDoctorId()) : null;
+
+        if (from != null) {
+            if (t.getFrom() == TokenStatus.WAITING) {
+                from.waiting = Math.max(0, from.waiting - 1);
+            } else if (t.getFrom() == TokenStatus.SERVING) {
+                from.serving = Math.max(0, from.serving - 1);
+            }
+            rekey(from);
+        }
+        if (to != null) {
+            if (t.getTo() == TokenStatus.WAITING) {
+                to.waiting++;
+            } else if (t.getTo() == TokenStatus.SERVING) {
+                to.serving++;
+            } else if (t.getTo() == TokenStatus.COMPLETED) {
+                to.servedToday++;
+            }
+            rekey(to);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @ReadYourWrites
+    public void loadOnStart() {
+        if (!loaded) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.dispatch.resync-ms:300000}", initialDelayString = "${queue.dispatch.resync-ms:300000}")
+    @ReadYourWrites
+    public void reload() {
+        LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
+        Map<Long, Long> waiting = byId(tokenRepository.countByStatusGroupByDoctor(TokenStatus.WAITING));
+        Map<Long, Long> serving = byId(tokenRepository.countByStatusGroupByDoctor(TokenStatus.SERVING));
+        Map<Long, Long> served = byId(tokenRepository.countByStatusAndCompletedAtBetweenGroupByDoctor(
+                TokenStatus.COMPLETED, startOfDay, LocalDateTime.now()));
+        load(waiting, serving, served, null);
+    }
+
+    /**
+     * Rebuilds from lane counts the caller already has (a live-state
+     * snapshot); only the doctors themselves are read. A null assignment
+     * order keeps the current one.
+     */
+    @ReadYourWrites
+    public void load(Map<Long, Long> waiting, Map<Long, Long> serving, Map<Long, Long> served,
+                     Map<Long, Long> assignmentOrder) {
+        List<Counter> counters = counterRepository.findAllWithDepartmentsBy();
+
+        synchronized (this) {
+            Map<Long, Long> lastAssigned = assignmentOrder != null ? assignmentOrder : assignmentOrder();
+            assignments = Math.max(assignments,
+                    lastAssigned.values().stream().mapToLong(Long::longValue).max().orElse(0));
+            doctors.clear();
+            departments.clear();
+
+            for (Counter counter : counters) {
+                Set<Long> departmentIds = counter.getDepartments().stream()
+                        .map(ServiceType::getId)
+                        .collect(Collectors.toSet());
+                Integer max = counter.getMaxPatientsPerDay();
+                DoctorLoad doctor = new DoctorLoad(
+                        counter.getId(), departmentIds, max != null && max > 0 ? max : defaultCapacity);
+                doctor.available = counter.getAvailability() == DoctorAvailability.AVAILABLE;
+                doctor.waiting = waiting.getOrDefault(counter.getId(), 0L).intValue();
+                doctor.serving = serving.getOrDefault(counter.getId(), 0L).intValue();
+                doctor.servedToday = served.getOrDefault(counter.getId(), 0L).intValue();
+                doctor.lastAssigned = lastAssigned.getOrDefault(counter.getId(), 0L);
+                doctors.put(doctor.id, doctor);
+                if (doctor.available) {
+                    departmentIds.forEach(d -> departments.computeIfAbsent(d, k -> new LoadHeap()).add(doctor));
+                }
+            }
+            loaded = true;
+        }
+    }
+
+    /** Doctor id -> position in the round-robin tie-break, for snapshots. */
+    public synchronized Map<Long, Long> assignmentOrder() {
+        return doctors.values().stream()
+                .collect(Collectors.toMap(d -> d.id, d -> d.lastAssigned));
+    }
+
+    private synchronized Optional<Long> reserve(Long departmentId) {
+        LoadHeap heap = departments.get(departmentId);
+        DoctorLoad best = heap != null ? heap.peek() : null;
+        if (best == null || !best.hasRoom()) {
+            return Optional.empty();
+        }
+        best.lastAssigned = ++assignments;
+        setAvailableLocked(best, false);
+
+        long id = best.id;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        setAvailable(id, true);
+                    }
+                }
+            });
+        }
+        return Optional.of(id);
+    }
+
+    private synchronized void setAvailable(Long doctorId, boolean available) {
+        DoctorLoad doctor = doctors.get(doctorId);
+        if (doctor != null) {
+            setAvailableLocked(doctor, available);
+        }
+    }
+
+    private void setAvailableLocked(DoctorLoad doctor, boolean available) {
+        doctor.available = available;
+        for (Long departmentId : doctor.departments) {
+            if (available) {
+                departments.computeIfAbsent(departmentId, k -> new LoadHeap()).add(doctor);
+            } else {
+                LoadHeap heap = departments.get(departmentId);
+                if (heap != null) {
+                    heap.remove(doctor.id);
+                }
+            }
+        }
+    }
+
+    private void rekey(DoctorLoad doctor) {
+        for (Long departmentId : doctor.departments) {
+            LoadHeap heap = departments.get(departmentId);
+            if (heap != null) {
+                heap.update(doctor.id);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private static Map<Long, Long> byId(List<GroupedCount> counts) {
+        return counts.stream()
+                .collect(Collectors.toMap(GroupedCount::getId, GroupedCount::getTotal));
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.backend.dispatch;
+
+import java.util.Set;
+
+/**
+ * In-memory load of one doctor, mutated only under the dispatcher's lock.
+ */
+final class DoctorLoad {
+
+    final long id;
+    final Set<Long> departments;
+    final int capacity;          // maxPatientsPerDay, or the configured default
+
+    boolean available;
+    int waiting;
+    int serving;
+    int servedToday;
+    long lastAssigned;           // assignment sequence, breaks ties round-robin
+
+    DoctorLoad(long id, Set<Long> departments, int capacity) {
+        this.id = id;
+        this.departments = departments;
+        this.capacity = capacity;
+    }
+
+    /** Patients this doctor still has to see right now. */
+    int queued() {
+        return waiting + serving;
+    }
+
+    /** Fraction of today's capacity already used. */
+    double dailyShare() {
+        return (double) servedToday / capacity;
+    }
+
+    boolean hasRoom() {
+        return waiting + serving + servedToday < capacity;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.backend.dispatch;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Indexed binary min-heap of doctors ordered by whether they still have
+ * room under today's cap, then by how many patients they still have (own
+ * lane + serving), then by the share of today's capacity already used,
+ * then by who was assigned longest ago. The position index makes re-keying a doctor after
+ * its load changed O(log n) instead of a linear remove + add.
+ */
+final class LoadHeap {
+
+    private final List<DoctorLoad> heap = new ArrayList<>();
+    private final Map<Long, Integer> positions = new HashMap<>();
+
+    DoctorLoad peek() {
+        return heap.isEmpty() ? null : heap.get(0);
+    }
+
+    boolean contains(long id) {
+        return positions.containsKey(id);
+    }
+
+    void add(DoctorLoad doctor) {
+        if (contains(doctor.id)) {
+            update(doctor.id);
+            return;
+        }
+        heap.add(doctor);
+        positions.put(doctor.id, heap.size() - 1);
+        siftUp(heap.size() - 1);
+    }
+
+    void remove(long id) {
+        Integer i = positions.remove(id);
+        if (i == null) {
+            return;
+        }
+        DoctorLoad last = heap.remove(heap.size() - 1);
+        if (i < heap.size()) {
+            heap.set(i, last);
+            positions.put(last.id, i);
+            siftDown(siftUp(i));
+        }
+    }
+
+    void update(long id) {
+        Integer i = positions.get(id);
+        if (i != null) {
+            siftDown(siftUp(i));
+        }
+    }
+
+    private int siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (compare(heap.get(i), heap.get(parent)) >= 0) {
+                break;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+        return i;
+    }
+
+    private void siftDown(int i) {
+        int size = heap.size();
+        while (true) {
+            int left = 2 * i + 1;
+            int right = left + 1;
+            int smallest = i;
+            if (left < size && compare(heap.get(left), heap.get(smallest)) < 0) {
+                smallest = left;
+            }
+            if (right < size && compare(heap.get(right), heap.get(smallest)) < 0) {
+                smallest = right;
+            }
+            if (smallest == i) {
+                return;
+            }
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        DoctorLoad x = heap.get(a);
+        DoctorLoad y = heap.get(b);
+        heap.set(a, y);
+        heap.set(b, x);
+        positions.put(y.id, a);
+        positions.put(x.id, b);
+    }
+
+    private static int compare(DoctorLoad a, DoctorLoad b) {
+        // a capped doctor must never hide one with room, however short their queue
+        int byRoom = Boolean.compare(b.hasRoom(), a.hasRoom());
+        if (byRoom != 0) {
+            return byRoom;
+        }
+        int byQueue = Integer.compare(a.queued(), b.queued());
+        if (byQueue != 0) {
+            return byQueue;
+        }
+        int byShare = Double.compare(a.dailyShare(), b.dailyShare());
+        if (byShare != 0) {
+            return byShare;
+        }
+        int byRecency = Long.compare(a.lastAssigned, b.lastAssigned);
+        return byRecency != 0 ? byRecency : Long.compare(a.id, b.id);
+    }
+}
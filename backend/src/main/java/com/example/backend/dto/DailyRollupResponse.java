@@ -0,0 +1,21 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDate;
+
+@Getter
+@AllArgsConstructor
+public class DailyRollupResponse {
+    private LocalDate date;
+    private Long id;          // service or doctor id
+    private String name;
+    private long tokens;      // arrivals (service) / assigned (doctor)
+    private long completed;
+    private long skipped;
+    private Double avgWaitMinutes;
+    private Double p90WaitMinutes;
+    private Double avgServiceMinutes;
+    private Double p90ServiceMinutes;
+}
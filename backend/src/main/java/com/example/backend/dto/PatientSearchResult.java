@@ -0,0 +1,14 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class PatientSearchResult {
+    private Long id;
+    private String name;
+    private String phone;
+    private String medicalId; // nullable
+    private String match;     // PHONE, MEDICAL_ID, PHONE_TYPO or NAME
+}
@@ -10,5 +10,12 @@ public class ServiceStatsResponse {
     private String serviceName;
     private double avgServiceTimeMinutes;
     private long waitingCount;
-}
 
+    // today's percentiles in minutes, null until there is a sample
+    private Double waitP50Minutes;
+    private Double waitP90Minutes;
+    private Double waitP99Minutes;
+    private Double serviceP50Minutes;
+    private Double serviceP90Minutes;
+    private Double serviceP99Minutes;
+}
@@ -0,0 +1,18 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TimeSeriesPoint {
+    private LocalDateTime start;
+    private long arrivals;
+    private long served;
+    private Integer depth;             // waiting at the end of the bucket; null for rollup days
+    private Double avgWaitMinutes;
+    private Double avgServiceMinutes;
+    private String source;             // memory | rollup
+}
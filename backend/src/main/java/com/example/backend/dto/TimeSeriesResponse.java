@@ -0,0 +1,15 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class TimeSeriesResponse {
+    private String scope;              // service | doctor
+    private Long id;
+    private int resolutionMinutes;     // for memory points; rollup points are one day each
+    private List<TimeSeriesPoint> points;
+}
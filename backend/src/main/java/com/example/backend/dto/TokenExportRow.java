@@ -0,0 +1,23 @@
+package com.example.backend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@AllArgsConstructor
+public class TokenExportRow {
+    private Long id;
+    private String tokenNumber;
+    private Long serviceId;
+    private String serviceName;
+    private Long doctorId;      // nullable
+    private String doctorName;  // nullable
+    private Long patientId;
+    private String status;
+    private String priorityType;
+    private LocalDateTime createdAt;
+    private LocalDateTime calledAt;
+    private LocalDateTime completedAt;
+}
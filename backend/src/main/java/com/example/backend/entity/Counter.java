@@ -2,6 +2,7 @@ package com.example.backend.entity;
 
 import com.example.backend.entity.enums.CounterStatus;
 import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.versioning.VersionBumpingListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -16,6 +17,7 @@ import java.util.Set;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(VersionBumpingListener.class)
 @Table(name = "counters")
 public class Counter {
 
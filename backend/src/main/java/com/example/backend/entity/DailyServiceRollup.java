@@ -0,0 +1,47 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+/**
+ * One department's closed-out day, written by the rollover job.
+ * Wait = created -> called, service = called -> completed, in minutes.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "daily_service_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"service_type_id", "rollup_date"}))
+public class DailyServiceRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "service_type_id")
+    private ServiceType serviceType;
+
+    @Column(nullable = false)
+    private LocalDate rollupDate;
+
+    private long arrivals;
+    private long completed;
+    private long cancelled;
+    private long skipped;
+
+    private Double avgWaitMinutes;
+    // named explicitly: the rollup SQL and migrations rely on it, whatever the naming strategy does with digits
+    @Column(name = "p90_wait_minutes")
+    private Double p90WaitMinutes;
+    private Double avgServiceMinutes;
+    @Column(name = "p90_service_minutes")
+    private Double p90ServiceMinutes;
+}
@@ -0,0 +1,51 @@
+package com.example.backend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * One node's serialized QuantileSketch for a department or doctor and day.
+ * Each node only ever writes its own rows; readers merge across nodes.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "latency_sketches",
+        uniqueConstraints = @UniqueConstraint(
+                columnNames = {"node_id", "scope", "subject_id", "metric", "sketch_date"}))
+public class LatencySketch {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String nodeId;
+
+    @Column(nullable = false)
+    private String scope;      // service | doctor
+
+    @Column(nullable = false)
+    private Long subjectId;
+
+    @Column(nullable = false)
+    private String metric;     // wait | service
+
+    @Column(nullable = false)
+    private LocalDate sketchDate;
+
+    private long sampleCount;
+
+    @Column(nullable = false, length = 8192)
+    private byte[] data;
+
+    private LocalDateTime updatedAt;
+}
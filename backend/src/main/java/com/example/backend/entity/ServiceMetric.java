@@ -1,5 +1,6 @@
 package com.example.backend.entity;
 
+import com.example.backend.versioning.VersionBumpingListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -14,6 +15,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(VersionBumpingListener.class)
 @Table(name = "service_metrics")
 public class ServiceMetric {
 
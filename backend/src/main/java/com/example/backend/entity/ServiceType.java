@@ -1,5 +1,7 @@
 package com.example.backend.entity;
 
+import com.example.backend.entity.enums.SchedulingPolicyType;
+import com.example.backend.versioning.VersionBumpingListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -11,6 +13,7 @@ import lombok.Setter;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
+@EntityListeners(VersionBumpingListener.class)
 @Table(name = "service_types")
 public class ServiceType {
 
@@ -26,5 +29,22 @@ public class ServiceType {
     private Integer avgServiceTime=0;
 
     private boolean priorityAllowed=true;
+
+    // work stealing: a doctor whose lane and the department queue are empty
+    // may take the oldest NORMAL token from the busiest colleague's lane
+    private Boolean workStealingEnabled = false;
+
+    // only steal from lanes with at least this many waiting tokens
+    private Integer stealMinLaneSize = 3;
+
+    // and only tokens that have already waited this long
+    private Integer stealMinWaitMinutes = 0;
+
+    // how call-next picks between emergency, own-lane and department tokens
+    @Enumerated(EnumType.STRING)
+    private SchedulingPolicyType schedulingPolicy = SchedulingPolicyType.STRICT_PRIORITY;
+
+    // WEIGHTED_AGING: an emergency counts as having waited this much longer
+    private Integer emergencyWeightMinutes = 60;
 }
 
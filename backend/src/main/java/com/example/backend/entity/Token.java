@@ -2,6 +2,7 @@ package com.example.backend.entity;
 
 import com.example.backend.entity.enums.TokenPriority;
 import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.versioning.VersionBumpingListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -15,7 +16,13 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table(name = "tokens")
+@EntityListeners(VersionBumpingListener.class)
+@Table(name = "tokens", indexes = {
+        @Index(name = "tokens_service_status_created_idx", columnList = "service_id, status, created_at"),
+        @Index(name = "tokens_doctor_status_created_idx", columnList = "doctor_id, status, created_at"),
+        @Index(name = "tokens_created_idx", columnList = "created_at"),
+        @Index(name = "tokens_updated_idx", columnList = "updated_at")
+})
 public class Token {
 
     @Id
@@ -55,7 +62,16 @@ public class Token {
     private LocalDateTime calledAt;
     private LocalDateTime completedAt;
 
+    // lets a restarting node read only the rows that moved since its live-state snapshot
+    private LocalDateTime updatedAt;
+
     @Version
     private Long version;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
 }
 
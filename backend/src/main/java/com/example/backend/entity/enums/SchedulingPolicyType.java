@@ -0,0 +1,6 @@
+package com.example.backend.entity.enums;
+
+public enum SchedulingPolicyType {
+    STRICT_PRIORITY,
+    WEIGHTED_AGING
+}
@@ -0,0 +1,22 @@
+package com.example.backend.journal;
+
+import com.example.backend.entity.enums.TokenStatus;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * One token status change as read back from the transition journal.
+ */
+@Getter
+@AllArgsConstructor
+public class JournalEntry {
+
+    private final long sequence;
+    private final long occurredAt;     // epoch millis
+    private final long tokenId;
+    private final Long serviceTypeId;
+    private final Long doctorId;       // doctor (counter) after the change
+    private final TokenStatus from;    // null when the token was just created
+    private final TokenStatus to;
+    private final String actor;        // username, "anonymous" (kiosk) or "system"
+}
@@ -0,0 +1,426 @@
+package com.example.backend.journal;
+
+import com.example.backend.entity.enums.TokenStatus;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only token transition journal in memory-mapped segment files
+ * (journal-&lt;first sequence&gt;.seg). No Spring; TransitionJournal owns one.
+ *
+ * Record: int length, int crc32 of the body, then the body
+ *   long sequence, long occurredAt, long tokenId, long serviceTypeId,
+ *   long doctorId, from status, to status, actor
+ * with -1 for missing ids and strings as a length byte plus UTF-8.
+ *
+ * append() only copies the record into the mapped segment under a short
+ * lock, and rolling to a new segment doesn't msync either. force() msyncs
+ * everything appended since the previous force() in one go (the unforced
+ * tail of a segment retired meanwhile included), so a whole batch of
+ * transitions shares one fsync. Nothing msyncs under the append lock, and
+ * the force lock is a ReentrantLock, so a virtual thread calling force()
+ * doesn't pin its carrier. A killed
+ * process loses nothing (the pages already belong to the kernel); a
+ * machine crash loses what was appended after the last force().
+ *
+ * On open the last segment is scanned up to the first record whose length,
+ * checksum or sequence doesn't fit; that torn tail is zeroed and appending
+ * carries on from there.
+ */
+public class SegmentedJournal implements Closeable {
+
+    private static final int HEADER = 8;
+    private static final int MAX_STRING_BYTES = 255;
+    private static final int MAX_RECORD = HEADER + 5 * Long.BYTES + 3 * (1 + MAX_STRING_BYTES);
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final FileChannel lockChannel;
+    private final FileLock dirLock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock forceLock = new ReentrantLock();
+
+    // guarded by lock
+    private final List<Long> segments = new ArrayList<>(); // first sequence of each segment
+    private final byte[] scratch = new byte[MAX_RECORD];
+    private final CRC32 crc = new CRC32();
+    private MappedByteBuffer active;
+    private long activeFirst;
+    private int position;
+    private int forcedPosition;
+    private long nextSequence;
+    private boolean closed;
+    private final List<Retired> retired = new ArrayList<>(); // rolled away from, not yet forced
+
+    private volatile long durableSequence;
+
+    private SegmentedJournal(Path dir, int segmentBytes, FileChannel lockChannel, FileLock dirLock) {
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        this.lockChannel = lockChannel;
+        this.dirLock = dirLock;
+    }
+
+    public static SegmentedJournal open(Path dir, int segmentBytes) throws IOException {
+        if (segmentBytes < MAX_RECORD) {
+            throw new IllegalArgumentException("Journal segments must hold at least one record");
+        }
+        Files.createDirectories(dir);
+
+        // one writer per directory; a second node (or process) pointed here must fail, not interleave
+        FileChannel lockChannel = FileChannel.open(dir.resolve("journal.lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock dirLock;
+        try {
+            dirLock = lockChannel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            dirLock = null;
+        }
+        if (dirLock == null) {
+            lockChannel.close();
+            throw new IllegalStateException("Journal directory " + dir + " is in use by another writer");
+        }
+
+        SegmentedJournal journal = new SegmentedJournal(dir, segmentBytes, lockChannel, dirLock);
+        try {
+            journal.recover();
+        } catch (IOException | RuntimeException e) {
+            journal.close();
+            throw e;
+        }
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            files.map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(PREFIX) && name.endsWith(SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .sorted()
+                    .forEach(segments::add);
+        }
+
+        if (segments.isEmpty()) {
+            startSegment(1);
+            return;
+        }
+
+        activeFirst = segments.get(segments.size() - 1);
+        active = map(activeFirst, FileChannel.MapMode.READ_WRITE);
+        Scan tail = scan(active, activeFirst, active.capacity(), Long.MAX_VALUE, null);
+        position = tail.end;
+        forcedPosition = position;
+        nextSequence = tail.next;
+        durableSequence = nextSequence - 1;
+
+        int tornEnd = Math.min(position + MAX_RECORD, active.capacity());
+        if (tornEnd > position) {
+            active.put(position, new byte[tornEnd - position]);
+            active.force(position, tornEnd - position);
+        }
+    }
+
+    /**
+     * Appends one transition and returns its sequence number. Durable once
+     * the next force() has returned.
+     */
+    public long append(long occurredAt, long tokenId, Long serviceTypeId, Long doctorId,
+                       TokenStatus from, TokenStatus to, String actor) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            long sequence = nextSequence;
+            ByteBuffer record = ByteBuffer.wrap(scratch);
+            record.position(HEADER);
+            record.putLong(sequence)
+                    .putLong(occurredAt)
+                    .putLong(tokenId)
+                    .putLong(serviceTypeId != null ? serviceTypeId : -1)
+                    .putLong(doctorId != null ? doctorId : -1);
+            putString(record, from != null ? from.name() : "");
+            putString(record, to.name());
+            putString(record, actor != null ? actor : "");
+
+            int length = record.position() - HEADER;
+            crc.reset();
+            crc.update(scratch, HEADER, length);
+            record.putInt(0, length).putInt(4, (int) crc.getValue());
+
+            if (position + HEADER + length > active.capacity()) {
+                roll();
+            }
+            active.put(position, scratch, 0, HEADER + length);
+            position += HEADER + length;
+            nextSequence++;
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flushes every record appended since the last call to disk. The msync
+     * runs outside the append lock, so writers aren't held up by it.
+     */
+    public void force() {
+        forceLock.lock();
+        try {
+            List<Retired> retiring;
+            MappedByteBuffer buffer;
+            int from;
+            int to;
+            long sequence;
+            lock.lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                retiring = List.copyOf(retired);
+                retired.clear();
+                buffer = active;
+                from = forcedPosition;
+                to = position;
+                sequence = nextSequence - 1;
+            } finally {
+                lock.unlock();
+            }
+
+            // older segments first: durableSequence covers them too
+            for (Retired segment : retiring) {
+                if (segment.to() > segment.from()) {
+                    segment.buffer().force(segment.from(), segment.to() - segment.from());
+                }
+            }
+            if (to > from) {
+                buffer.force(from, to - from);
+            }
+
+            lock.lock();
+            try {
+                if (buffer == active) {
+                    forcedPosition = Math.max(forcedPosition, to);
+                }
+            } finally {
+                lock.unlock();
+            }
+            durableSequence = Math.max(durableSequence, sequence);
+        } finally {
+            forceLock.unlock();
+        }
+    }
+
+    /**
+     * Feeds records from fromSequence onwards, in order, to the visitor
+     * until it returns false. Sees everything appended before the call,
+     * durable or not. Returns the sequence after the last record visited.
+     */
+    public long replay(long fromSequence, Predicate<JournalEntry> visitor) {
+        List<Long> firsts;
+        MappedByteBuffer current;
+        long currentFirst;
+        int currentEnd;
+        long next;
+        lock.lock();
+        try {
+            firsts = List.copyOf(segments);
+            current = active;
+            currentFirst = activeFirst;
+            currentEnd = position;
+            next = nextSequence;
+        } finally {
+            lock.unlock();
+        }
+
+        long from = Math.max(fromSequence, 1);
+        for (int i = 0; i < firsts.size(); i++) {
+            long first = firsts.get(i);
+            if (i + 1 < firsts.size() && firsts.get(i + 1) <= from) {
+                continue;
+            }
+            ByteBuffer buffer;
+            int limit;
+            if (first == currentFirst) {
+                buffer = current.duplicate();
+                limit = currentEnd;
+            } else {
+                try {
+                    buffer = map(first, FileChannel.MapMode.READ_ONLY);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                limit = buffer.capacity();
+            }
+            Scan scan = scan(buffer, first, limit, from, visitor);
+            if (scan.stopped) {
+                return scan.next;
+            }
+        }
+        return Math.max(from, next);
+    }
+
+    /** Last sequence handed out, 0 while the journal is empty. */
+    public long getLastSequence() {
+        lock.lock();
+        try {
+            return nextSequence - 1;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Every record up to this sequence has been forced to disk. */
+    public long getDurableSequence() {
+        return durableSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        lock.lock();
+        try {
+            closed = true;
+            active = null;
+        } finally {
+            lock.unlock();
+        }
+        if (dirLock != null) {
+            dirLock.release();
+        }
+        lockChannel.close();
+    }
+
+    // -------------------------------
+    // SEGMENTS
+    // -------------------------------
+
+    // under the append lock; the retired segment's unforced tail is left to the next force()
+    private void roll() {
+        retired.add(new Retired(active, forcedPosition, position));
+        try {
+            startSegment(nextSequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void startSegment(long first) throws IOException {
+        active = map(first, FileChannel.MapMode.READ_WRITE);
+        activeFirst = first;
+        position = 0;
+        forcedPosition = 0;
+        nextSequence = first;
+        segments.add(first);
+    }
+
+    private MappedByteBuffer map(long first, FileChannel.MapMode mode) throws IOException {
+        Path file = dir.resolve(String.format("%s%020d%s", PREFIX, first, SUFFIX));
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_ONLY
+                ? new StandardOpenOption[]{StandardOpenOption.READ}
+                : new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE};
+        // the mapping outlives the channel
+        try (FileChannel channel = FileChannel.open(file, options)) {
+            // existing segments keep their size if queue.journal.segment-mb changed since
+            long size = mode == FileChannel.MapMode.READ_ONLY || channel.size() > 0 ? channel.size() : segmentBytes;
+            return channel.map(mode, 0, size);
+        }
+    }
+
+    // -------------------------------
+    // RECORDS
+    // -------------------------------
+
+    private record Retired(MappedByteBuffer buffer, int from, int to) {
+    }
+
+    private static final class Scan {
+        int end;
+        long next;
+        boolean stopped;
+    }
+
+    private static Scan scan(ByteBuffer buffer, long first, int limit, long from, Predicate<JournalEntry> visitor) {
+        CRC32 checksum = new CRC32();
+        Scan scan = new Scan();
+        int pos = 0;
+        long sequence = first;
+        while (pos + HEADER <= limit) {
+            int length = buffer.getInt(pos);
+            if (length <= 0 || length > MAX_RECORD - HEADER || pos + HEADER + length > limit) {
+                break;
+            }
+            checksum.reset();
+            checksum.update(buffer.slice(pos + HEADER, length));
+            if ((int) checksum.getValue() != buffer.getInt(pos + 4)
+                    || buffer.getLong(pos + HEADER) != sequence) {
+                break;
+            }
+            if (visitor != null && sequence >= from
+                    && !visitor.test(decode(buffer.slice(pos + HEADER, length)))) {
+                scan.stopped = true;
+                sequence++;
+                break;
+            }
+            pos += HEADER + length;
+            sequence++;
+        }
+        scan.end = pos;
+        scan.next = sequence;
+        return scan;
+    }
+
+    private static JournalEntry decode(ByteBuffer body) {
+        long sequence = body.getLong();
+        long occurredAt = body.getLong();
+        long tokenId = body.getLong();
+        long serviceTypeId = body.getLong();
+        long doctorId = body.getLong();
+        String from = getString(body);
+        String to = getString(body);
+        String actor = getString(body);
+        return new JournalEntry(
+                sequence,
+                occurredAt,
+                tokenId,
+                serviceTypeId >= 0 ? serviceTypeId : null,
+                doctorId >= 0 ? doctorId : null,
+                from.isEmpty() ? null : TokenStatus.valueOf(from),
+                TokenStatus.valueOf(to),
+                actor
+        );
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_STRING_BYTES);
+        buffer.put((byte) length).put(bytes, 0, length);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.get() & 0xFF;
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.backend.journal;
+
+import com.example.backend.analytics.TokenTransition;
+import com.example.backend.analytics.TokenTransitionListener;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.TokenStatusRow;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Who changed which token, from what to what, and when: every committed
+ * token transition is appended to this node's segmented journal
+ * (queue.journal.dir). Appends are a memory copy; the dirty pages are
+ * forced to disk together every queue.journal.fsync-interval-ms.
+ *
+ * The journal is per node. Entries are appended after the database commit,
+ * so a node that dies in between loses that entry but never journals a
+ * change that was rolled back.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "queue.journal.enabled", havingValue = "true", matchIfMissing = true)
+public class TransitionJournal implements TokenTransitionListener {
+
+    private final SegmentedJournal journal;
+
+    public TransitionJournal(@Value("${queue.journal.dir:journal}") String dir,
+                             @Value("${queue.journal.segment-mb:64}") int segmentMb) {
+        try {
+            this.journal = SegmentedJournal.open(Path.of(dir), segmentMb * 1024 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open transition journal in " + dir, e);
+        }
+        log.info("Transition journal at {} continues after sequence {}",
+                Path.of(dir).toAbsolutePath(), journal.getLastSequence());
+    }
+
+    @Override
+    public void onTransition(TokenTransition t) {
+        journal.append(t.getOccurredAt(), t.getTokenId(), t.getServiceTypeId(), t.getDoctorId(),
+                t.getFrom(), t.getTo(), t.getActor());
+    }
+
+    /**
+     * For set-based updates that bypass TokenTransitions: rows hold the
+     * status before the update. Appended once the transaction commits.
+     */
+    public void recordAfterCommit(List<TokenStatusRow> rows, TokenStatus to, String actor) {
+        long occurredAt = System.currentTimeMillis();
+        Runnable append = () -> rows.forEach(row -> journal.append(occurredAt, row.getId(),
+                row.getServiceTypeId(), row.getDoctorId(), row.getStatus(), to, actor));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    append.run();
+                }
+            });
+        } else {
+            append.run();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.journal.fsync-interval-ms:100}")
+    public void sync() {
+        journal.force();
+    }
+
+    /**
+     * Replays entries from fromSequence on until the visitor returns false;
+     * returns the sequence to resume from.
+     */
+    public long replay(long fromSequence, Predicate<JournalEntry> visitor) {
+        return journal.replay(fromSequence, visitor);
+    }
+
+    /** Up to limit entries from fromSequence on, optionally for one token only. */
+    public List<JournalEntry> read(long fromSequence, Long tokenId, int limit) {
+        List<JournalEntry> entries = new ArrayList<>(Math.min(limit, 1024));
+        journal.replay(fromSequence, entry -> {
+            if (tokenId == null || entry.getTokenId() == tokenId) {
+                entries.add(entry);
+            }
+            return entries.size() < limit;
+        });
+        return entries;
+    }
+
+    public long getLastSequence() {
+        return journal.getLastSequence();
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        journal.close();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.backend.metrics;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * JdbcTemplate whose statements count towards QueryCountInspector's totals
+ * and @QueryBudget, like the ones Hibernate prepares. Every query, update
+ * and batch passes through applyStatementSettings once.
+ */
+public class CountingJdbcTemplate extends JdbcTemplate {
+
+    public CountingJdbcTemplate(DataSource dataSource) {
+        super(dataSource);
+    }
+
+    @Override
+    protected void applyStatementSettings(Statement stmt) throws SQLException {
+        super.applyStatementSettings(stmt);
+        QueryCountInspector.statementExecuted();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.backend.metrics;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maximum number of SQL statements a request handler may execute.
+ *
+ * Counted are the statements Hibernate prepares and those run through the
+ * application's JdbcTemplate (CountingJdbcTemplate). SQL sent on a
+ * connection taken straight from the DataSource is not seen.
+ *
+ * Exceeding it is logged and counted (queue.sql.budget.exceeded); with
+ * queue.sql.budget.enforce=true (see the test annotation
+ * EnforceQueryBudgets) the offending statement fails the request instead.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    int value();
+}
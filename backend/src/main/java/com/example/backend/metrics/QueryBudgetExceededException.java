@@ -0,0 +1,8 @@
+package com.example.backend.metrics;
+
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String endpoint, int budget, int count) {
+        super(endpoint + " executed " + count + " SQL statements, budget is " + budget);
+    }
+}
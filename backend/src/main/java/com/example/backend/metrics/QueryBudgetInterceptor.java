@@ -0,0 +1,26 @@
+package com.example.backend.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Hands the handler's @QueryBudget to the request scope opened by QueryCountFilter.
+ */
+@Component
+public class QueryBudgetInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod method) {
+            QueryBudget budget = method.getMethodAnnotation(QueryBudget.class);
+            QueryCountInspector.RequestQueries queries = QueryCountInspector.current();
+            if (budget != null && queries != null) {
+                queries.declareBudget(budget.value(), method.getShortLogMessage());
+            }
+        }
+        return true;
+    }
+}
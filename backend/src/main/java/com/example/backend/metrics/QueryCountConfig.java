@@ -0,0 +1,50 @@
+package com.example.backend.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+
+/**
+ * Records SQL statements per @Service method as queue.sql.statements.service.
+ * Nested service calls are counted in both the outer and the inner method.
+ * The application JdbcTemplate counts its statements the same way.
+ */
+@Configuration(proxyBeanMethods = false)
+public class QueryCountConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor serviceQueryCountAdvisor(ObjectProvider<MeterRegistry> registry) {
+        MethodInterceptor interceptor = invocation -> {
+            long before = QueryCountInspector.threadTotal();
+            try {
+                return invocation.proceed();
+            } finally {
+                long statements = QueryCountInspector.threadTotal() - before;
+                registry.getObject()
+                        .summary("queue.sql.statements.service", "method",
+                                invocation.getMethod().getDeclaringClass().getSimpleName()
+                                        + "." + invocation.getMethod().getName())
+                        .record(statements);
+            }
+        };
+        return new DefaultPointcutAdvisor(new AnnotationMatchingPointcut(Service.class, true), interceptor);
+    }
+
+    // replaces Boot's JdbcTemplate, which backs off when one is defined
+    @Bean
+    JdbcTemplate jdbcTemplate(DataSource dataSource) {
+        return new CountingJdbcTemplate(dataSource);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements of each HTTP request.
+ *
+ * Always recorded as the queue.sql.statements summary (per method + URI
+ * pattern). In dev (queue.sql.count-header=true) the count is also returned
+ * as an X-Query-Count header; the body is buffered for that, so it stays off
+ * in production.
+ */
+@Slf4j
+@Component
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+
+    @Value("${queue.sql.count-header:false}")
+    private boolean countHeader;
+
+    @Value("${queue.sql.budget.enforce:false}")
+    private boolean enforceBudget;
+
+    public QueryCountFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain
+    ) throws ServletException, IOException {
+
+        QueryCountInspector.RequestQueries queries = QueryCountInspector.begin(enforceBudget);
+        ContentCachingResponseWrapper buffered =
+                countHeader ? new ContentCachingResponseWrapper(response) : null;
+        try {
+            filterChain.doFilter(request, buffered != null ? buffered : response);
+        } finally {
+            QueryCountInspector.end();
+            record(request, queries);
+            if (buffered != null) {
+                buffered.setHeader("X-Query-Count", String.valueOf(queries.getCount()));
+                buffered.copyBodyToResponse();
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, QueryCountInspector.RequestQueries queries) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "unmapped";
+
+        DistributionSummary.builder("queue.sql.statements")
+                .description("SQL statements per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(registry)
+                .record(queries.getCount());
+
+        if (queries.overBudget()) {
+            registry.counter("queue.sql.budget.exceeded", "method", request.getMethod(), "uri", uri)
+                    .increment();
+            log.warn("{} {} executed {} SQL statements, budget is {}",
+                    request.getMethod(), uri, queries.getCount(), queries.getBudget());
+        }
+    }
+}
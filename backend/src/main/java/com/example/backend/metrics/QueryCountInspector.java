@@ -0,0 +1,89 @@
+package com.example.backend.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares on the current thread,
+ * plus those CountingJdbcTemplate runs.
+ *
+ * Registered through hibernate.session_factory.statement_inspector, so
+ * Hibernate owns the instance; all state therefore lives in thread locals
+ * that QueryCountFilter (per HTTP request) and QueryCountConfig (per
+ * service method) read.
+ */
+public class QueryCountInspector implements StatementInspector {
+
+    private static final ThreadLocal<RequestQueries> CURRENT_REQUEST = new ThreadLocal<>();
+    private static final ThreadLocal<long[]> THREAD_TOTAL = ThreadLocal.withInitial(() -> new long[1]);
+
+    @Override
+    public String inspect(String sql) {
+        statementExecuted();
+        return sql;
+    }
+
+    static void statementExecuted() {
+        THREAD_TOTAL.get()[0]++;
+        RequestQueries request = CURRENT_REQUEST.get();
+        if (request != null) {
+            request.statementExecuted();
+        }
+    }
+
+    /**
+     * Running total for this thread; callers diff it around a unit of work.
+     */
+    public static long threadTotal() {
+        return THREAD_TOTAL.get()[0];
+    }
+
+    static RequestQueries begin(boolean enforceBudget) {
+        RequestQueries request = new RequestQueries(enforceBudget);
+        CURRENT_REQUEST.set(request);
+        return request;
+    }
+
+    static RequestQueries current() {
+        return CURRENT_REQUEST.get();
+    }
+
+    static void end() {
+        CURRENT_REQUEST.remove();
+    }
+
+    static class RequestQueries {
+
+        private final boolean enforceBudget;
+        private int count;
+        private int budget = -1;
+        private String budgetOwner;
+
+        RequestQueries(boolean enforceBudget) {
+            this.enforceBudget = enforceBudget;
+        }
+
+        void declareBudget(int budget, String owner) {
+            this.budget = budget;
+            this.budgetOwner = owner;
+        }
+
+        void statementExecuted() {
+            count++;
+            if (enforceBudget && overBudget()) {
+                throw new QueryBudgetExceededException(budgetOwner, budget, count);
+            }
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        int getBudget() {
+            return budget;
+        }
+
+        boolean overBudget() {
+            return budget >= 0 && count > budget;
+        }
+    }
+}
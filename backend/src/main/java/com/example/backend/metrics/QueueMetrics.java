@@ -0,0 +1,112 @@
+package com.example.backend.metrics;
+
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.TokenRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Queue-level meters, scraped through /actuator/prometheus.
+ *
+ * queue.operation               timer per queue transition (operation, outcome)
+ * queue.waiting.department      waiting tokens per department
+ * queue.waiting.doctor          waiting tokens explicitly assigned to a doctor
+ * queue.optimistic_lock.failures  concurrent updates that lost the version check
+ * queue.events.publish          STOMP publish latency per topic
+ * queue.events.bus.latency      origin publish -> rebroadcast on this node
+ * queue.events.bus.dropped      events not forwarded to other nodes (reason)
+ * queue.virtual.pinned          virtual threads pinned to their carrier (site), virtual mode only
+ */
+@Component
+public class QueueMetrics {
+
+    private final MeterRegistry registry;
+    private final TokenRepository tokenRepository;
+    private final MultiGauge departmentDepth;
+    private final MultiGauge doctorDepth;
+
+    public QueueMetrics(MeterRegistry registry, TokenRepository tokenRepository) {
+        this.registry = registry;
+        this.tokenRepository = tokenRepository;
+        this.departmentDepth = MultiGauge.builder("queue.waiting.department")
+                .description("Tokens waiting per department")
+                .register(registry);
+        this.doctorDepth = MultiGauge.builder("queue.waiting.doctor")
+                .description("Tokens waiting in a doctor's own lane")
+                .register(registry);
+    }
+
+    /**
+     * Times a queue operation end to end (including commit when called
+     * outside the transaction), tagging whether it succeeded.
+     */
+    public <T> T time(String operation, Supplier<T> work) {
+        Timer.Sample sample = Timer.start(registry);
+        String outcome = "error";
+        try {
+            T result = work.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(registry.timer("queue.operation", "operation", operation, "outcome", outcome));
+        }
+    }
+
+    public void time(String operation, Runnable work) {
+        time(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public void optimisticLockFailure(String endpoint) {
+        Counter.builder("queue.optimistic_lock.failures")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .increment();
+    }
+
+    public void recordPublish(String destination, long nanos) {
+        // one series per topic, not per patient token
+        String topic = destination.startsWith("/topic/patient/") ? "/topic/patient" : destination;
+        registry.timer("queue.events.publish", "topic", topic).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordBusLatency(long millis) {
+        registry.timer("queue.events.bus.latency").record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    public void recordBusDrop(String reason) {
+        registry.counter("queue.events.bus.dropped", "reason", reason).increment();
+    }
+
+    public void recordPinned(String site) {
+        registry.counter("queue.virtual.pinned", "site", site).increment();
+    }
+
+    @Scheduled(fixedDelayString = "${queue.metrics.depth-refresh-ms:15000}")
+    public void refreshWaitingDepth() {
+        departmentDepth.register(
+                tokenRepository.countByStatusGroupByServiceType(TokenStatus.WAITING).stream()
+                        .map(d -> MultiGauge.Row.of(
+                                Tags.of("department", d.getName()), d.getTotal()))
+                        .toList(),
+                true);
+
+        doctorDepth.register(
+                tokenRepository.countByStatusGroupByDoctor(TokenStatus.WAITING).stream()
+                        .map(d -> MultiGauge.Row.of(
+                                Tags.of("doctor", d.getName(), "doctor_id", String.valueOf(d.getId())),
+                                d.getTotal()))
+                        .toList(),
+                true);
+    }
+}
@@ -4,7 +4,12 @@ import com.example.backend.entity.Counter;
 import com.example.backend.entity.ServiceType;
 import com.example.backend.entity.enums.CounterStatus;
 import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.entity.enums.TokenStatus;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,6 +18,20 @@ public interface CounterRepository extends JpaRepository<Counter, Long> {
 
     List<Counter> findByStatus(CounterStatus status);
 
+    @EntityGraph(attributePaths = "departments")
+    List<Counter> findAllWithDepartmentsBy();
+
     Optional<Counter> findFirstByDepartmentsContainsAndAvailability(ServiceType serviceType, DoctorAvailability doctorAvailability);
+
+    // a doctor still holding a token in :busyStatus keeps their availability
+    @Modifying
+    @Query("""
+            update Counter c set c.availability = :to, c.version = c.version + 1
+            where c.availability = :from
+              and not exists (select t.id from Token t where t.doctor = c and t.status = :busyStatus)
+            """)
+    int updateAvailabilityOfIdle(@Param("from") DoctorAvailability from,
+                                 @Param("to") DoctorAvailability to,
+                                 @Param("busyStatus") TokenStatus busyStatus);
 }
 
@@ -0,0 +1,50 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.DailyDoctorRollup;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface DailyDoctorRollupRepository extends JpaRepository<DailyDoctorRollup, Long> {
+
+    @EntityGraph(attributePaths = "doctor")
+    List<DailyDoctorRollup> findByRollupDateBetweenOrderByRollupDateAsc(LocalDate from, LocalDate to);
+
+    List<DailyDoctorRollup> findByDoctorIdAndRollupDateBetweenOrderByRollupDateAsc(Long id, LocalDate from, LocalDate to);
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO daily_doctor_rollups (doctor_id, rollup_date, assigned, completed, skipped,
+                                              avg_wait_minutes, p90_wait_minutes, avg_service_minutes, p90_service_minutes)
+            SELECT t.doctor_id, :day,
+                   count(*),
+                   count(*) FILTER (WHERE t.status = 'COMPLETED'),
+                   count(*) FILTER (WHERE t.status = 'SKIPPED'),
+                   avg(extract(epoch FROM t.called_at - t.created_at) / 60) FILTER (WHERE t.called_at IS NOT NULL),
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY extract(epoch FROM t.called_at - t.created_at) / 60)
+                       FILTER (WHERE t.called_at IS NOT NULL),
+                   avg(extract(epoch FROM t.completed_at - t.called_at) / 60) FILTER (WHERE t.completed_at IS NOT NULL),
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY extract(epoch FROM t.completed_at - t.called_at) / 60)
+                       FILTER (WHERE t.completed_at IS NOT NULL)
+            FROM tokens t
+            WHERE t.created_at >= :start AND t.created_at < :end AND t.doctor_id IS NOT NULL
+            GROUP BY t.doctor_id
+            ON CONFLICT (doctor_id, rollup_date) DO UPDATE SET
+                assigned = EXCLUDED.assigned,
+                completed = EXCLUDED.completed,
+                skipped = EXCLUDED.skipped,
+                avg_wait_minutes = EXCLUDED.avg_wait_minutes,
+                p90_wait_minutes = EXCLUDED.p90_wait_minutes,
+                avg_service_minutes = EXCLUDED.avg_service_minutes,
+                p90_service_minutes = EXCLUDED.p90_service_minutes
+            """)
+    int rollUp(@Param("day") LocalDate day,
+               @Param("start") LocalDateTime start,
+               @Param("end") LocalDateTime end);
+}
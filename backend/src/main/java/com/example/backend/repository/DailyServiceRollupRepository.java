@@ -0,0 +1,57 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.DailyServiceRollup;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface DailyServiceRollupRepository extends JpaRepository<DailyServiceRollup, Long> {
+
+    @EntityGraph(attributePaths = "serviceType")
+    List<DailyServiceRollup> findByRollupDateBetweenOrderByRollupDateAsc(LocalDate from, LocalDate to);
+
+    List<DailyServiceRollup> findByServiceTypeIdAndRollupDateBetweenOrderByRollupDateAsc(Long id, LocalDate from, LocalDate to);
+
+    @Query("select max(r.rollupDate) from DailyServiceRollup r")
+    Optional<LocalDate> findLastRollupDate();
+
+    // Set-based: one INSERT ... SELECT over the day's tokens, re-runnable for the same day
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            INSERT INTO daily_service_rollups (service_type_id, rollup_date, arrivals, completed, cancelled, skipped,
+                                               avg_wait_minutes, p90_wait_minutes, avg_service_minutes, p90_service_minutes)
+            SELECT t.service_id, :day,
+                   count(*),
+                   count(*) FILTER (WHERE t.status = 'COMPLETED'),
+                   count(*) FILTER (WHERE t.status = 'CANCELLED'),
+                   count(*) FILTER (WHERE t.status = 'SKIPPED'),
+                   avg(extract(epoch FROM t.called_at - t.created_at) / 60) FILTER (WHERE t.called_at IS NOT NULL),
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY extract(epoch FROM t.called_at - t.created_at) / 60)
+                       FILTER (WHERE t.called_at IS NOT NULL),
+                   avg(extract(epoch FROM t.completed_at - t.called_at) / 60) FILTER (WHERE t.completed_at IS NOT NULL),
+                   percentile_cont(0.9) WITHIN GROUP (ORDER BY extract(epoch FROM t.completed_at - t.called_at) / 60)
+                       FILTER (WHERE t.completed_at IS NOT NULL)
+            FROM tokens t
+            WHERE t.created_at >= :start AND t.created_at < :end
+            GROUP BY t.service_id
+            ON CONFLICT (service_type_id, rollup_date) DO UPDATE SET
+                arrivals = EXCLUDED.arrivals,
+                completed = EXCLUDED.completed,
+                cancelled = EXCLUDED.cancelled,
+                skipped = EXCLUDED.skipped,
+                avg_wait_minutes = EXCLUDED.avg_wait_minutes,
+                p90_wait_minutes = EXCLUDED.p90_wait_minutes,
+                avg_service_minutes = EXCLUDED.avg_service_minutes,
+                p90_service_minutes = EXCLUDED.p90_service_minutes
+            """)
+    int rollUp(@Param("day") LocalDate day,
+               @Param("start") LocalDateTime start,
+               @Param("end") LocalDateTime end);
+}
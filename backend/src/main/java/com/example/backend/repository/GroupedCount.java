@@ -0,0 +1,13 @@
+package com.example.backend.repository;
+
+/**
+ * Token count for one department or doctor, from the grouped queries in TokenRepository.
+ */
+public interface GroupedCount {
+
+    Long getId();
+
+    String getName();
+
+    long getTotal();
+}
@@ -0,0 +1,14 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.LatencySketch;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface LatencySketchRepository extends JpaRepository<LatencySketch, Long> {
+
+    List<LatencySketch> findByNodeIdAndSketchDate(String nodeId, LocalDate sketchDate);
+
+    List<LatencySketch> findByScopeAndSketchDateAndNodeIdNot(String scope, LocalDate sketchDate, String nodeId);
+}
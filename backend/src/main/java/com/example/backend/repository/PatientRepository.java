@@ -1,10 +1,23 @@
 package com.example.backend.repository;
 
 import com.example.backend.entity.Patient;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface PatientRepository extends JpaRepository<Patient, Long> {
     Optional<Patient> findByPhone(String phone);
+
+    // keyset pages for the search index
+    @Query("""
+            select p.id as id, p.name as name, p.phone as phone, p.medicalId as medicalId
+            from Patient p
+            where p.id > :afterId
+            order by p.id asc
+            """)
+    List<PatientSearchRow> findSearchRowsAfter(@Param("afterId") Long afterId, Limit limit);
 }
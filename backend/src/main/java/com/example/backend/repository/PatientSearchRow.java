@@ -0,0 +1,15 @@
+package com.example.backend.repository;
+
+/**
+ * The patient columns the search index keeps, from PatientRepository.findSearchRowsAfter.
+ */
+public interface PatientSearchRow {
+
+    Long getId();
+
+    String getName();
+
+    String getPhone();
+
+    String getMedicalId();
+}
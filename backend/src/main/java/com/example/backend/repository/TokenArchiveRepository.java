@@ -0,0 +1,140 @@
+package com.example.backend.repository;
+
+import com.example.backend.dto.PatientTokenHistoryResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closed tokens moved out of the live tokens table, range-partitioned by
+ * created_at day (tokens_archive_yyyymmdd). Not a JPA entity: Hibernate's
+ * schema update does not understand partitioned tables, so the DDL and the
+ * reads live here.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenArchiveRepository {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String COLUMNS =
+            "id, token_number, service_id, status, priority, priority_type, approved, "
+                    + "patient_id, doctor_id, created_at, called_at, completed_at, version";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void createTableIfMissing() {
+        jdbcTemplate.execute("""
+                CREATE TABLE IF NOT EXISTS tokens_archive (
+                    id            BIGINT       NOT NULL,
+                    token_number  VARCHAR(255) NOT NULL,
+                    service_id    BIGINT       NOT NULL,
+                    status        VARCHAR(255) NOT NULL,
+                    priority      BOOLEAN      NOT NULL,
+                    priority_type VARCHAR(255) NOT NULL,
+                    approved      BOOLEAN      NOT NULL,
+                    patient_id    BIGINT       NOT NULL,
+                    doctor_id     BIGINT,
+                    created_at    TIMESTAMP(6) NOT NULL,
+                    called_at     TIMESTAMP(6),
+                    completed_at  TIMESTAMP(6),
+                    version       BIGINT,
+                    PRIMARY KEY (id, created_at)
+                ) PARTITION BY RANGE (created_at)
+                """);
+        jdbcTemplate.execute(
+                "CREATE INDEX IF NOT EXISTS tokens_archive_patient_idx ON tokens_archive (patient_id, created_at)");
+    }
+
+    public void createPartitionIfMissing(LocalDate day) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day)
+                + " PARTITION OF tokens_archive FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+    }
+
+    public List<String> attachedPartitionsBefore(LocalDate day) {
+        return jdbcTemplate.queryForList("""
+                        SELECT c.relname FROM pg_inherits i
+                        JOIN pg_class c ON c.oid = i.inhrelid
+                        JOIN pg_class p ON p.oid = i.inhparent
+                        WHERE p.relname = 'tokens_archive' AND c.relname < ?
+                        ORDER BY c.relname
+                        """,
+                String.class, partitionName(day));
+    }
+
+    // The detached table stays in place as a plain table for cold storage / pg_dump
+    public void detachPartition(String partition) {
+        jdbcTemplate.execute("ALTER TABLE tokens_archive DETACH PARTITION " + partition);
+    }
+
+    public List<LocalDate> daysWithClosedTokensBefore(LocalDateTime cutoff, List<String> closedStatuses) {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT CAST(created_at AS DATE) FROM tokens WHERE created_at < ? AND status = ANY (?)",
+                LocalDate.class, Timestamp.valueOf(cutoff), closedStatuses.toArray(new String[0]));
+    }
+
+    /**
+     * Moves one batch of closed tokens created before cutoff; returns how many moved.
+     */
+    public int moveClosedTokens(LocalDateTime cutoff, List<String> closedStatuses, int batchSize) {
+        return jdbcTemplate.update(
+                "WITH moved AS ("
+                        + " DELETE FROM tokens WHERE id IN ("
+                        + "  SELECT id FROM tokens WHERE created_at < ? AND status = ANY (?) LIMIT ?)"
+                        + " RETURNING " + COLUMNS + ")"
+                        + " INSERT INTO tokens_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved",
+                Timestamp.valueOf(cutoff), closedStatuses.toArray(new String[0]), batchSize);
+    }
+
+    public List<PatientTokenHistoryResponse> findHistory(Long patientId, Long serviceId, Long doctorId) {
+        StringBuilder sql = new StringBuilder("""
+                SELECT a.id, a.token_number, s.name AS service_name, d.name AS doctor_name,
+                       a.status, a.priority_type, a.created_at, a.called_at, a.completed_at
+                FROM tokens_archive a
+                JOIN service_types s ON s.id = a.service_id
+                LEFT JOIN counters d ON d.id = a.doctor_id
+                WHERE a.patient_id = ?
+                """);
+        List<Object> args = new ArrayList<>(List.of(patientId));
+        if (serviceId != null) {
+            sql.append(" AND a.service_id = ?");
+            args.add(serviceId);
+        }
+        if (doctorId != null) {
+            sql.append(" AND a.doctor_id = ?");
+            args.add(doctorId);
+        }
+        sql.append(" ORDER BY a.created_at DESC");
+
+        return jdbcTemplate.query(sql.toString(), HISTORY_ROW, args.toArray());
+    }
+
+    private static final RowMapper<PatientTokenHistoryResponse> HISTORY_ROW = (rs, i) ->
+            new PatientTokenHistoryResponse(
+                    rs.getLong("id"),
+                    rs.getString("token_number"),
+                    rs.getString("service_name"),
+                    rs.getString("doctor_name"),
+                    rs.getString("status"),
+                    "URGENT".equals(rs.getString("priority_type")),
+                    toLocalDateTime(rs.getTimestamp("created_at")),
+                    toLocalDateTime(rs.getTimestamp("called_at")),
+                    toLocalDateTime(rs.getTimestamp("completed_at"))
+            );
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "tokens_archive_" + day.format(PARTITION_SUFFIX);
+    }
+}
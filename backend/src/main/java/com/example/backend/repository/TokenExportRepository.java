@@ -0,0 +1,75 @@
+package com.example.backend.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Archived and live tokens in one forward-only pass. Postgres only streams
+ * through a cursor with autocommit off and a fetch size set, so callers must
+ * run inside a transaction; otherwise the driver buffers the whole result.
+ */
+@Repository
+@RequiredArgsConstructor
+public class TokenExportRepository {
+
+    private static final String COLUMNS =
+            "id, token_number, service_id, doctor_id, patient_id, status, priority_type, "
+                    + "created_at, called_at, completed_at";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void stream(LocalDateTime from, LocalDateTime to, Long serviceId, Long doctorId,
+                       int fetchSize, RowCallbackHandler handler) {
+        List<Object> args = new ArrayList<>();
+        String archived = branch("tokens_archive", from, to, serviceId, doctorId, args);
+        String live = branch("tokens", from, to, serviceId, doctorId, args);
+        String sql = """
+                SELECT x.id, x.token_number, x.service_id, s.name AS service_name,
+                       x.doctor_id, d.name AS doctor_name, x.patient_id, x.status, x.priority_type,
+                       x.created_at, x.called_at, x.completed_at
+                FROM (%s UNION ALL %s) x
+                LEFT JOIN service_types s ON s.id = x.service_id
+                LEFT JOIN counters d ON d.id = x.doctor_id
+                """.formatted(archived, live);
+
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        }, handler);
+    }
+
+    // The session's statement_timeout for the rest of the current transaction
+    public void setLocalStatementTimeout(long millis) {
+        jdbcTemplate.execute("SET LOCAL statement_timeout = " + millis);
+    }
+
+    private static String branch(String table, LocalDateTime from, LocalDateTime to,
+                                 Long serviceId, Long doctorId, List<Object> args) {
+        StringBuilder sql = new StringBuilder("SELECT " + COLUMNS + " FROM " + table
+                + " WHERE created_at >= ? AND created_at < ?");
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(to));
+        if (serviceId != null) {
+            sql.append(" AND service_id = ?");
+            args.add(serviceId);
+        }
+        if (doctorId != null) {
+            sql.append(" AND doctor_id = ?");
+            args.add(doctorId);
+        }
+        return sql.toString();
+    }
+}
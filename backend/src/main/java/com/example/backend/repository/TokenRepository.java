@@ -6,10 +6,20 @@ import com.example.backend.entity.ServiceType;
 import com.example.backend.entity.Token;
 import com.example.backend.entity.enums.TokenPriority;
 import com.example.backend.entity.enums.TokenStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,8 +41,58 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
             LocalDateTime createdAt
     );
     List<Token> findByStatus(TokenStatus status);
+
+    // Rows the close out below is about to touch, locked so none of them moves on first
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select t.id as id, t.serviceType.id as serviceTypeId, t.doctor.id as doctorId,
+                   t.status as status, t.completedAt as completedAt
+            from Token t
+            where t.status in :from and t.createdAt < :cutoff
+            """)
+    List<TokenStatusRow> lockByStatusCreatedBefore(
+            @Param("from") Collection<TokenStatus> from,
+            @Param("cutoff") LocalDateTime cutoff
+    );
+
+    // End-of-day close out; bumps version so in-flight edits of these rows fail cleanly
+    @Modifying
+    @Query("""
+            update Token t set t.status = :to, t.version = t.version + 1, t.updatedAt = :cutoff
+            where t.status in :from and t.createdAt < :cutoff
+            """)
+    int updateStatusCreatedBefore(
+            @Param("from") Collection<TokenStatus> from,
+            @Param("to") TokenStatus to,
+            @Param("cutoff") LocalDateTime cutoff
+    );
+
     long countByServiceTypeAndStatus(ServiceType serviceType, TokenStatus status);
 
+    // Live queue state for the warm-restart snapshot: open tokens plus today's completions
+    @Query("""
+            select t.id as id, t.serviceType.id as serviceTypeId, t.doctor.id as doctorId,
+                   t.status as status, t.completedAt as completedAt
+            from Token t
+            where t.status in :open
+               or (t.status = com.example.backend.entity.enums.TokenStatus.COMPLETED and t.completedAt >= :since)
+            """)
+    List<TokenStatusRow> findLiveState(
+            @Param("open") Collection<TokenStatus> open,
+            @Param("since") LocalDateTime since
+    );
+
+    // Everything that moved since a snapshot's high-water mark, whatever its status now
+    @Query("""
+            select t.id as id, t.serviceType.id as serviceTypeId, t.doctor.id as doctorId,
+                   t.status as status, t.completedAt as completedAt
+            from Token t
+            where t.updatedAt >= :since
+            """)
+    List<TokenStatusRow> findChangedSince(@Param("since") LocalDateTime since);
+
+    long countByStatusIn(Collection<TokenStatus> statuses);
+
     Optional<Token> findFirstByDoctorAndStatusOrderByCreatedAtAsc(
             Counter doctor,
             TokenStatus status
@@ -49,6 +109,8 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     );
     long countByStatus(TokenStatus status);
 
+    long countByCreatedAtGreaterThanEqual(LocalDateTime createdAt);
+
     long countByStatusAndPriorityType(
             TokenStatus status,
             TokenPriority priorityType
@@ -73,7 +135,81 @@ public interface TokenRepository extends JpaRepository<Token, Long> {
     );
 
 
-    Optional<Token> findFirstByStatusAndApprovedAndPriorityTypeOrderByCreatedAtAsc(TokenStatus tokenStatus, boolean b, TokenPriority tokenPriority);
+    Optional<Token> findFirstByServiceTypeAndStatusAndApprovedAndPriorityTypeOrderByCreatedAtAsc(
+            ServiceType serviceType,
+            TokenStatus status,
+            boolean approved,
+            TokenPriority priorityType
+    );
 
     List<Token> findByPriorityTypeAndApprovedFalse(TokenPriority tokenPriority);
+
+    @Query("""
+            select t.serviceType.id as id, t.serviceType.name as name, count(t) as total
+            from Token t
+            where t.status = :status
+            group by t.serviceType.id, t.serviceType.name
+            """)
+    List<GroupedCount> countByStatusGroupByServiceType(@Param("status") TokenStatus status);
+
+    @Query("""
+            select t.doctor.id as id, t.doctor.name as name, count(t) as total
+            from Token t
+            where t.status = :status and t.doctor is not null
+            group by t.doctor.id, t.doctor.name
+            """)
+    List<GroupedCount> countByStatusGroupByDoctor(@Param("status") TokenStatus status);
+
+    // busiest doctor lanes of one department first
+    @Query("""
+            select t.doctor.id as id, t.doctor.name as name, count(t) as total
+            from Token t
+            where t.serviceType = :serviceType and t.status = :status and t.doctor is not null
+            group by t.doctor.id, t.doctor.name
+            order by count(t) desc
+            """)
+    List<GroupedCount> countByServiceTypeAndStatusGroupByDoctor(
+            @Param("serviceType") ServiceType serviceType,
+            @Param("status") TokenStatus status
+    );
+
+    // FOR UPDATE SKIP LOCKED: concurrent thieves never wait on or take the same row
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select t from Token t
+            where t.serviceType = :serviceType and t.doctor.id = :doctorId
+              and t.status = com.example.backend.entity.enums.TokenStatus.WAITING
+              and t.priorityType = com.example.backend.entity.enums.TokenPriority.NORMAL
+              and t.approved = true and t.createdAt <= :createdBefore
+            order by t.createdAt asc
+            """)
+    List<Token> findStealable(
+            @Param("serviceType") ServiceType serviceType,
+            @Param("doctorId") Long doctorId,
+            @Param("createdBefore") LocalDateTime createdBefore,
+            Limit limit
+    );
+
+    @Query("""
+            select t.doctor.id as id, t.doctor.name as name, count(t) as total
+            from Token t
+            where t.status = :status and t.doctor is not null
+              and t.completedAt between :start and :end
+            group by t.doctor.id, t.doctor.name
+            """)
+    List<GroupedCount> countByStatusAndCompletedAtBetweenGroupByDoctor(
+            @Param("status") TokenStatus status,
+            @Param("start") LocalDateTime start,
+            @Param("end") LocalDateTime end
+    );
+
+    @EntityGraph(attributePaths = {"serviceType", "doctor"})
+    List<Token> findWithServiceAndDoctorByPatientOrderByCreatedAtDesc(Patient patient);
+
+    @EntityGraph(attributePaths = {"serviceType", "doctor"})
+    List<Token> findWithServiceAndDoctorByPatientAndServiceType(Patient patient, ServiceType serviceType);
+
+    @EntityGraph(attributePaths = {"serviceType", "doctor"})
+    List<Token> findWithServiceAndDoctorByPatientAndDoctor(Patient patient, Counter doctor);
 }
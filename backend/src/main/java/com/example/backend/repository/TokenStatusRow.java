@@ -0,0 +1,22 @@
+package com.example.backend.repository;
+
+import com.example.backend.entity.enums.TokenStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A token's lanes and status, for state kept outside the entity (the
+ * transition journal, the live-state snapshot). From TokenRepository.
+ */
+public interface TokenStatusRow {
+
+    Long getId();
+
+    Long getServiceTypeId();
+
+    Long getDoctorId();
+
+    TokenStatus getStatus();
+
+    LocalDateTime getCompletedAt();
+}
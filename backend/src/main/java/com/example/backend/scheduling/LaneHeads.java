@@ -0,0 +1,53 @@
+package com.example.backend.scheduling;
+
+import com.example.backend.entity.Token;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Oldest waiting token of each lane a calling doctor may serve. Each head
+ * is fetched (one indexed query) only when a policy first asks for it.
+ */
+public final class LaneHeads {
+
+    private final Supplier<Optional<Token>> emergencySource;
+    private final Supplier<Optional<Token>> ownLaneSource;
+    private final Supplier<Optional<Token>> departmentSource;
+
+    private Optional<Token> emergency;
+    private Optional<Token> ownLane;
+    private Optional<Token> department;
+
+    public LaneHeads(Supplier<Optional<Token>> emergency,
+                     Supplier<Optional<Token>> ownLane,
+                     Supplier<Optional<Token>> department) {
+        this.emergencySource = emergency;
+        this.ownLaneSource = ownLane;
+        this.departmentSource = department;
+    }
+
+    /** Approved URGENT tokens of this department only. */
+    public Optional<Token> emergency() {
+        if (emergency == null) {
+            emergency = emergencySource.get();
+        }
+        return emergency;
+    }
+
+    /** Tokens assigned to the calling doctor. */
+    public Optional<Token> ownLane() {
+        if (ownLane == null) {
+            ownLane = ownLaneSource.get();
+        }
+        return ownLane;
+    }
+
+    /** Unassigned tokens of the department. */
+    public Optional<Token> department() {
+        if (department == null) {
+            department = departmentSource.get();
+        }
+        return department;
+    }
+}
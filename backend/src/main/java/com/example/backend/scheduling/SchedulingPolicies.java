@@ -0,0 +1,30 @@
+package com.example.backend.scheduling;
+
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.enums.SchedulingPolicyType;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class SchedulingPolicies {
+
+    private final Map<SchedulingPolicyType, SchedulingPolicy> byType = new EnumMap<>(SchedulingPolicyType.class);
+
+    public SchedulingPolicies(List<SchedulingPolicy> policies) {
+        policies.forEach(p -> byType.put(p.type(), p));
+    }
+
+    public SchedulingPolicy forDepartment(ServiceType department) {
+        SchedulingPolicyType type = department.getSchedulingPolicy() != null
+                ? department.getSchedulingPolicy()
+                : SchedulingPolicyType.STRICT_PRIORITY;
+        SchedulingPolicy policy = byType.get(type);
+        if (policy == null) {
+            throw new RuntimeException("No scheduling policy for " + type);
+        }
+        return policy;
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.backend.scheduling;
+
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.SchedulingPolicyType;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Decides which lane a doctor serves next. Implementations only compare the
+ * lane heads (a fixed number of candidates), so a decision is O(1).
+ */
+public interface SchedulingPolicy {
+
+    SchedulingPolicyType type();
+
+    Optional<Token> choose(ServiceType department, LaneHeads heads, LocalDateTime now);
+}
@@ -0,0 +1,29 @@
+package com.example.backend.scheduling;
+
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.SchedulingPolicyType;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Emergencies, then the doctor's own lane, then the department queue,
+ * each oldest first. Stops at the first non-empty lane.
+ */
+@Component
+public class StrictPriorityPolicy implements SchedulingPolicy {
+
+    @Override
+    public SchedulingPolicyType type() {
+        return SchedulingPolicyType.STRICT_PRIORITY;
+    }
+
+    @Override
+    public Optional<Token> choose(ServiceType department, LaneHeads heads, LocalDateTime now) {
+        return heads.emergency()
+                .or(heads::ownLane)
+                .or(heads::department);
+    }
+}
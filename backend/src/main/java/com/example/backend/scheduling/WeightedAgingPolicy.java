@@ -0,0 +1,64 @@
+package com.example.backend.scheduling;
+
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.SchedulingPolicyType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * Each lane head scores (minutes waited + lane weight) and the highest
+ * score is served. An emergency is worth ServiceType.emergencyWeightMinutes
+ * of waiting, so it jumps ahead of normal patients who have waited less than
+ * that, but a NORMAL token that has waited longer overtakes a fresh
+ * emergency instead of starving through a surge.
+ */
+@Component
+public class WeightedAgingPolicy implements SchedulingPolicy {
+
+    static final int DEFAULT_EMERGENCY_WEIGHT_MINUTES = 60;
+
+    // small nudge so a doctor keeps their own patients ahead of equally old walk-ins
+    private static final long OWN_LANE_WEIGHT_MINUTES = 5;
+
+    @Override
+    public SchedulingPolicyType type() {
+        return SchedulingPolicyType.WEIGHTED_AGING;
+    }
+
+    @Override
+    public Optional<Token> choose(ServiceType department, LaneHeads heads, LocalDateTime now) {
+        long emergencyWeight = department.getEmergencyWeightMinutes() != null
+                ? department.getEmergencyWeightMinutes()
+                : DEFAULT_EMERGENCY_WEIGHT_MINUTES;
+
+        Token best = null;
+        long bestScore = Long.MIN_VALUE;
+
+        Token emergency = heads.emergency().orElse(null);
+        if (emergency != null) {
+            best = emergency;
+            bestScore = waited(emergency, now) + emergencyWeight;
+        }
+        Token own = heads.ownLane().orElse(null);
+        if (own != null && own != emergency) {
+            long score = waited(own, now) + OWN_LANE_WEIGHT_MINUTES;
+            if (score > bestScore) {
+                best = own;
+                bestScore = score;
+            }
+        }
+        Token walkIn = heads.department().orElse(null);
+        if (walkIn != null && waited(walkIn, now) > bestScore) {
+            best = walkIn;
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static long waited(Token token, LocalDateTime now) {
+        return token.getCreatedAt() == null ? 0 : Duration.between(token.getCreatedAt(), now).toMinutes();
+    }
+}
@@ -0,0 +1,470 @@
+package com.example.backend.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * In-memory patient lookup by phone, medical id and name.
+ *
+ * Phones (digits only) and medical ids (upper-case alphanumerics) live in
+ * sorted maps, so a prefix is one range scan. A full-length phone that
+ * matches nothing is retried with every one-edit variant (wrong, swapped,
+ * missing or extra digit), each an exact lookup.
+ *
+ * Names are matched word by word. Distinct name words form a vocabulary
+ * with a trigram index ("  j", " jo", "jon", ...); each word keeps the
+ * slots of the patients whose name contains it. A query word matches the
+ * vocabulary words sharing all but three of its trigrams (one typo), which
+ * scans a few short lists instead of one per patient. Patients must match
+ * every query word: candidates come from the query word with the fewest
+ * patients, best-matching words first, and are checked against the other
+ * words by binary search. Scanning stops once no remaining candidate can
+ * beat the current top results, so a common surname on its own costs no
+ * more than a rare one.
+ *
+ * Each put takes a new slot and stales the patient's previous one; slots
+ * are never reused, so per-word slot lists stay sorted. Writes are not
+ * thread-safe; callers guard the index with a read/write lock.
+ */
+public class PatientIndex {
+
+    public enum Match { PHONE, MEDICAL_ID, PHONE_TYPO, NAME }
+
+    public record Hit(long id, String name, String phone, String medicalId, Match match, double score) {
+    }
+
+    // ' ', a-z, 0-9
+    private static final int ALPHABET = 37;
+    private static final int TYPO_TRIGRAMS = 3;
+    private static final int MIN_TYPO_DIGITS = 7;
+    // per-word counters are bytes
+    private static final int MAX_WORD_LENGTH = 64;
+    private static final int MAX_QUERY_WORDS = 6;
+    private static final int MAX_WORD_MATCHES = 32;
+
+    private long[] ids = new long[1024];
+    private String[] names = new String[1024];
+    private String[] phones = new String[1024];
+    private String[] medicalIds = new String[1024];
+    private int slots;
+    private final BitSet stale = new BitSet();
+
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final NavigableMap<String, Integer> byPhone = new TreeMap<>();
+    private final NavigableMap<String, Integer> byMedicalId = new TreeMap<>();
+
+    // name vocabulary
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private byte[] wordTrigrams = new byte[1024];
+    private int[][] wordSlots = new int[1024][];
+    private int[] wordSlotCounts = new int[1024];
+    private int words;
+    private final int[][] trigramWords = new int[ALPHABET * ALPHABET * ALPHABET][];
+    private final int[] trigramWordCounts = new int[ALPHABET * ALPHABET * ALPHABET];
+    private final Queue<byte[]> counterPool = new ConcurrentLinkedQueue<>();
+
+    public int size() {
+        return slotById.size();
+    }
+
+    public void put(long id, String name, String phone, String medicalId) {
+        Integer previous = slotById.get(id);
+        if (previous != null) {
+            int old = previous;
+            if (Objects.equals(names[old], name) && Objects.equals(phones[old], phone)
+                    && Objects.equals(medicalIds[old], medicalId)) {
+                return;
+            }
+            stale.set(old);
+            byPhone.remove(phoneKey(phones[old]), old);
+            byMedicalId.remove(medicalIdKey(medicalIds[old]), old);
+        }
+
+        int slot = slots++;
+        if (slot == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            names = Arrays.copyOf(names, capacity);
+            phones = Arrays.copyOf(phones, capacity);
+            medicalIds = Arrays.copyOf(medicalIds, capacity);
+        }
+        ids[slot] = id;
+        names[slot] = name;
+        phones[slot] = phone;
+        medicalIds[slot] = medicalId;
+        slotById.put(id, slot);
+
+        String phoneKey = phoneKey(phone);
+        if (!phoneKey.isEmpty()) {
+            byPhone.put(phoneKey, slot);
+        }
+        String medicalIdKey = medicalIdKey(medicalId);
+        if (!medicalIdKey.isEmpty()) {
+            byMedicalId.put(medicalIdKey, slot);
+        }
+
+        for (String word : words(name)) {
+            int wordId = wordId(word);
+            wordSlots[wordId] = append(wordSlots[wordId], wordSlotCounts[wordId]++, slot);
+        }
+    }
+
+    /**
+     * Phone and medical id prefix hits first, then phone typos, then names
+     * by similarity. Each patient appears once, under its best match.
+     */
+    public List<Hit> search(String query, int limit) {
+        List<Hit> hits = new ArrayList<>();
+        Set<Integer> seen = new HashSet<>();
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.isEmpty() || limit <= 0) {
+            return hits;
+        }
+
+        String digits = phoneKey(trimmed);
+        boolean phoneLike = !digits.isEmpty() && trimmed.matches("[0-9+()\\-\\s.]+");
+        if (phoneLike) {
+            prefix(byPhone, digits, Match.PHONE, limit, hits, seen);
+        }
+        String medicalIdKey = medicalIdKey(trimmed);
+        if (medicalIdKey.length() >= 2) {
+            prefix(byMedicalId, medicalIdKey, Match.MEDICAL_ID, limit, hits, seen);
+        }
+        if (phoneLike && digits.length() >= MIN_TYPO_DIGITS && hits.size() < limit) {
+            phoneTypos(digits, hits, seen);
+        }
+        if (!phoneLike && hits.size() < limit) {
+            names(trimmed, limit, hits, seen);
+        }
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private void prefix(NavigableMap<String, Integer> map, String prefix, Match match,
+                        int limit, List<Hit> hits, Set<Integer> seen) {
+        for (int slot : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            if (hits.size() >= limit) {
+                return;
+            }
+            add(slot, match, 1.0, hits, seen);
+        }
+    }
+
+    private void phoneTypos(String digits, List<Hit> hits, Set<Integer> seen) {
+        char[] chars = digits.toCharArray();
+        StringBuilder variant = new StringBuilder(chars.length + 1);
+
+        for (int i = 0; i < chars.length; i++) {
+            // wrong digit
+            for (char d = '0'; d <= '9'; d++) {
+                if (d != chars[i]) {
+                    variant.setLength(0);
+                    variant.append(chars, 0, i).append(d).append(chars, i + 1, chars.length - i - 1);
+                    typo(variant.toString(), hits, seen);
+                }
+            }
+            // swapped neighbours
+            if (i + 1 < chars.length && chars[i] != chars[i + 1]) {
+                variant.setLength(0);
+                variant.append(chars, 0, i).append(chars[i + 1]).append(chars[i])
+                        .append(chars, i + 2, chars.length - i - 2);
+                typo(variant.toString(), hits, seen);
+            }
+            // extra digit typed
+            variant.setLength(0);
+            variant.append(chars, 0, i).append(chars, i + 1, chars.length - i - 1);
+            typo(variant.toString(), hits, seen);
+        }
+        // digit missing
+        for (int i = 0; i <= chars.length; i++) {
+            for (char d = '0'; d <= '9'; d++) {
+                variant.setLength(0);
+                variant.append(chars, 0, i).append(d).append(chars, i, chars.length - i);
+                typo(variant.toString(), hits, seen);
+            }
+        }
+    }
+
+    private void typo(String phoneKey, List<Hit> hits, Set<Integer> seen) {
+        Integer slot = byPhone.get(phoneKey);
+        if (slot != null) {
+            add(slot, Match.PHONE_TYPO, 1.0, hits, seen);
+        }
+    }
+
+    private void names(String query, int limit, List<Hit> hits, Set<Integer> seen) {
+        Set<String> queryWords = words(query);
+        if (queryWords.isEmpty() || queryWords.size() > MAX_QUERY_WORDS) {
+            return;
+        }
+        List<WordMatches> matches = new ArrayList<>();
+        for (String word : queryWords) {
+            WordMatches m = matchWord(word);
+            if (m.size() == 0) {
+                // every word has to match
+                return;
+            }
+            matches.add(m);
+        }
+        matches.sort(Comparator.comparingLong(WordMatches::patients));
+        WordMatches driver = matches.get(0);
+        int n = matches.size();
+        int wanted = limit - hits.size();
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        Set<Integer> scored = new HashSet<>();
+        for (int k = 0; k < driver.size(); k++) {
+            // the other words contribute at most 1 each
+            double bound = (driver.similarity[k] + n - 1) / n;
+            if (best.size() == wanted && bound <= best.peek().score()) {
+                break;
+            }
+            int wordId = driver.wordIds[k];
+            int[] candidates = wordSlots[wordId];
+            for (int c = 0, size = wordSlotCounts[wordId]; c < size; c++) {
+                if (best.size() == wanted && bound <= best.peek().score()) {
+                    break;
+                }
+                int slot = candidates[c];
+                if (stale.get(slot) || seen.contains(slot) || !scored.add(slot)) {
+                    continue;
+                }
+                // below this a word can't lift the patient into the results
+                double floor = best.size() == wanted ? best.peek().score() * n : 0;
+                double total = driver.similarity[k];
+                for (int w = 1; w < n && total >= 0; w++) {
+                    double similarity = matches.get(w).bestFor(slot, floor - total - (n - 1 - w));
+                    total = similarity < 0 ? -1 : total + similarity;
+                }
+                if (total < 0) {
+                    continue;
+                }
+                double score = total / n;
+                if (best.size() < wanted) {
+                    best.add(hit(slot, Match.NAME, score));
+                } else if (score > best.peek().score()) {
+                    best.poll();
+                    best.add(hit(slot, Match.NAME, score));
+                }
+            }
+        }
+
+        List<Hit> ranked = new ArrayList<>(best);
+        ranked.sort(Comparator.comparingDouble(Hit::score).reversed());
+        hits.addAll(ranked);
+    }
+
+    /** Vocabulary words within one typo of the query word, most similar first. */
+    private WordMatches matchWord(String word) {
+        int[] grams = trigrams(word);
+        int minShared = Math.max((grams.length + 1) / 2, grams.length - TYPO_TRIGRAMS);
+
+        List<int[]> found = new ArrayList<>();
+        List<Integer> touched = new ArrayList<>();
+        byte[] counts = borrowCounters();
+        try {
+            for (int gram : grams) {
+                int[] list = trigramWords[gram];
+                for (int i = 0, size = trigramWordCounts[gram]; i < size; i++) {
+                    if (counts[list[i]]++ == 0) {
+                        touched.add(list[i]);
+                    }
+                }
+            }
+            for (int wordId : touched) {
+                if (counts[wordId] >= minShared) {
+                    found.add(new int[]{wordId, counts[wordId]});
+                }
+            }
+        } finally {
+            for (int wordId : touched) {
+                counts[wordId] = 0;
+            }
+            counterPool.add(counts);
+        }
+
+        found.sort(Comparator.comparingDouble((int[] f) -> -dice(f[1], grams.length, wordTrigrams[f[0]])));
+        int size = Math.min(found.size(), MAX_WORD_MATCHES);
+        int[] matchedIds = new int[size];
+        double[] similarity = new double[size];
+        long patients = 0;
+        for (int i = 0; i < size; i++) {
+            matchedIds[i] = found.get(i)[0];
+            similarity[i] = dice(found.get(i)[1], grams.length, wordTrigrams[matchedIds[i]]);
+            patients += wordSlotCounts[matchedIds[i]];
+        }
+        return new WordMatches(matchedIds, similarity, patients);
+    }
+
+    // Dice coefficient of two trigram sets
+    private static double dice(int shared, int queryTrigrams, int wordTrigrams) {
+        return 2.0 * shared / (queryTrigrams + wordTrigrams);
+    }
+
+    private final class WordMatches {
+        final int[] wordIds;
+        final double[] similarity;
+        final long patients;
+
+        WordMatches(int[] wordIds, double[] similarity, long patients) {
+            this.wordIds = wordIds;
+            this.similarity = similarity;
+            this.patients = patients;
+        }
+
+        int size() {
+            return wordIds.length;
+        }
+
+        long patients() {
+            return patients;
+        }
+
+        /** Similarity of the best matched word in the patient's name, -1 if none reaches min. */
+        double bestFor(int slot, double min) {
+            for (int k = 0; k < wordIds.length && similarity[k] >= min; k++) {
+                int wordId = wordIds[k];
+                if (Arrays.binarySearch(wordSlots[wordId], 0, wordSlotCounts[wordId], slot) >= 0) {
+                    return similarity[k];
+                }
+            }
+            return -1;
+        }
+    }
+
+    private int wordId(String word) {
+        Integer existing = wordIds.get(word);
+        if (existing != null) {
+            return existing;
+        }
+        int wordId = words++;
+        if (wordId == wordSlots.length) {
+            int capacity = wordSlots.length * 2;
+            wordTrigrams = Arrays.copyOf(wordTrigrams, capacity);
+            wordSlots = Arrays.copyOf(wordSlots, capacity);
+            wordSlotCounts = Arrays.copyOf(wordSlotCounts, capacity);
+        }
+        wordIds.put(word, wordId);
+        int[] grams = trigrams(word);
+        wordTrigrams[wordId] = (byte) grams.length;
+        for (int gram : grams) {
+            trigramWords[gram] = append(trigramWords[gram], trigramWordCounts[gram]++, wordId);
+        }
+        return wordId;
+    }
+
+    // pooled so concurrent readers don't allocate a vocabulary-sized array per query
+    private byte[] borrowCounters() {
+        byte[] counts = counterPool.poll();
+        if (counts == null || counts.length < words) {
+            counts = new byte[wordSlots.length];
+        }
+        return counts;
+    }
+
+    private static int[] append(int[] list, int size, int value) {
+        if (list == null) {
+            list = new int[4];
+        } else if (size == list.length) {
+            list = Arrays.copyOf(list, size * 2);
+        }
+        list[size] = value;
+        return list;
+    }
+
+    private void add(int slot, Match match, double score, List<Hit> hits, Set<Integer> seen) {
+        if (seen.add(slot)) {
+            hits.add(hit(slot, match, score));
+        }
+    }
+
+    private Hit hit(int slot, Match match, double score) {
+        return new Hit(ids[slot], names[slot], phones[slot], medicalIds[slot], match, score);
+    }
+
+    static String phoneKey(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        return digits.toString();
+    }
+
+    static String medicalIdKey(String medicalId) {
+        if (medicalId == null) {
+            return "";
+        }
+        StringBuilder key = new StringBuilder(medicalId.length());
+        for (int i = 0; i < medicalId.length(); i++) {
+            char c = Character.toUpperCase(medicalId.charAt(i));
+            if ((c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /** Distinct lower-case ASCII words of a name; accents are dropped. */
+    static Set<String> words(String name) {
+        Set<String> words = new LinkedHashSet<>();
+        if (name == null) {
+            return words;
+        }
+        String folded = Normalizer.normalize(name, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if ((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')) {
+                if (word.length() < MAX_WORD_LENGTH) {
+                    word.append(c);
+                }
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && word.length() > 0) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /** Distinct trigram codes of one word, padded as "  word ". */
+    static int[] trigrams(String word) {
+        String padded = "  " + word + " ";
+        int[] codes = new int[padded.length() - 2];
+        for (int i = 0; i < codes.length; i++) {
+            codes[i] = (code(padded.charAt(i)) * ALPHABET + code(padded.charAt(i + 1))) * ALPHABET
+                    + code(padded.charAt(i + 2));
+        }
+        return Arrays.stream(codes).sorted().distinct().toArray();
+    }
+
+    private static int code(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.backend.search;
+
+import com.example.backend.entity.Patient;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * JPA entity listener that indexes a patient once the registering
+ * transaction has committed, so rolled-back registrations never show up.
+ */
+@Component
+@RequiredArgsConstructor
+public class PatientIndexListener {
+
+    // lazily: PatientSearch needs the EntityManagerFactory this listener is part of
+    private final ObjectProvider<PatientSearch> patientSearch;
+
+    @PostPersist
+    @PostUpdate
+    public void changed(Patient patient) {
+        PatientSearch search = patientSearch.getObject();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            search.index(patient);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                search.index(patient);
+            }
+        });
+    }
+}
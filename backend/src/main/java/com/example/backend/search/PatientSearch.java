@@ -0,0 +1,109 @@
+package com.example.backend.search;
+
+import com.example.backend.datasource.ReadYourWrites;
+import com.example.backend.entity.Patient;
+import com.example.backend.repository.PatientRepository;
+import com.example.backend.repository.PatientSearchRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps a PatientIndex of all patients for the front-desk search.
+ *
+ * Loaded in id order on start-up (before the instance reports ready), then
+ * topped up every queue.search.refresh-ms with rows past the highest id seen,
+ * which picks up patients registered on other nodes. Each pass re-reads the
+ * last queue.search.rescan ids as well, since ids are not committed in order.
+ * Local inserts and updates are applied on commit by PatientIndexListener;
+ * updates made on other nodes are not seen until restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PatientSearch {
+
+    private final PatientRepository patientRepository;
+
+    @Value("${queue.search.page-size:10000}")
+    private int pageSize;
+
+    @Value("${queue.search.rescan:1000}")
+    private long rescan;
+
+    private final PatientIndex index = new PatientIndex();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile long highestId;
+
+    public List<PatientIndex.Hit> search(String query, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.search(query, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void index(Patient patient) {
+        put(patient.getId(), patient.getName(), patient.getPhone(), patient.getMedicalId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${queue.search.refresh-ms:60000}", initialDelayString = "${queue.search.refresh-ms:60000}")
+    @ReadYourWrites
+    public void refresh() {
+        long start = System.currentTimeMillis();
+        boolean initial = highestId == 0;
+        long after = Math.max(0, highestId - rescan);
+        List<PatientSearchRow> page;
+        do {
+            page = patientRepository.findSearchRowsAfter(after, Limit.of(pageSize));
+            lock.writeLock().lock();
+            try {
+                for (PatientSearchRow row : page) {
+                    index.put(row.getId(), row.getName(), row.getPhone(), row.getMedicalId());
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+                highestId = Math.max(highestId, after);
+            }
+        } while (page.size() == pageSize);
+
+        if (initial) {
+            log.info("Patient search index loaded {} patients in {} ms", size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void put(Long id, String name, String phone, String medicalId) {
+        if (id == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            index.put(id, name, phone, medicalId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
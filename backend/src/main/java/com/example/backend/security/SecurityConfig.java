@@ -43,11 +43,13 @@ public class SecurityConfig {
                         .requestMatchers("/api/services/**").permitAll()
                         .requestMatchers("/api/patients/history/**").permitAll()
                         .requestMatchers("/ws/**","/ws/info/**","/topic/**").permitAll()
+                        .requestMatchers("/actuator/health/**", "/actuator/prometheus").permitAll()
 
 
 
                         // STAFF
                         .requestMatchers("/api/counters/**").hasAnyRole("STAFF", "ADMIN")
+                        .requestMatchers("/api/patients/search/**").hasAnyRole("STAFF", "ADMIN")
 
                         // ADMIN
                         .requestMatchers("/api/admin/**").hasAnyRole("ADMIN","STAFF")
@@ -72,7 +74,7 @@ public class SecurityConfig {
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
 
         // Allow all headers (including Authorization for your JWT)
-        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
+        configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Idempotency-Key"));
 
         // Crucial for JWT/Session-based auth
         configuration.setAllowCredentials(true);
@@ -1,30 +1,45 @@
 package com.example.backend.service;
 
+import com.example.backend.analytics.LatencySketches;
+import com.example.backend.analytics.QuantileSketch;
+import com.example.backend.datasource.Reporting;
 import com.example.backend.dto.AdminDashboardSummary;
+import com.example.backend.dto.DailyRollupResponse;
 import com.example.backend.dto.DoctorLoadResponse;
 import com.example.backend.dto.ServiceStatsResponse;
 import com.example.backend.entity.ServiceMetric;
 import com.example.backend.entity.enums.TokenPriority;
 import com.example.backend.entity.enums.TokenStatus;
 import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.DailyDoctorRollupRepository;
+import com.example.backend.repository.DailyServiceRollupRepository;
+import com.example.backend.repository.GroupedCount;
 import com.example.backend.repository.ServiceMetricRepository;
 import com.example.backend.repository.ServiceTypeRepository;
 import com.example.backend.repository.TokenRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Reporting
 public class AdminDashboardService {
 
     private final TokenRepository tokenRepository;
     private final CounterRepository counterRepository;
     private final ServiceTypeRepository serviceTypeRepository;
     private final ServiceMetricRepository metricRepository;
+    private final DailyServiceRollupRepository serviceRollupRepository;
+    private final DailyDoctorRollupRepository doctorRollupRepository;
+    private final LatencySketches latencySketches;
 
     public AdminDashboardSummary getSummary() {
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
@@ -45,37 +60,104 @@ public class AdminDashboardService {
         LocalDateTime startOfDay = LocalDate.now().atStartOfDay();
         LocalDateTime now = LocalDateTime.now();
 
+        // one grouped query per status instead of three counts per doctor
+        Map<Long, Long> waiting = byId(
+                tokenRepository.countByStatusGroupByDoctor(TokenStatus.WAITING));
+        Map<Long, Long> serving = byId(
+                tokenRepository.countByStatusGroupByDoctor(TokenStatus.SERVING));
+        Map<Long, Long> completedToday = byId(
+                tokenRepository.countByStatusAndCompletedAtBetweenGroupByDoctor(
+                        TokenStatus.COMPLETED, startOfDay, now));
+
         return counterRepository.findAll().stream()
                 .map(doc -> new DoctorLoadResponse(
                         doc.getId(),
                         doc.getName(),
-                        tokenRepository.countByDoctorAndStatus(doc, TokenStatus.WAITING),
-                        tokenRepository.countByDoctorAndStatus(doc, TokenStatus.SERVING),
-                        tokenRepository.countByDoctorAndStatusAndCompletedAtBetween(
-                                doc, TokenStatus.COMPLETED, startOfDay, now)
+                        waiting.getOrDefault(doc.getId(), 0L),
+                        serving.getOrDefault(doc.getId(), 0L),
+                        completedToday.getOrDefault(doc.getId(), 0L)
                 ))
                 .toList();
     }
 
     public List<ServiceStatsResponse> serviceStats() {
+        Map<Long, Double> avgByService = metricRepository.findAllWithServiceTypeBy().stream()
+                .filter(m -> m.getServiceType() != null)
+                .collect(Collectors.toMap(
+                        m -> m.getServiceType().getId(),
+                        ServiceMetric::getAvgServiceTimeMinutes,
+                        (a, b) -> a));
+        Map<Long, Long> waiting = byId(
+                tokenRepository.countByStatusGroupByServiceType(TokenStatus.WAITING));
+        Map<String, Map<Long, QuantileSketch>> sketches =
+                latencySketches.mergedToday(LatencySketches.SERVICE_SCOPE);
+        Map<Long, QuantileSketch> waits = sketches.getOrDefault(LatencySketches.WAIT, Map.of());
+        Map<Long, QuantileSketch> serviceTimes = sketches.getOrDefault(LatencySketches.SERVICE_TIME, Map.of());
+
         return serviceTypeRepository.findAll().stream()
                 .map(service -> {
-                    double avg = metricRepository
-                            .findByServiceType(service)
-                            .map(ServiceMetric::getAvgServiceTimeMinutes)
-                            .orElse(0.0);
-
-                    long waiting = tokenRepository
-                            .countByServiceTypeAndStatus(service, TokenStatus.WAITING);
-
+                    QuantileSketch wait = waits.get(service.getId());
+                    QuantileSketch serviceTime = serviceTimes.get(service.getId());
                     return new ServiceStatsResponse(
                             service.getId(),
                             service.getName(),
-                            avg,
-                            waiting
+                            avgByService.getOrDefault(service.getId(), 0.0),
+                            waiting.getOrDefault(service.getId(), 0L),
+                            minutes(wait, 0.5),
+                            minutes(wait, 0.9),
+                            minutes(wait, 0.99),
+                            minutes(serviceTime, 0.5),
+                            minutes(serviceTime, 0.9),
+                            minutes(serviceTime, 0.99)
                     );
                 })
                 .toList();
     }
-}
 
+    private static Double minutes(QuantileSketch sketch, double q) {
+        if (sketch == null || sketch.getCount() == 0) {
+            return null;
+        }
+        return sketch.quantile(q) / 60.0;
+    }
+
+    // Closed days only: reads the rollover job's rollups, never raw tokens
+    public List<DailyRollupResponse> serviceHistory(LocalDate from, LocalDate to) {
+        return serviceRollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to).stream()
+                .map(r -> new DailyRollupResponse(
+                        r.getRollupDate(),
+                        r.getServiceType().getId(),
+                        r.getServiceType().getName(),
+                        r.getArrivals(),
+                        r.getCompleted(),
+                        r.getSkipped(),
+                        r.getAvgWaitMinutes(),
+                        r.getP90WaitMinutes(),
+                        r.getAvgServiceMinutes(),
+                        r.getP90ServiceMinutes()
+                ))
+                .toList();
+    }
+
+    public List<DailyRollupResponse> doctorHistory(LocalDate from, LocalDate to) {
+        return doctorRollupRepository.findByRollupDateBetweenOrderByRollupDateAsc(from, to).stream()
+                .map(r -> new DailyRollupResponse(
+                        r.getRollupDate(),
+                        r.getDoctor().getId(),
+                        r.getDoctor().getName(),
+                        r.getAssigned(),
+                        r.getCompleted(),
+                        r.getSkipped(),
+                        r.getAvgWaitMinutes(),
+                        r.getP90WaitMinutes(),
+                        r.getAvgServiceMinutes(),
+                        r.getP90ServiceMinutes()
+                ))
+                .toList();
+    }
+
+    private static Map<Long, Long> byId(List<GroupedCount> counts) {
+        return counts.stream()
+                .collect(Collectors.toMap(GroupedCount::getId, GroupedCount::getTotal));
+    }
+}
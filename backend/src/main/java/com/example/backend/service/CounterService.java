@@ -1,5 +1,7 @@
 package com.example.backend.service;
 
+import com.example.backend.analytics.TokenTransitions;
+import com.example.backend.dispatch.DoctorDispatcher;
 import com.example.backend.entity.Counter;
 import com.example.backend.entity.ServiceMetric;
 import com.example.backend.entity.ServiceType;
@@ -30,6 +32,8 @@ public class CounterService {
     private final QueueService queueService;
     private final QueueEventPublisher eventPublisher;
     private final ServiceMetricRepository metricRepository;
+    private final TokenTransitions transitions;
+    private final DoctorDispatcher doctorDispatcher;
 
     @Transactional
     public Token callNextToken(Long counterId, ServiceType serviceType) {
@@ -49,12 +53,15 @@ public class CounterService {
         });
 
         Token nextToken = queueService.getNextToken(serviceType, counter);
+        TokenStatus from = nextToken.getStatus();
+        Counter fromDoctor = nextToken.getDoctor();
 
         nextToken.setDoctor(counter);
         nextToken.setStatus(TokenStatus.SERVING);
         nextToken.setCalledAt(LocalDateTime.now());
 
         Token saved = tokenRepository.save(nextToken);
+        transitions.record(saved, from, fromDoctor);
 
         QueueEvent event = new QueueEvent(
                 "TOKEN_CALLED",
@@ -95,10 +102,12 @@ public class CounterService {
         token.setStatus(TokenStatus.COMPLETED);
         token.setCompletedAt(LocalDateTime.now());
         tokenRepository.save(token);
+        transitions.record(token, TokenStatus.SERVING);
         Counter doctor = token.getDoctor();
         if (doctor != null) {
             doctor.setAvailability(DoctorAvailability.AVAILABLE);
             counterRepository.save(doctor);
+            doctorDispatcher.availabilityChanged(doctor.getId(), DoctorAvailability.AVAILABLE);
         }
         updateMetrics(token);
 
@@ -119,8 +128,10 @@ public class CounterService {
         Token token = tokenRepository.findById(tokenId)
                 .orElseThrow(() -> new RuntimeException("Token not found"));
 
+        TokenStatus from = token.getStatus();
         token.setStatus(TokenStatus.SKIPPED);
         tokenRepository.save(token);
+        transitions.record(token, from);
     }
     @Transactional
     public void updateAvailability(Long counterId, DoctorAvailability availability) {
@@ -129,6 +140,7 @@ public class CounterService {
 
         counter.setAvailability(availability);
         counterRepository.save(counter);
+        doctorDispatcher.availabilityChanged(counter.getId(), availability);
 
         // Notify all dashboards that a doctor's status changed
         eventPublisher.publishCounterUpdate(new QueueEvent(
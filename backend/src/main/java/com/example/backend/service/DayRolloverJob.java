@@ -0,0 +1,128 @@
+package com.example.backend.service;
+
+import com.example.backend.analytics.TokenTimeSeries;
+import com.example.backend.dispatch.DoctorDispatcher;
+import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.journal.TransitionJournal;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.DailyDoctorRollupRepository;
+import com.example.backend.repository.DailyServiceRollupRepository;
+import com.example.backend.repository.TokenRepository;
+import com.example.backend.repository.TokenStatusRow;
+import com.example.backend.versioning.DataVersions;
+import com.example.backend.websocket.QueueEvent;
+import com.example.backend.websocket.QueueEventPublisher;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closes out the clinic day (queue.rollover.cron, 00:05 by default):
+ * 1. cancels tokens from before today still WAITING / PENDING_APPROVAL so
+ *    they don't leak into today's queues,
+ * 2. resets per-day state (doctors left BUSY go back to AVAILABLE unless
+ *    they are still serving someone; token numbers restart on their own
+ *    since they count today's tokens),
+ * 3. writes the per-service and per-doctor daily rollups that historical
+ *    reports read instead of scanning tokens.
+ * All three are set-based statements in one transaction.
+ *
+ * Rollups cover every day after the last rolled-up one through yesterday
+ * (at most queue.rollover.catch-up-days back), on each run and at start-up,
+ * so a day missed while the node was down is caught up. Running after
+ * midnight keeps tokens completed late in the evening in their day, and
+ * still comes before the archive job moves that day out of the live table;
+ * a day the archive job has already moved cannot be caught up.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "queue.rollover.enabled", havingValue = "true", matchIfMissing = true)
+public class DayRolloverJob {
+
+    private final TokenRepository tokenRepository;
+    private final CounterRepository counterRepository;
+    private final DailyServiceRollupRepository serviceRollupRepository;
+    private final DailyDoctorRollupRepository doctorRollupRepository;
+    private final QueueEventPublisher eventPublisher;
+    private final TokenTimeSeries timeSeries;
+    private final DoctorDispatcher doctorDispatcher;
+    private final DataVersions dataVersions;
+    private final ObjectProvider<TransitionJournal> journal;
+
+    @Value("${queue.rollover.catch-up-days:7}")
+    private int catchUpDays;
+
+    @Scheduled(cron = "${queue.rollover.cron:0 5 0 * * *}")
+    @Transactional
+    public void rollover() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime cutoff = today.atStartOfDay();
+
+        List<TokenStatus> open = List.of(TokenStatus.WAITING, TokenStatus.PENDING_APPROVAL);
+        List<TokenStatusRow> leftovers = tokenRepository.lockByStatusCreatedBefore(open, cutoff);
+        int cancelled = tokenRepository.updateStatusCreatedBefore(open, TokenStatus.CANCELLED, cutoff);
+
+        // the bulk cancel bypasses token transitions: journal the locked rows, re-read live depth
+        journal.ifAvailable(j -> j.recordAfterCommit(leftovers, TokenStatus.CANCELLED, "system"));
+        timeSeries.resyncDepth();
+
+        int doctorsReset = counterRepository.updateAvailabilityOfIdle(
+                DoctorAvailability.BUSY, DoctorAvailability.AVAILABLE, TokenStatus.SERVING);
+
+        doctorDispatcher.reload();
+
+        // bulk updates skip the entity listeners
+        dataVersions.bumpAllAfterCommit();
+
+        List<LocalDate> rolledUp = rollUpMissedDays(today);
+
+        log.info("Closed the day before {}: cancelled {} leftover tokens, reset {} doctors, rolled up {}",
+                today, cancelled, doctorsReset, rolledUp);
+
+        eventPublisher.publishQueueUpdate(
+                new QueueEvent("DAY_CLOSED", null, null, null, today.minusDays(1).toString()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void catchUp() {
+        List<LocalDate> rolledUp = rollUpMissedDays(LocalDate.now());
+        if (!rolledUp.isEmpty()) {
+            dataVersions.bumpAllAfterCommit();
+            log.info("Caught up daily rollups for {}", rolledUp);
+        }
+    }
+
+    private List<LocalDate> rollUpMissedDays(LocalDate today) {
+        LocalDate yesterday = today.minusDays(1);
+        LocalDate oldest = yesterday.minusDays(catchUpDays - 1L);
+        LocalDate from = serviceRollupRepository.findLastRollupDate()
+                .map(last -> last.plusDays(1))
+                .filter(day -> day.isAfter(oldest))
+                .orElse(oldest);
+
+        List<LocalDate> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(yesterday); day = day.plusDays(1)) {
+            LocalDateTime start = day.atStartOfDay();
+            LocalDateTime end = day.plusDays(1).atStartOfDay();
+            serviceRollupRepository.rollUp(day, start, end);
+            doctorRollupRepository.rollUp(day, start, end);
+            days.add(day);
+        }
+        return days;
+    }
+}
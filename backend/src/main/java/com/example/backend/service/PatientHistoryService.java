@@ -1,5 +1,6 @@
 package com.example.backend.service;
 
+import com.example.backend.datasource.Reporting;
 import com.example.backend.dto.PatientTokenHistoryResponse;
 import com.example.backend.entity.Counter;
 import com.example.backend.entity.Patient;
@@ -9,28 +10,34 @@ import com.example.backend.entity.enums.TokenPriority;
 import com.example.backend.repository.CounterRepository;
 import com.example.backend.repository.PatientRepository;
 import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.repository.TokenArchiveRepository;
 import com.example.backend.repository.TokenRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Comparator;
 import java.util.List;
+import java.util.stream.Stream;
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Reporting
 public class PatientHistoryService {
 
     private final PatientRepository patientRepository;
     private final TokenRepository tokenRepository;
     private final ServiceTypeRepository serviceTypeRepository;
     private final CounterRepository counterRepository;
+    private final TokenArchiveRepository archiveRepository;
 
     public List<PatientTokenHistoryResponse> getPatientHistoryByPhone(String phone) {
         Patient patient = patientRepository.findByPhone(phone)
                 .orElseThrow(() -> new RuntimeException("Patient not found"));
 
-        return tokenRepository.findByPatientOrderByCreatedAtDesc(patient)
-                .stream()
-                .map(this::map)
-                .toList();
+        return withArchive(
+                tokenRepository.findWithServiceAndDoctorByPatientOrderByCreatedAtDesc(patient),
+                archiveRepository.findHistory(patient.getId(), null, null));
     }
 
     public List<PatientTokenHistoryResponse> filterByService(
@@ -40,10 +47,9 @@ public class PatientHistoryService {
         Patient patient = patientRepository.findByPhone(phone).orElseThrow();
         ServiceType service = serviceTypeRepository.findById(serviceId).orElseThrow();
 
-        return tokenRepository.findByPatientAndServiceType(patient, service)
-                .stream()
-                .map(this::map)
-                .toList();
+        return withArchive(
+                tokenRepository.findWithServiceAndDoctorByPatientAndServiceType(patient, service),
+                archiveRepository.findHistory(patient.getId(), service.getId(), null));
     }
 
     public List<PatientTokenHistoryResponse> filterByDoctor(
@@ -53,9 +59,19 @@ public class PatientHistoryService {
         Patient patient = patientRepository.findByPhone(phone).orElseThrow();
         Counter doctor = counterRepository.findById(doctorId).orElseThrow();
 
-        return tokenRepository.findByPatientAndDoctor(patient, doctor)
-                .stream()
-                .map(this::map)
+        return withArchive(
+                tokenRepository.findWithServiceAndDoctorByPatientAndDoctor(patient, doctor),
+                archiveRepository.findHistory(patient.getId(), null, doctor.getId()));
+    }
+
+    // Live tokens first (newest), then archived days, newest first
+    private List<PatientTokenHistoryResponse> withArchive(
+            List<Token> live,
+            List<PatientTokenHistoryResponse> archived
+    ) {
+        return Stream.concat(live.stream().map(this::map), archived.stream())
+                .sorted(Comparator.comparing(PatientTokenHistoryResponse::getCreatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
                 .toList();
     }
 
@@ -1,5 +1,6 @@
 package com.example.backend.service;
 
+import com.example.backend.dispatch.DoctorDispatcher;
 import com.example.backend.entity.Counter;
 import com.example.backend.entity.ServiceType;
 import com.example.backend.entity.Token;
@@ -7,64 +8,113 @@ import com.example.backend.entity.enums.DoctorAvailability;
 import com.example.backend.entity.enums.TokenPriority;
 import com.example.backend.entity.enums.TokenStatus;
 import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.GroupedCount;
 import com.example.backend.repository.ServiceTypeRepository;
 import com.example.backend.repository.TokenRepository;
+import com.example.backend.scheduling.LaneHeads;
+import com.example.backend.scheduling.SchedulingPolicies;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class QueueService {
 
+    // lanes examined per steal attempt, busiest first
+    private static final int MAX_VICTIM_LANES = 3;
+
     private final TokenRepository tokenRepository;
     private final CounterRepository counterRepository;
     private final ServiceTypeRepository serviceTypeRepository;
+    private final DoctorDispatcher doctorDispatcher;
+    private final SchedulingPolicies schedulingPolicies;
 
     /**
      * CORE QUEUE LOGIC (Phase‑4 safe)
      *
-     * Priority order:
-     * 1. Doctor‑specific waiting token (if doctor is assigned)
-     * 2. Department‑level waiting token
+     * Lanes:
+     * 1. Emergency lane of this department
+     * 2. Doctor‑specific waiting token (if doctor is assigned)
+     * 3. Department‑level waiting token
+     * The department's SchedulingPolicy picks between the lane heads;
+     * if all are empty, the oldest stealable token of the busiest peer
+     * lane (opt-in per ServiceType).
      */
     @Transactional
     public Token getNextToken(ServiceType serviceType, Counter doctor) {
 
-        Optional<Token> emergency =
-                tokenRepository.findFirstByStatusAndApprovedAndPriorityTypeOrderByCreatedAtAsc(
+        LaneHeads heads = new LaneHeads(
+                () -> tokenRepository.findFirstByServiceTypeAndStatusAndApprovedAndPriorityTypeOrderByCreatedAtAsc(
+                        serviceType,
                         TokenStatus.WAITING,
                         true,
                         TokenPriority.URGENT
-                );
+                ),
+                () -> doctor == null
+                        ? Optional.empty()
+                        : tokenRepository.findFirstByDoctorAndStatusOrderByCreatedAtAsc(doctor, TokenStatus.WAITING),
+                () -> tokenRepository.findFirstByServiceTypeAndDoctorIsNullAndStatusOrderByCreatedAtAsc(
+                        serviceType,
+                        TokenStatus.WAITING
+                )
+        );
 
-        if (emergency.isPresent()) {
-            return emergency.get();
-        }
+        Optional<Token> chosen = schedulingPolicies.forDepartment(serviceType)
+                .choose(serviceType, heads, LocalDateTime.now());
 
-        // 1️⃣ Doctor‑specific queue
-        if (doctor != null) {
-            Optional<Token> doctorToken =
-                    tokenRepository.findFirstByDoctorAndStatusOrderByCreatedAtAsc(
-                            doctor,
-                            TokenStatus.WAITING
-                    );
+        if (chosen.isPresent()) {
+            return chosen.get();
+        }
 
-            if (doctorToken.isPresent()) {
-                return doctorToken.get();
+        // Take over work from an overloaded colleague
+        if (doctor != null && Boolean.TRUE.equals(serviceType.getWorkStealingEnabled())) {
+            Optional<Token> stolen = steal(serviceType, doctor);
+            if (stolen.isPresent()) {
+                return stolen.get();
             }
         }
 
-        // 2️⃣ Department‑level queue (no doctor assigned)
-        return tokenRepository
-                .findFirstByServiceTypeAndDoctorIsNullAndStatusOrderByCreatedAtAsc(
-                        serviceType,
-                        TokenStatus.WAITING
-                )
-                .orElseThrow(() -> new RuntimeException("No tokens in queue"));
+        throw new RuntimeException("No tokens in queue");
+    }
+
+    /**
+     * The returned token is row-locked until the caller's transaction ends;
+     * rows already locked by another doctor are skipped, not waited on.
+     */
+    private Optional<Token> steal(ServiceType serviceType, Counter thief) {
+        int minLaneSize = serviceType.getStealMinLaneSize() != null ? serviceType.getStealMinLaneSize() : 1;
+        int minWait = serviceType.getStealMinWaitMinutes() != null ? serviceType.getStealMinWaitMinutes() : 0;
+        LocalDateTime createdBefore = LocalDateTime.now().minusMinutes(minWait);
+
+        List<GroupedCount> lanes =
+                tokenRepository.countByServiceTypeAndStatusGroupByDoctor(serviceType, TokenStatus.WAITING);
+
+        int examined = 0;
+        for (GroupedCount lane : lanes) {
+            if (lane.getTotal() < minLaneSize || examined == MAX_VICTIM_LANES) {
+                break;
+            }
+            if (lane.getId().equals(thief.getId())) {
+                continue;
+            }
+            examined++;
+            List<Token> candidates =
+                    tokenRepository.findStealable(serviceType, lane.getId(), createdBefore, Limit.of(1));
+            if (!candidates.isEmpty()) {
+                log.debug("Doctor {} takes {} from doctor {}", thief.getId(),
+                        candidates.get(0).getTokenNumber(), lane.getId());
+                return Optional.of(candidates.get(0));
+            }
+        }
+        return Optional.empty();
     }
 
     /**
@@ -87,11 +137,7 @@ public class QueueService {
     @Transactional
     public void autoAssignDoctor(Token token) {
 
-        Optional<Counter> availableDoctor =
-                counterRepository.findFirstByDepartmentsContainsAndAvailability(
-                        token.getServiceType(),
-                        DoctorAvailability.AVAILABLE
-                );
+        Optional<Counter> availableDoctor = doctorDispatcher.assign(token.getServiceType());
 
         if (availableDoctor.isPresent()) {
             Counter doctor = availableDoctor.get();
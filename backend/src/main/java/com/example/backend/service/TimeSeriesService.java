@@ -0,0 +1,126 @@
+package com.example.backend.service;
+
+import com.example.backend.analytics.TimeSeriesRangeException;
+import com.example.backend.analytics.TokenTimeSeries;
+import com.example.backend.datasource.Reporting;
+import com.example.backend.dto.TimeSeriesPoint;
+import com.example.backend.dto.TimeSeriesResponse;
+import com.example.backend.repository.DailyDoctorRollupRepository;
+import com.example.backend.repository.DailyServiceRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+@Reporting
+public class TimeSeriesService {
+
+    private final TokenTimeSeries timeSeries;
+    private final DailyServiceRollupRepository serviceRollupRepository;
+    private final DailyDoctorRollupRepository doctorRollupRepository;
+
+    @Value("${queue.timeseries.max-points:3000}")
+    private long maxPoints;
+
+    /**
+     * Minute buckets from memory for the recent part of the range; any whole
+     * days before memory starts come from the daily rollups, one point per day.
+     * The minute buckets only count this node's transitions ("memory" points);
+     * rollup points are cluster-wide. The range ends now at the latest and may
+     * not need more than queue.timeseries.max-points points.
+     */
+    public TimeSeriesResponse series(String scope, Long id, LocalDateTime from, LocalDateTime to, int resolutionMinutes) {
+        if (!"service".equals(scope) && !"doctor".equals(scope)) {
+            throw new TimeSeriesRangeException("Unknown scope: " + scope);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        if (to.isAfter(now)) {
+            to = now;
+        }
+        if (resolutionMinutes < 1 || !from.isBefore(to)) {
+            throw new TimeSeriesRangeException("Invalid time range or resolution");
+        }
+
+        LocalDateTime retainedSince = timeSeries.retainedSince();
+        long needed = pointCount(from, to, retainedSince, resolutionMinutes);
+        if (needed > maxPoints) {
+            throw new TimeSeriesRangeException("Range needs " + needed + " points, at most " + maxPoints
+                    + " are served: narrow it or raise the resolution");
+        }
+
+        List<TimeSeriesPoint> points = new ArrayList<>();
+        LocalDateTime memoryFrom = from;
+
+        if (from.isBefore(retainedSince)) {
+            LocalDate lastDay = min(to, retainedSince).toLocalDate().minusDays(1);
+            List<TimeSeriesPoint> days = "service".equals(scope)
+                    ? serviceDays(id, from.toLocalDate(), lastDay)
+                    : doctorDays(id, from.toLocalDate(), lastDay);
+            points.addAll(days);
+            if (!days.isEmpty()) {
+                LocalDateTime afterRollups = days.get(days.size() - 1).getStart().plusDays(1);
+                memoryFrom = afterRollups.isAfter(memoryFrom) ? afterRollups : memoryFrom;
+            }
+        }
+
+        if (memoryFrom.isBefore(to)) {
+            points.addAll("service".equals(scope)
+                    ? timeSeries.serviceSeries(id, memoryFrom, to, resolutionMinutes)
+                    : timeSeries.doctorSeries(id, memoryFrom, to, resolutionMinutes));
+        }
+
+        return new TimeSeriesResponse(scope, id, resolutionMinutes, points);
+    }
+
+    private List<TimeSeriesPoint> serviceDays(Long id, LocalDate from, LocalDate to) {
+        return serviceRollupRepository.findByServiceTypeIdAndRollupDateBetweenOrderByRollupDateAsc(id, from, to).stream()
+                .map(r -> new TimeSeriesPoint(
+                        r.getRollupDate().atStartOfDay(),
+                        r.getArrivals(),
+                        r.getCompleted(),
+                        null,
+                        r.getAvgWaitMinutes(),
+                        r.getAvgServiceMinutes(),
+                        "rollup"
+                ))
+                .toList();
+    }
+
+    private List<TimeSeriesPoint> doctorDays(Long id, LocalDate from, LocalDate to) {
+        return doctorRollupRepository.findByDoctorIdAndRollupDateBetweenOrderByRollupDateAsc(id, from, to).stream()
+                .map(r -> new TimeSeriesPoint(
+                        r.getRollupDate().atStartOfDay(),
+                        r.getAssigned(),
+                        r.getCompleted(),
+                        null,
+                        r.getAvgWaitMinutes(),
+                        r.getAvgServiceMinutes(),
+                        "rollup"
+                ))
+                .toList();
+    }
+
+    // one per rollup day before memory starts, one per step after
+    private static long pointCount(LocalDateTime from, LocalDateTime to, LocalDateTime retainedSince, int resolutionMinutes) {
+        long days = from.isBefore(retainedSince)
+                ? ChronoUnit.DAYS.between(from.toLocalDate(), min(to, retainedSince).toLocalDate())
+                : 0;
+        LocalDateTime memoryFrom = from.isAfter(retainedSince) ? from : retainedSince;
+        long minutes = memoryFrom.isBefore(to) ? Duration.between(memoryFrom, to).toMinutes() : 0;
+        return days + (minutes + resolutionMinutes - 1) / resolutionMinutes;
+    }
+
+    private static LocalDateTime min(LocalDateTime a, LocalDateTime b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.backend.service;
+
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.TokenArchiveRepository;
+import com.example.backend.versioning.DataVersions;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Keeps the live tokens table down to today's rows plus anything still open.
+ *
+ * Closed tokens (COMPLETED / CANCELLED / SKIPPED) older than the live window
+ * are moved in batches into the day-partitioned tokens_archive. The job also
+ * creates partitions ahead of time and detaches the ones older than the
+ * retention period, so live-queue queries only ever scan one day of rows no
+ * matter how much history is kept.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "queue.archive.enabled", havingValue = "true", matchIfMissing = true)
+public class TokenArchiveJob {
+
+    private static final List<String> CLOSED_STATUSES = List.of(
+            TokenStatus.COMPLETED.name(),
+            TokenStatus.CANCELLED.name(),
+            TokenStatus.SKIPPED.name()
+    );
+
+    private final TokenArchiveRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final DataVersions dataVersions;
+
+    @Value("${queue.archive.live-days:1}")
+    private int liveDays;
+
+    @Value("${queue.archive.future-partitions:7}")
+    private int futurePartitions;
+
+    @Value("${queue.archive.retention-days:400}")
+    private int retentionDays;
+
+    @Value("${queue.archive.batch-size:5000}")
+    private int batchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        archiveRepository.createTableIfMissing();
+        createFuturePartitions();
+    }
+
+    @Scheduled(cron = "${queue.archive.cron:0 30 2 * * *}")
+    public void run() {
+        createFuturePartitions();
+        archiveClosedTokens();
+        detachExpiredPartitions();
+        dataVersions.bumpAll();
+    }
+
+    private void createFuturePartitions() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= futurePartitions; i++) {
+            archiveRepository.createPartitionIfMissing(today.plusDays(i));
+        }
+    }
+
+    private void archiveClosedTokens() {
+        var cutoff = LocalDate.now().minusDays(liveDays - 1L).atStartOfDay();
+
+        // every row needs a partition to land in
+        archiveRepository.daysWithClosedTokensBefore(cutoff, CLOSED_STATUSES)
+                .forEach(archiveRepository::createPartitionIfMissing);
+
+        long total = 0;
+        int moved;
+        do {
+            moved = transactionTemplate.execute(status ->
+                    archiveRepository.moveClosedTokens(cutoff, CLOSED_STATUSES, batchSize));
+            total += moved;
+        } while (moved == batchSize);
+
+        log.info("Archived {} closed tokens created before {}", total, cutoff);
+    }
+
+    private void detachExpiredPartitions() {
+        LocalDate oldestKept = LocalDate.now().minusDays(retentionDays);
+        for (String partition : archiveRepository.attachedPartitionsBefore(oldestKept)) {
+            archiveRepository.detachPartition(partition);
+            log.info("Detached archive partition {}", partition);
+        }
+    }
+}
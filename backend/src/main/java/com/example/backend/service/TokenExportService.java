@@ -0,0 +1,230 @@
+package com.example.backend.service;
+
+import com.example.backend.datasource.Bulkhead;
+import com.example.backend.datasource.Reporting;
+import com.example.backend.dto.TokenExportRow;
+import com.example.backend.repository.TokenExportRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Streams token history (archived and live) as CSV or JSON lines.
+ *
+ * Rows come off a forward-only cursor, queue.export.fetch-size per round
+ * trip, and are written out one at a time, so heap use does not grow with
+ * the range. Exports run on the reporting pool like the dashboards, with the
+ * pool's statement timeout replaced by queue.export.statement-timeout-ms for
+ * the export's own transaction. At most queue.export.max-concurrent exports
+ * run per node, which leaves the other reporting connections to dashboards.
+ */
+@Slf4j
+@Service
+@Reporting
+public class TokenExportService {
+
+    public enum Format {
+        CSV("text/csv;charset=UTF-8", "csv"),
+        JSONL("application/x-ndjson;charset=UTF-8", "jsonl");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public static Format of(String name) {
+            try {
+                return valueOf(name.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Unknown export format: " + name);
+            }
+        }
+    }
+
+    /** Opens the response body. Called at the first row, so errors before it can still be reported. */
+    @FunctionalInterface
+    public interface Target {
+        OutputStream open() throws IOException;
+    }
+
+    private static final String CSV_HEADER = "id,tokenNumber,serviceId,serviceName,doctorId,doctorName,"
+            + "patientId,status,priorityType,createdAt,calledAt,completedAt\n";
+    private static final DateTimeFormatter CSV_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final TokenExportRepository exportRepository;
+    private final ObjectMapper objectMapper;
+    private final Bulkhead exports;
+
+    @Value("${queue.export.fetch-size:1000}")
+    private int fetchSize;
+
+    @Value("${queue.export.statement-timeout-ms:0}")
+    private long statementTimeoutMs;
+
+    public TokenExportService(TokenExportRepository exportRepository,
+                              ObjectMapper objectMapper,
+                              MeterRegistry registry,
+                              @Value("${queue.export.max-concurrent:1}") int maxConcurrent) {
+        this.exportRepository = exportRepository;
+        this.objectMapper = objectMapper;
+        // no waiting line: an export holds its slot for minutes
+        this.exports = new Bulkhead("export", maxConcurrent, 0, 0, registry);
+    }
+
+    /**
+     * Tokens created on from..to (inclusive), optionally for one department
+     * and/or doctor. Returns the number of rows written.
+     */
+    @Transactional(readOnly = true)
+    public long export(LocalDate from, LocalDate to, Long serviceId, Long doctorId, Format format, Target target) {
+        if (from.isAfter(to)) {
+            throw new RuntimeException("Invalid date range");
+        }
+        exports.acquire();
+        long start = System.currentTimeMillis();
+        try {
+            RowSink sink = new RowSink(format, target);
+            exportRepository.setLocalStatementTimeout(statementTimeoutMs);
+            exportRepository.stream(from.atStartOfDay(), to.plusDays(1).atStartOfDay(), serviceId, doctorId,
+                    fetchSize, rs -> sink.write(map(rs)));
+            sink.finish();
+            log.info("Exported {} tokens from {} to {} as {} in {} ms",
+                    sink.rows, from, to, format, System.currentTimeMillis() - start);
+            return sink.rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            exports.release();
+        }
+    }
+
+    private final class RowSink {
+        private final Format format;
+        private final Target target;
+        private final StringBuilder line = new StringBuilder(256);
+        private Writer writer;
+        private long rows;
+
+        RowSink(Format format, Target target) {
+            this.format = format;
+            this.target = target;
+        }
+
+        void write(TokenExportRow row) {
+            try {
+                open();
+                line.setLength(0);
+                if (format == Format.CSV) {
+                    csv(row);
+                } else {
+                    line.append(objectMapper.writeValueAsString(row));
+                }
+                writer.append(line).append('\n');
+                rows++;
+            } catch (IOException e) {
+                // client went away; abandons the cursor with the transaction
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Only a complete export is closed (which also writes the gzip trailer);
+         * a failed one is left for the container to abort, so it can't pass for whole.
+         */
+        void finish() throws IOException {
+            open();
+            writer.close();
+        }
+
+        private void open() throws IOException {
+            if (writer == null) {
+                writer = new BufferedWriter(
+                        new OutputStreamWriter(target.open(), StandardCharsets.UTF_8), BUFFER_CHARS);
+                if (format == Format.CSV) {
+                    writer.write(CSV_HEADER);
+                }
+            }
+        }
+
+        private void csv(TokenExportRow row) {
+            line.append(row.getId()).append(',');
+            csvText(row.getTokenNumber()).append(',');
+            line.append(row.getServiceId()).append(',');
+            csvText(row.getServiceName()).append(',');
+            line.append(row.getDoctorId() != null ? row.getDoctorId() : "").append(',');
+            csvText(row.getDoctorName()).append(',');
+            line.append(row.getPatientId()).append(',');
+            csvText(row.getStatus()).append(',');
+            csvText(row.getPriorityType()).append(',');
+            csvTime(row.getCreatedAt()).append(',');
+            csvTime(row.getCalledAt()).append(',');
+            csvTime(row.getCompletedAt());
+        }
+
+        private StringBuilder csvText(String value) {
+            if (value == null) {
+                return line;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                    && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return line.append(value);
+            }
+            return line.append('"').append(value.replace("\"", "\"\"")).append('"');
+        }
+
+        private StringBuilder csvTime(LocalDateTime value) {
+            return value == null ? line : line.append(CSV_TIME.format(value));
+        }
+    }
+
+    private static TokenExportRow map(ResultSet rs) throws SQLException {
+        return new TokenExportRow(
+                rs.getLong("id"),
+                rs.getString("token_number"),
+                rs.getLong("service_id"),
+                rs.getString("service_name"),
+                rs.getObject("doctor_id", Long.class),
+                rs.getString("doctor_name"),
+                rs.getLong("patient_id"),
+                rs.getString("status"),
+                rs.getString("priority_type"),
+                toLocalDateTime(rs.getTimestamp("created_at")),
+                toLocalDateTime(rs.getTimestamp("called_at")),
+                toLocalDateTime(rs.getTimestamp("completed_at"))
+        );
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CreatePatientTokenRequest;
+import com.example.backend.dto.TokenResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Makes kiosk token creation idempotent on this node.
+ *
+ * Requests are keyed by their Idempotency-Key header, or, without one, by
+ * phone + department + doctor + urgency for a short window. The first
+ * request creates the token; concurrent duplicates wait on the same result
+ * and later retries get the cached response: no insert, no token number,
+ * no broadcast. Entries expire and the map is LRU-bounded.
+ */
+@Slf4j
+@Component
+public class TokenIdempotencyCache {
+
+    private final long keyTtlMillis;
+    private final long fallbackWindowMillis;
+    private final int maxEntries;
+
+    private final Map<String, Entry> entries;
+
+    public TokenIdempotencyCache(
+            @Value("${queue.idempotency.key-ttl-seconds:600}") long keyTtlSeconds,
+            @Value("${queue.idempotency.fallback-window-seconds:30}") long fallbackWindowSeconds,
+            @Value("${queue.idempotency.max-entries:10000}") int maxEntries) {
+        this.keyTtlMillis = keyTtlSeconds * 1000;
+        this.fallbackWindowMillis = fallbackWindowSeconds * 1000;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > TokenIdempotencyCache.this.maxEntries;
+            }
+        };
+    }
+
+    public TokenResponse createOnce(String idempotencyKey,
+                                    CreatePatientTokenRequest request,
+                                    Supplier<TokenResponse> create) {
+        boolean explicit = idempotencyKey != null && !idempotencyKey.isBlank();
+        String key = explicit ? "key:" + idempotencyKey : "auto:" + fingerprint(request);
+        String fingerprint = fingerprint(request);
+        long now = System.currentTimeMillis();
+
+        CompletableFuture<TokenResponse> result;
+        boolean owner = false;
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry == null || entry.expiresAt < now) {
+                entry = new Entry(fingerprint, now + (explicit ? keyTtlMillis : fallbackWindowMillis));
+                entries.put(key, entry);
+                owner = true;
+            } else if (!entry.fingerprint.equals(fingerprint)) {
+                throw new IdempotencyKeyReusedException();
+            }
+            result = entry.result;
+        }
+
+        if (owner) {
+            try {
+                result.complete(create.get());
+            } catch (RuntimeException e) {
+                // a failed attempt must not be replayed; let the next retry try again
+                synchronized (entries) {
+                    entries.remove(key);
+                }
+                result.completeExceptionally(e);
+                throw e;
+            }
+        } else {
+            log.debug("Duplicate token request {} answered from cache", key);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    private static String fingerprint(CreatePatientTokenRequest request) {
+        String phone = request.getPatient() != null ? request.getPatient().getPhone() : null;
+        return String.join("|",
+                Objects.toString(phone == null ? null : phone.trim()),
+                Objects.toString(request.getServiceTypeId()),
+                Objects.toString(request.getDoctorId()),
+                Boolean.toString(request.isUrgent()));
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAt;
+        final CompletableFuture<TokenResponse> result = new CompletableFuture<>();
+
+        Entry(String fingerprint, long expiresAt) {
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.backend.service;
 
+import com.example.backend.analytics.TokenTransitions;
+import com.example.backend.datasource.Reporting;
+import com.example.backend.dispatch.DoctorDispatcher;
 import com.example.backend.dto.CreatePatientDto;
 import com.example.backend.dto.CreatePatientTokenRequest;
 import com.example.backend.dto.CreateTokenRequest;
@@ -21,6 +24,7 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -34,8 +38,12 @@ public class TokenService {
     private final QueueEventPublisher eventPublisher;
     private final PatientRepository patientRepository;
     private final CounterRepository counterRepository;
+    private final TokenTransitions transitions;
+    private final DoctorDispatcher doctorDispatcher;
 // Inside TokenService.java
 
+    @Transactional(readOnly = true)
+    @Reporting
     public List<Token> getTokensByStatus(TokenStatus status) {
         // Assuming you have a TokenRepository injected as 'tokenRepository'
         return tokenRepository.findByStatus(status);
@@ -57,6 +65,7 @@ public class TokenService {
         token.setTokenNumber(generateTokenNumber(serviceType));
 
         Token saved = tokenRepository.save(token);
+        transitions.record(saved, null);
 
         eventPublisher.publishQueueUpdate(
                 new QueueEvent("TOKEN_CREATED",
@@ -169,6 +178,7 @@ public class TokenService {
             token.setStatus(TokenStatus.PENDING_APPROVAL);
 
             Token saved = tokenRepository.save(token);
+            transitions.record(saved, null);
 
             eventPublisher.publishQueueUpdate(
                     new QueueEvent(
@@ -189,19 +199,23 @@ public class TokenService {
         token.setApproved(true);
         token.setStatus(TokenStatus.WAITING);
 
-        return tokenRepository.save(token);
+        Token saved = tokenRepository.save(token);
+        transitions.record(saved, null);
+        return saved;
     }
 
 
     private String generateTokenNumber(ServiceType serviceType) {
         // Example: CASH → C101, DOCTOR → D205
         String prefix = serviceType.getName().substring(0, 1).toUpperCase();
-        long count = tokenRepository.count();
+        // numbering restarts every day; closed tokens are archived out of the live table
+        long count = tokenRepository.countByCreatedAtGreaterThanEqual(LocalDate.now().atStartOfDay());
         return prefix + (100 + count);
     }
 
     @Transactional
     public void updateStatus(Token token, TokenStatus status) {
+        TokenStatus from = token.getStatus();
         token.setStatus(status);
         if (status == TokenStatus.CALLED) {
             token.setCalledAt(LocalDateTime.now());
@@ -210,6 +224,7 @@ public class TokenService {
             token.setCompletedAt(LocalDateTime.now());
         }
         tokenRepository.save(token);
+        transitions.record(token, from);
     }
     @Transactional
     public Token approveEmergency(Long tokenId) {
@@ -218,13 +233,11 @@ public class TokenService {
         if (token.getPriorityType() != TokenPriority.URGENT) {
             throw new RuntimeException("Not an emergency token");
         }
+        TokenStatus from = token.getStatus();
+        Counter fromDoctor = token.getDoctor();
         token.setApproved(true);
         token.setStatus(TokenStatus.WAITING);
-        Optional<Counter> freeDoctor =
-                counterRepository.findFirstByDepartmentsContainsAndAvailability(
-                        token.getServiceType(),
-                        DoctorAvailability.AVAILABLE
-                );
+        Optional<Counter> freeDoctor = doctorDispatcher.assign(token.getServiceType());
 
         if (freeDoctor.isPresent()) {
             Counter doctor = freeDoctor.get();
@@ -235,6 +248,7 @@ public class TokenService {
         }
 
         Token saved = tokenRepository.save(token);
+        transitions.record(saved, from, fromDoctor);
         QueueEvent event = new QueueEvent(
                 "EMERGENCY_APPROVED",
                 token.getTokenNumber(),
@@ -258,10 +272,12 @@ public class TokenService {
             throw new RuntimeException("Not an emergency token");
         }
 
+        TokenStatus from = token.getStatus();
         token.setApproved(false);
         token.setStatus(TokenStatus.CANCELLED);
 
         tokenRepository.save(token);
+        transitions.record(token, from);
 
         eventPublisher.publishQueueUpdate(
                 new QueueEvent(
@@ -0,0 +1,162 @@
+package com.example.backend.service;
+
+import com.example.backend.dto.CreatePatientDto;
+import com.example.backend.dto.CreatePatientTokenRequest;
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.CounterStatus;
+import com.example.backend.entity.enums.SchedulingPolicyType;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.security.JwtUtil;
+import com.example.backend.websocket.QueueEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Warms the instance up before it reports ready. Runners run before Spring
+ * Boot publishes ReadinessState.ACCEPTING_TRAFFIC, so
+ * /actuator/health/readiness stays OUT_OF_SERVICE until this returns.
+ *
+ * Each iteration runs the kiosk -> call-next -> ETA path in one transaction
+ * that is always rolled back. It uses a synthetic department, doctor and
+ * patient that no other transaction can see, so real tokens are never read
+ * for update. Nothing is published: transitions, dispatcher load and
+ * version bumps only apply after commit, and CounterService (which
+ * broadcasts) is not used. Identity values consumed by the rolled-back
+ * inserts leave gaps in the ids.
+ *
+ * Also: opens queue.warmup.connections pool connections, signs and checks
+ * JWTs, runs the dashboard summary (reporting pool, if enabled), and sends
+ * one STOMP message to a topic nobody subscribes to.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "queue.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmUpRunner implements ApplicationRunner {
+
+    private final TransactionTemplate transactionTemplate;
+    private final TokenService tokenService;
+    private final QueueService queueService;
+    private final EtaService etaService;
+    private final AdminDashboardService dashboardService;
+    private final ServiceTypeRepository serviceTypeRepository;
+    private final CounterRepository counterRepository;
+    private final JwtUtil jwtUtil;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final DataSource dataSource;
+
+    @Value("${queue.warmup.iterations:200}")
+    private int iterations;
+
+    @Value("${queue.warmup.max-ms:15000}")
+    private long maxMs;
+
+    @Value("${queue.warmup.connections:5}")
+    private int connections;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.currentTimeMillis();
+        openConnections();
+
+        UserDetails staff = User.withUsername("warmup").password("").roles("STAFF").build();
+        int done = 0;
+        try {
+            while (done < iterations && System.currentTimeMillis() - start < maxMs) {
+                iteration(done);
+                String jwt = jwtUtil.generateToken(staff);
+                jwtUtil.isTokenValid(jwt, staff);
+                if (done % 10 == 0) {
+                    dashboardService.getSummary();
+                }
+                done++;
+            }
+            messagingTemplate.convertAndSend("/topic/warmup",
+                    new QueueEvent("WARMUP", null, null, null, null));
+        } catch (RuntimeException e) {
+            // a cold instance is still better than none
+            log.warn("Warm-up stopped after {} iterations: {}", done, e.getMessage());
+        }
+        log.info("Warm-up ran {} iterations in {} ms", done, System.currentTimeMillis() - start);
+    }
+
+    private void iteration(int n) {
+        transactionTemplate.executeWithoutResult(status -> {
+            String run = "warmup-" + UUID.randomUUID();
+
+            ServiceType department = new ServiceType();
+            department.setName(run);
+            department.setAvgServiceTime(5);
+            // both policies get compiled
+            department.setSchedulingPolicy(n % 2 == 0
+                    ? SchedulingPolicyType.STRICT_PRIORITY
+                    : SchedulingPolicyType.WEIGHTED_AGING);
+            department = serviceTypeRepository.save(department);
+
+            Counter doctor = new Counter();
+            doctor.setName(run);
+            doctor.setStatus(CounterStatus.OPEN);
+            doctor.setDepartments(new HashSet<>(Set.of(department)));
+            doctor = counterRepository.save(doctor);
+
+            CreatePatientDto patient = new CreatePatientDto();
+            patient.setName("Warm-up");
+            patient.setPhone(run);
+            CreatePatientTokenRequest request = new CreatePatientTokenRequest();
+            request.setPatient(patient);
+            request.setServiceTypeId(department.getId());
+
+            Token token = tokenService.createPatientToken(request);
+            etaService.calculateEtaMinutes(department, token);
+            queueService.getNextToken(department, doctor);
+
+            status.setRollbackOnly();
+        });
+    }
+
+    private void openConnections() {
+        List<Connection> held = new ArrayList<>();
+        try {
+            for (int i = 0; i < connections; i++) {
+                Connection connection = dataSource.getConnection();
+                held.add(connection);
+                // forces a physical connection behind lazy proxies
+                try (Statement st = connection.createStatement()) {
+                    st.execute("select 1");
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("Warm-up could not open {} connections: {}", connections, e.getMessage());
+        } finally {
+            for (Connection connection : held) {
+                try {
+                    connection.close();
+                } catch (SQLException ignored) {
+                    // returned to the pool either way
+                }
+            }
+        }
+    }
+}
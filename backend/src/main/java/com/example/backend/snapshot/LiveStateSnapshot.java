@@ -0,0 +1,266 @@
+package com.example.backend.snapshot;
+
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.TokenStatusRow;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * The live queue as one node knew it at highWaterMark, and its file format.
+ * No Spring; LiveStateSnapshots writes, reads and reconciles it.
+ *
+ * Tokens are the open ones plus today's completions, so every lane count
+ * the node keeps in memory (waiting per department and doctor, serving,
+ * served today) can be derived, and a changed row can replace its old
+ * state without double counting. Doctors carry their round-robin position;
+ * series is TokenTimeSeries' own export.
+ *
+ * File: magic, format version, highWaterMark (epoch millis), source
+ * (datasource url), the status names used, then
+ *   tokens   id, serviceTypeId, doctorId (-1 = none), status index, completedAt (-1 = none)
+ *   doctors  id, round-robin position
+ *   series   length-prefixed bytes
+ * and a CRC32 of all of it. Anything that doesn't check out is rejected whole.
+ */
+public class LiveStateSnapshot {
+
+    private static final int MAGIC = 0x51534E50; // "QSNP"
+    private static final int FORMAT_VERSION = 1;
+    private static final Set<TokenStatus> OPEN = EnumSet.of(
+            TokenStatus.WAITING, TokenStatus.CALLED, TokenStatus.SERVING, TokenStatus.PENDING_APPROVAL);
+
+    private record TokenState(long serviceTypeId, Long doctorId, TokenStatus status, long completedAt) {
+    }
+
+    private final long highWaterMark;
+    private final String source;
+    private final Map<Long, TokenState> tokens;
+    private final Map<Long, Long> assignmentOrder;
+    private final byte[] series;
+
+    private LiveStateSnapshot(long highWaterMark, String source, Map<Long, TokenState> tokens,
+                              Map<Long, Long> assignmentOrder, byte[] series) {
+        this.highWaterMark = highWaterMark;
+        this.source = source;
+        this.tokens = tokens;
+        this.assignmentOrder = assignmentOrder;
+        this.series = series;
+    }
+
+    /** rows: every open token and today's completions, read after highWaterMark. */
+    public static LiveStateSnapshot of(LocalDateTime highWaterMark, String source, List<TokenStatusRow> rows,
+                                       Map<Long, Long> assignmentOrder, byte[] series) {
+        LiveStateSnapshot snapshot = new LiveStateSnapshot(
+                toMillis(highWaterMark), source, new HashMap<>(rows.size()), Map.copyOf(assignmentOrder), series);
+        rows.forEach(row -> snapshot.tokens.put(row.getId(), state(row)));
+        return snapshot;
+    }
+
+    /**
+     * Brings the tokens up to date with rows changed since the high-water
+     * mark. Idempotent per row, so the delta may overlap what the snapshot
+     * already had. Returns how many rows it looked at.
+     */
+    public int apply(List<TokenStatusRow> changed, LocalDateTime startOfDay) {
+        long dayStart = toMillis(startOfDay);
+        for (TokenStatusRow row : changed) {
+            TokenState state = state(row);
+            boolean tracked = OPEN.contains(state.status())
+                    || (state.status() == TokenStatus.COMPLETED && state.completedAt() >= dayStart);
+            if (tracked) {
+                tokens.put(row.getId(), state);
+            } else {
+                tokens.remove(row.getId());
+            }
+        }
+        return changed.size();
+    }
+
+    public Map<Long, Long> waitingByService() {
+        Map<Long, Long> counts = new HashMap<>();
+        tokens.values().stream()
+                .filter(t -> t.status() == TokenStatus.WAITING)
+                .forEach(t -> counts.merge(t.serviceTypeId(), 1L, Long::sum));
+        return counts;
+    }
+
+    public Map<Long, Long> waitingByDoctor() {
+        return countByDoctor(TokenStatus.WAITING, Long.MIN_VALUE);
+    }
+
+    public Map<Long, Long> servingByDoctor() {
+        return countByDoctor(TokenStatus.SERVING, Long.MIN_VALUE);
+    }
+
+    public Map<Long, Long> servedByDoctor(LocalDateTime since) {
+        return countByDoctor(TokenStatus.COMPLETED, toMillis(since));
+    }
+
+    public long openCount() {
+        return tokens.values().stream().filter(t -> OPEN.contains(t.status())).count();
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    public LocalDateTime getHighWaterMark() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(highWaterMark), ZoneId.systemDefault());
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public Map<Long, Long> getAssignmentOrder() {
+        return assignmentOrder;
+    }
+
+    public byte[] getSeries() {
+        return series;
+    }
+
+    // -------------------------------
+    // FILE
+    // -------------------------------
+
+    /** Written next to the target and renamed over it, so readers see the old file or the new one. */
+    public void write(Path file) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + tokens.size() * 33 + series.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeLong(highWaterMark);
+        out.writeUTF(source);
+
+        TokenStatus[] statuses = TokenStatus.values();
+        out.writeByte(statuses.length);
+        for (TokenStatus status : statuses) {
+            out.writeUTF(status.name());
+        }
+
+        out.writeInt(tokens.size());
+        for (Map.Entry<Long, TokenState> e : tokens.entrySet()) {
+            TokenState t = e.getValue();
+            out.writeLong(e.getKey());
+            out.writeLong(t.serviceTypeId());
+            out.writeLong(t.doctorId() != null ? t.doctorId() : -1);
+            out.writeByte(t.status().ordinal());
+            out.writeLong(t.completedAt());
+        }
+
+        out.writeInt(assignmentOrder.size());
+        for (Map.Entry<Long, Long> e : assignmentOrder.entrySet()) {
+            out.writeLong(e.getKey());
+            out.writeLong(e.getValue());
+        }
+
+        out.writeInt(series.length);
+        out.write(series);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path tmp = parent.resolve(file.getFileName() + ".tmp");
+        try (FileOutputStream stream = new FileOutputStream(tmp.toFile())) {
+            bytes.writeTo(stream);
+            stream.getFD().sync();
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static LiveStateSnapshot read(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        if (data.length < 12) {
+            throw new IOException("Snapshot " + file + " is truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, data.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(data, data.length - 4, 4).getInt()) {
+            throw new IOException("Snapshot " + file + " fails its checksum");
+        }
+
+        DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Arrays.copyOf(data, data.length - 4)));
+        if (in.readInt() != MAGIC) {
+            throw new IOException(file + " is not a live-state snapshot");
+        }
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported snapshot format " + version);
+        }
+        long highWaterMark = in.readLong();
+        String source = in.readUTF();
+
+        // by name, so reordering the enum doesn't misread old files
+        TokenStatus[] statuses = new TokenStatus[in.readUnsignedByte()];
+        for (int i = 0; i < statuses.length; i++) {
+            statuses[i] = TokenStatus.valueOf(in.readUTF());
+        }
+
+        int tokenCount = in.readInt();
+        Map<Long, TokenState> tokens = new HashMap<>(tokenCount * 2);
+        for (int i = 0; i < tokenCount; i++) {
+            long id = in.readLong();
+            long serviceTypeId = in.readLong();
+            long doctorId = in.readLong();
+            TokenStatus status = statuses[in.readUnsignedByte()];
+            long completedAt = in.readLong();
+            tokens.put(id, new TokenState(serviceTypeId, doctorId >= 0 ? doctorId : null, status, completedAt));
+        }
+
+        int doctorCount = in.readInt();
+        Map<Long, Long> assignmentOrder = new HashMap<>(doctorCount * 2);
+        for (int i = 0; i < doctorCount; i++) {
+            assignmentOrder.put(in.readLong(), in.readLong());
+        }
+
+        byte[] series = new byte[in.readInt()];
+        in.readFully(series);
+
+        return new LiveStateSnapshot(highWaterMark, source, tokens, assignmentOrder, series);
+    }
+
+    private Map<Long, Long> countByDoctor(TokenStatus status, long completedSince) {
+        Map<Long, Long> counts = new HashMap<>();
+        tokens.values().stream()
+                .filter(t -> t.status() == status && t.doctorId() != null && t.completedAt() >= completedSince)
+                .forEach(t -> counts.merge(t.doctorId(), 1L, Long::sum));
+        return counts;
+    }
+
+    private static TokenState state(TokenStatusRow row) {
+        return new TokenState(
+                row.getServiceTypeId(),
+                row.getDoctorId(),
+                row.getStatus(),
+                row.getCompletedAt() != null ? toMillis(row.getCompletedAt()) : -1);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.backend.snapshot;
+
+import com.example.backend.analytics.TokenTimeSeries;
+import com.example.backend.datasource.ReadYourWrites;
+import com.example.backend.dispatch.DoctorDispatcher;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.TokenRepository;
+import com.example.backend.repository.TokenStatusRow;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Warm restarts. Every queue.snapshot.interval-ms (and on shutdown) the
+ * node writes its live queue state to queue.snapshot.file; on start-up it
+ * loads that file, reads only the tokens updated since the snapshot's
+ * high-water mark (minus queue.snapshot.overlap-seconds for commits that
+ * were still in flight) and hands the reconciled lane counts to the
+ * dispatcher and the time series, which then skip their cold queries.
+ *
+ * A file from another database, an earlier day or older than
+ * queue.snapshot.max-age-minutes is ignored, as is one whose open-token
+ * count disagrees with the database after reconciling (rows deleted
+ * since); start-up then loads cold as before.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "queue.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class LiveStateSnapshots {
+
+    private static final List<TokenStatus> OPEN = List.of(
+            TokenStatus.WAITING, TokenStatus.CALLED, TokenStatus.SERVING, TokenStatus.PENDING_APPROVAL);
+
+    private final TokenRepository tokenRepository;
+    private final DoctorDispatcher doctorDispatcher;
+    private final TokenTimeSeries timeSeries;
+
+    @Value("${queue.snapshot.file:snapshot/live-state.bin}")
+    private String file;
+
+    @Value("${queue.snapshot.max-age-minutes:120}")
+    private long maxAgeMinutes;
+
+    @Value("${queue.snapshot.overlap-seconds:60}")
+    private long overlapSeconds;
+
+    @Value("${spring.datasource.url}")
+    private String datasourceUrl;
+
+    // nothing is written before start-up had its chance to read the old file
+    private volatile boolean started;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE) // ahead of the cold loads it replaces
+    @ReadYourWrites
+    public void restore() {
+        try {
+            restoreFrom(Path.of(file));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Not using live-state snapshot {}: {}", file, e.getMessage());
+        } finally {
+            started = true;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${queue.snapshot.interval-ms:30000}", initialDelayString = "${queue.snapshot.interval-ms:30000}")
+    public void write() {
+        if (!started) {
+            return;
+        }
+        try {
+            long begin = System.nanoTime();
+            LocalDateTime highWaterMark = LocalDateTime.now();
+            List<TokenStatusRow> rows = tokenRepository.findLiveState(OPEN, highWaterMark.toLocalDate().atStartOfDay());
+            LiveStateSnapshot snapshot = LiveStateSnapshot.of(highWaterMark, datasourceUrl, rows,
+                    doctorDispatcher.assignmentOrder(), timeSeries.exportSeries());
+            snapshot.write(Path.of(file));
+            log.debug("Wrote live-state snapshot: {} tokens in {} ms",
+                    snapshot.size(), (System.nanoTime() - begin) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Live-state snapshot failed: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void writeOnShutdown() {
+        write();
+    }
+
+    private void restoreFrom(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        long begin = System.nanoTime();
+        LiveStateSnapshot snapshot = LiveStateSnapshot.read(path);
+        LocalDateTime taken = snapshot.getHighWaterMark();
+        LocalDateTime now = LocalDateTime.now();
+
+        if (!datasourceUrl.equals(snapshot.getSource())) {
+            log.info("Live-state snapshot is from another database, loading cold");
+            return;
+        }
+        if (!taken.toLocalDate().equals(now.toLocalDate()) || taken.isBefore(now.minusMinutes(maxAgeMinutes))) {
+            log.info("Live-state snapshot from {} is too old, loading cold", taken);
+            return;
+        }
+
+        LocalDateTime startOfDay = now.toLocalDate().atStartOfDay();
+        int changed = snapshot.apply(tokenRepository.findChangedSince(taken.minusSeconds(overlapSeconds)), startOfDay);
+
+        // deletes never show up in the delta; a mismatch means the file no longer describes these rows
+        long open = tokenRepository.countByStatusIn(OPEN);
+        if (open != snapshot.openCount()) {
+            log.info("Live-state snapshot disagrees with the database ({} open tokens vs {}), loading cold",
+                    snapshot.openCount(), open);
+            return;
+        }
+
+        doctorDispatcher.load(snapshot.waitingByDoctor(), snapshot.servingByDoctor(),
+                snapshot.servedByDoctor(startOfDay), snapshot.getAssignmentOrder());
+        timeSeries.seedDepth(snapshot.waitingByService(), snapshot.waitingByDoctor());
+        timeSeries.importSeries(snapshot.getSeries());
+
+        log.info("Warm start from live-state snapshot of {}: {} tokens, {} changed since, {} ms",
+                taken, snapshot.size(), changed, (System.nanoTime() - begin) / 1_000_000);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.backend.versioning;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Serves the handler's response with a strong ETag derived from the domain's
+ * version; a matching If-None-Match gets 304 before the handler runs.
+ * Only for reads whose result changes solely through writes that bump
+ * the domain (see DataVersions).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConditionalGet {
+
+    DataDomain value();
+
+    /** Path variable holding the key for keyed domains (QUEUE). */
+    String key() default "";
+}
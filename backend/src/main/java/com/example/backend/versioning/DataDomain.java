@@ -0,0 +1,8 @@
+package com.example.backend.versioning;
+
+public enum DataDomain {
+    SERVICES,
+    COUNTERS,
+    QUEUE,       // keyed per service type
+    DASHBOARD
+}
@@ -0,0 +1,114 @@
+package com.example.backend.versioning;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version per data domain (and per service type for QUEUE).
+ * Bumped after commit by writes; read on every conditional GET.
+ *
+ * The epoch is random per process, so ETags never collide across restarts
+ * or between nodes. DASHBOARD tags also carry the date, because "today"
+ * figures change at midnight without any write.
+ *
+ * Other nodes' writes reach this node through the event bus, which calls
+ * bumpAll(). Where that can't happen (the local bus behind a load balancer,
+ * a lost NOTIFY) every tag also carries a time bucket of
+ * queue.etag.max-age-seconds (0 disables), so a stale 304 lasts at most that long.
+ */
+@Component
+public class DataVersions {
+
+    private final String epoch = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Map<DataDomain, AtomicLong> versions = new EnumMap<>(DataDomain.class);
+    private final Map<Long, AtomicLong> queueVersions = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<DataDomain, AtomicLong> changedAt = new EnumMap<>(DataDomain.class);
+
+    @Value("${queue.etag.max-age-seconds:30}")
+    private long maxAgeSeconds;
+
+    public DataVersions() {
+        for (DataDomain domain : DataDomain.values()) {
+            versions.put(domain, new AtomicLong());
+            changedAt.put(domain, new AtomicLong());
+        }
+    }
+
+    public void bump(DataDomain domain) {
+        versions.get(domain).incrementAndGet();
+        changedAt.get(domain).set(System.currentTimeMillis());
+    }
+
+    public void bumpQueue(Long serviceTypeId) {
+        bump(DataDomain.QUEUE);
+        if (serviceTypeId != null) {
+            queueVersions.computeIfAbsent(serviceTypeId, k -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /** For changes we can't attribute: bulk statements, other nodes' writes. */
+    public void bumpAll() {
+        versions.values().forEach(AtomicLong::incrementAndGet);
+        generation.incrementAndGet();
+        long now = System.currentTimeMillis();
+        changedAt.values().forEach(at -> at.set(now));
+    }
+
+    /** bumpAll once the current transaction commits (immediately if there is none). */
+    public void bumpAllAfterCommit() {
+        afterCommit(this::bumpAll);
+    }
+
+    /** Wall-clock millis of the domain's last bump (0 if never). */
+    public long changedAt(DataDomain domain) {
+        return changedAt.get(domain).get();
+    }
+
+    public String etag(DataDomain domain, Long key) {
+        String version;
+        if (domain == DataDomain.QUEUE && key != null) {
+            // never insert on read: keys come straight from request paths
+            AtomicLong keyed = queueVersions.get(key);
+            version = generation.get() + "." + (keyed == null ? 0 : keyed.get());
+        } else {
+            version = Long.toString(versions.get(domain).get());
+        }
+
+        StringBuilder tag = new StringBuilder("\"")
+                .append(domain.name().toLowerCase()).append('-');
+        if (key != null) {
+            tag.append(key).append('-');
+        }
+        tag.append(epoch).append('-').append(version);
+        if (domain == DataDomain.DASHBOARD) {
+            tag.append('-').append(LocalDate.now());
+        }
+        if (maxAgeSeconds > 0) {
+            tag.append('-').append(System.currentTimeMillis() / 1000 / maxAgeSeconds);
+        }
+        return tag.append('"').toString();
+    }
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
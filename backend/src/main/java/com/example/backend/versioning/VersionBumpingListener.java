@@ -0,0 +1,50 @@
+package com.example.backend.versioning;
+
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.ServiceMetric;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.websocket.QueueEventBus;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener (instantiated through Spring's bean container) that
+ * bumps the affected domains once the writing transaction has committed.
+ * Bumping at flush time would let a concurrent reader pair the new tag
+ * with still-uncommitted old data and then serve 304s for it. Other nodes
+ * learn about the write through the event bus.
+ */
+@Component
+@RequiredArgsConstructor
+public class VersionBumpingListener {
+
+    private final DataVersions dataVersions;
+    // lazily: the bus depends on beans that need the EntityManagerFactory this listener is part of
+    private final ObjectProvider<QueueEventBus> eventBus;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void changed(Object entity) {
+        DataVersions.afterCommit(() -> {
+            if (entity instanceof Token token) {
+                dataVersions.bumpQueue(token.getServiceType() != null ? token.getServiceType().getId() : null);
+                dataVersions.bump(DataDomain.DASHBOARD);
+            } else if (entity instanceof Counter) {
+                dataVersions.bump(DataDomain.COUNTERS);
+                dataVersions.bump(DataDomain.DASHBOARD);
+            } else if (entity instanceof ServiceType) {
+                dataVersions.bump(DataDomain.SERVICES);
+                dataVersions.bump(DataDomain.DASHBOARD);
+            } else if (entity instanceof ServiceMetric) {
+                dataVersions.bump(DataDomain.DASHBOARD);
+            }
+            eventBus.ifAvailable(QueueEventBus::dataChanged);
+        });
+    }
+}
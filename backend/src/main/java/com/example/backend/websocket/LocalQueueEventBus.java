@@ -0,0 +1,17 @@
+package com.example.backend.websocket;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node mode: the local simple broker already reached every subscriber.
+ */
+@Component
+@ConditionalOnProperty(name = "queue.events.bus", havingValue = "local", matchIfMissing = true)
+public class LocalQueueEventBus implements QueueEventBus {
+
+    @Override
+    public void broadcast(String destination, QueueEvent event) {
+        // nothing to forward
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.backend.websocket;
+
+import com.example.backend.config.NodeIdentity;
+import com.example.backend.metrics.QueueMetrics;
+import com.example.backend.versioning.DataVersions;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import tools.jackson.databind.ObjectMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Inter-node event bus over Postgres LISTEN/NOTIFY.
+ *
+ * Outgoing events are queued and flushed every few milliseconds as one NOTIFY
+ * per batch (a JSON array of envelopes, kept under the 8000 byte payload limit).
+ * The outbox holds at most queue.events.outbox-capacity envelopes; while
+ * Postgres is unreachable the oldest are dropped past that, reconnects back
+ * off up to queue.events.max-backoff-ms, and a batch whose NOTIFY failed
+ * goes back to the head of the outbox. An envelope too large for any batch
+ * is dropped when published. Drops are counted as queue.events.bus.dropped.
+ * A dedicated listener connection receives batches from the other nodes,
+ * drops our own and already-seen event ids, and rebroadcasts the rest to the
+ * local simple broker.
+ *
+ * dataChanged() calls are coalesced into at most one DATA_CHANGED envelope
+ * per flush; like any event from another node, it makes the receivers
+ * revalidate every ETag, and it is not rebroadcast to STOMP.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "queue.events.bus", havingValue = "postgres")
+public class PostgresQueueEventBus implements QueueEventBus {
+
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int SEEN_IDS_CAPACITY = 10_000;
+    private static final String DATA_CHANGED = "data-changed"; // not a STOMP destination
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final NodeIdentity nodeIdentity;
+    private final QueueMetrics queueMetrics;
+    private final DataVersions dataVersions;
+
+    @Value("${spring.datasource.url}")
+    private String url;
+
+    @Value("${spring.datasource.username}")
+    private String username;
+
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    @Value("${queue.events.channel:queue_events}")
+    private String channel;
+
+    @Value("${queue.events.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    @Value("${queue.events.outbox-capacity:10000}")
+    private int outboxCapacity;
+
+    @Value("${queue.events.max-backoff-ms:5000}")
+    private long maxBackoffMs;
+
+    private BlockingDeque<String> outbox;
+    private final AtomicBoolean dataChanged = new AtomicBoolean();
+
+    // only touched by the flusher thread (and by stop() once it has finished)
+    private long backoffMs;
+    private long nextAttemptAt;
+
+    // only touched by the listener thread
+    private final Set<String> seenIds = Collections.newSetFromMap(
+            new LinkedHashMap<String, Boolean>(SEEN_IDS_CAPACITY, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > SEEN_IDS_CAPACITY;
+                }
+            });
+
+    private ScheduledExecutorService flusher;
+    private Thread listener;
+    private Connection notifyConnection;
+    private volatile boolean running;
+
+    public PostgresQueueEventBus(SimpMessagingTemplate messagingTemplate,
+                                 ObjectMapper objectMapper,
+                                 NodeIdentity nodeIdentity,
+                                 QueueMetrics queueMetrics,
+                                 DataVersions dataVersions) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.nodeIdentity = nodeIdentity;
+        this.queueMetrics = queueMetrics;
+        this.dataVersions = dataVersions;
+    }
+
+    @PostConstruct
+    void start() {
+        running = true;
+        outbox = new LinkedBlockingDeque<>(outboxCapacity);
+
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "queue-bus-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        listener = new Thread(this::listen, "queue-bus-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        listener.interrupt();
+        closeQuietly(notifyConnection);
+    }
+
+    @Override
+    public void broadcast(String destination, QueueEvent event) {
+        enqueue(destination, event);
+    }
+
+    @Override
+    public void dataChanged() {
+        dataChanged.set(true);
+    }
+
+    private void enqueue(String destination, QueueEvent event) {
+        QueueEventEnvelope envelope = new QueueEventEnvelope(
+                UUID.randomUUID().toString(),
+                nodeIdentity.getId(),
+                destination,
+                System.currentTimeMillis(),
+                event
+        );
+        String json = objectMapper.writeValueAsString(envelope);
+        int bytes = json.getBytes(StandardCharsets.UTF_8).length;
+        if (bytes + 2 > MAX_PAYLOAD_BYTES) {
+            // would fail every NOTIFY it is sent in; local subscribers already have it
+            log.warn("Not forwarding {} event to other nodes: {} bytes exceeds the NOTIFY limit",
+                    destination, bytes);
+            queueMetrics.recordBusDrop("oversize");
+            return;
+        }
+        while (!outbox.offerLast(json)) {
+            if (outbox.pollFirst() != null) {
+                queueMetrics.recordBusDrop("overflow");
+            }
+        }
+    }
+
+    // -------------------------------
+    // OUTGOING
+    // -------------------------------
+
+    private void flush() {
+        if (System.currentTimeMillis() < nextAttemptAt) {
+            return;
+        }
+        if (dataChanged.getAndSet(false)) {
+            enqueue(DATA_CHANGED, null);
+        }
+        if (outbox.isEmpty()) {
+            return;
+        }
+        List<String> batch = new ArrayList<>();
+        try {
+            if (notifyConnection == null || notifyConnection.isClosed()) {
+                notifyConnection = DriverManager.getConnection(url, username, password);
+            }
+            int bytes = 1; // '['; each envelope adds its ',' or the closing ']'
+            String next;
+            while ((next = outbox.peekFirst()) != null) {
+                int size = next.getBytes(StandardCharsets.UTF_8).length + 1;
+                if (!batch.isEmpty() && bytes + size > MAX_PAYLOAD_BYTES) {
+                    send(batch);
+                    batch.clear();
+                    bytes = 1;
+                    continue;
+                }
+                batch.add(outbox.pollFirst());
+                bytes += size;
+            }
+            if (!batch.isEmpty()) {
+                send(batch);
+                batch.clear();
+            }
+            backoffMs = 0;
+        } catch (SQLException e) {
+            // the unsent batch goes back in front of whatever was queued meanwhile
+            for (int i = batch.size() - 1; i >= 0; i--) {
+                if (!outbox.offerFirst(batch.get(i))) {
+                    queueMetrics.recordBusDrop("overflow");
+                }
+            }
+            backoffMs = backoffMs == 0 ? flushIntervalMs : Math.min(backoffMs * 2, maxBackoffMs);
+            nextAttemptAt = System.currentTimeMillis() + backoffMs;
+            log.warn("Queue event flush failed, {} queued, retrying in {} ms: {}",
+                    outbox.size(), backoffMs, e.getMessage());
+            closeQuietly(notifyConnection);
+            notifyConnection = null;
+        }
+    }
+
+    private void send(List<String> batch) throws SQLException {
+        try (PreparedStatement ps = notifyConnection.prepareStatement("select pg_notify(?, ?)")) {
+            ps.setString(1, channel);
+            ps.setString(2, "[" + String.join(",", batch) + "]");
+            ps.execute();
+        }
+    }
+
+    // -------------------------------
+    // INCOMING
+    // -------------------------------
+
+    private void listen() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                try (Statement st = conn.createStatement()) {
+                    st.execute("LISTEN " + channel);
+                }
+                PGConnection pg = conn.unwrap(PGConnection.class);
+                log.info("Listening for queue events on channel '{}' as node {}", channel, nodeIdentity.getId());
+
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(500);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification n : notifications) {
+                        receive(n.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Queue event listener lost its connection, retrying: {}", e.getMessage());
+                sleepQuietly(1000);
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        QueueEventEnvelope[] batch;
+        try {
+            batch = objectMapper.readValue(payload, QueueEventEnvelope[].class);
+        } catch (RuntimeException e) {
+            log.warn("Dropping unreadable queue event batch: {}", e.getMessage());
+            return;
+        }
+
+        List<QueueEventEnvelope> fresh = new ArrayList<>(batch.length);
+        for (QueueEventEnvelope envelope : batch) {
+            if (nodeIdentity.getId().equals(envelope.getNode())) {
+                continue;
+            }
+            if (seenIds.add(envelope.getId())) {
+                fresh.add(envelope);
+            }
+        }
+
+        if (!fresh.isEmpty()) {
+            // another node wrote something; we can't tell what, so revalidate everything
+            dataVersions.bumpAll();
+        }
+
+        long now = System.currentTimeMillis();
+        for (QueueEventEnvelope envelope : fresh) {
+            if (DATA_CHANGED.equals(envelope.getDestination())) {
+                continue;
+            }
+            messagingTemplate.convertAndSend(envelope.getDestination(), envelope.getEvent());
+
+            queueMetrics.recordBusLatency(Math.max(0, now - envelope.getSentAt()));
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // already gone
+        }
+    }
+}
@@ -2,9 +2,11 @@ package com.example.backend.websocket;
 
 import lombok.AllArgsConstructor;
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 
 @Getter
 @AllArgsConstructor
+@NoArgsConstructor
 public class QueueEvent {
 
     private String type;      // TOKEN_CREATED, TOKEN_CALLED, TOKEN_COMPLETED
@@ -0,0 +1,21 @@
+package com.example.backend.websocket;
+
+/**
+ * Carries queue events between backend nodes.
+ *
+ * QueueEventPublisher always delivers to its own STOMP subscribers first and
+ * then hands the event to the bus; the bus is responsible for rebroadcasting
+ * it to the subscribers connected to every other node.
+ */
+public interface QueueEventBus {
+
+    void broadcast(String destination, QueueEvent event);
+
+    /**
+     * Tells the other nodes that this node committed a write, so they stop
+     * answering 304 for ETags taken before it. Covers writes that publish
+     * no queue event (service and doctor admin edits).
+     */
+    default void dataChanged() {
+    }
+}
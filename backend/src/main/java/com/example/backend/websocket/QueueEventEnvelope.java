@@ -0,0 +1,17 @@
+package com.example.backend.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class QueueEventEnvelope {
+
+    private String id;           // unique per published event, used for dedupe
+    private String node;         // origin node id
+    private String destination;  // STOMP destination on the origin node
+    private long sentAt;         // epoch millis, for cross-node latency
+    private QueueEvent event;
+}
@@ -1,5 +1,6 @@
 package com.example.backend.websocket;
 
+import com.example.backend.metrics.QueueMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
@@ -9,19 +10,28 @@ import org.springframework.stereotype.Component;
 public class QueueEventPublisher {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final QueueEventBus eventBus;
+    private final QueueMetrics queueMetrics;
 
     public void publishQueueUpdate(QueueEvent event) {
-        messagingTemplate.convertAndSend("/topic/queue-updates", event);
-        messagingTemplate.convertAndSend("/topic/display-board", event);
+        send("/topic/queue-updates", event);
+        send("/topic/display-board", event);
     }
     public void publishToPatient(String tokenNumber, QueueEvent event) {
-        messagingTemplate.convertAndSend(
+        send(
                 "/topic/patient/" + tokenNumber,
                 event
         );
     }
     public void publishCounterUpdate(QueueEvent event) {
-        messagingTemplate.convertAndSend("/topic/counter-updates", event);
+        send("/topic/counter-updates", event);
     }
-}
 
+    // Local subscribers first, then every other node via the bus
+    private void send(String destination, QueueEvent event) {
+        long start = System.nanoTime();
+        messagingTemplate.convertAndSend(destination, event);
+        queueMetrics.recordPublish(destination, System.nanoTime() - start);
+        eventBus.broadcast(destination, event);
+    }
+}
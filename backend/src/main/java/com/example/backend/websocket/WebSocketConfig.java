@@ -30,16 +30,28 @@ package com.example.backend.websocket;
 
 
 
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler; // <--- Import this
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.SimpleAsyncTaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
 
 @Configuration
 @EnableWebSocketMessageBroker
-public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+public class WebSocketConfig implements WebSocketMessageBrokerConfigurer, DisposableBean {
+
+    // Same switch Spring Boot uses for Tomcat and the task executors
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private TaskScheduler heartbeatScheduler;
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
@@ -52,17 +64,56 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
-        // 1. Create a Scheduler for the heartbeats
-        ThreadPoolTaskScheduler te = new ThreadPoolTaskScheduler();
-        te.setPoolSize(1);
-        te.setThreadNamePrefix("wss-heartbeat-thread-");
-        te.initialize(); // <--- Important: Initialize it!
+        heartbeatScheduler = createHeartbeatScheduler();
 
-        // 2. Pass the scheduler to the broker
         registry.enableSimpleBroker("/topic", "/queue")
                 .setHeartbeatValue(new long[]{10000, 10000})
-                .setTaskScheduler(te); // <--- This fixes the crash
+                .setTaskScheduler(heartbeatScheduler);
 
         registry.setApplicationDestinationPrefixes("/app");
+
+        // SimpMessagingTemplate sends go through this channel: the broker fans
+        // out on a virtual thread instead of the publishing (possibly platform) thread
+        if (virtualThreads) {
+            registry.configureBrokerChannel().executor(new VirtualThreadTaskExecutor("ws-broker-"));
+        }
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (virtualThreads) {
+            registration.executor(new VirtualThreadTaskExecutor("ws-outbound-"));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (heartbeatScheduler instanceof ThreadPoolTaskScheduler pool) {
+            pool.shutdown();
+        } else if (heartbeatScheduler instanceof SimpleAsyncTaskScheduler simple) {
+            simple.close();
+        }
+    }
+
+    private TaskScheduler createHeartbeatScheduler() {
+        if (virtualThreads) {
+            SimpleAsyncTaskScheduler scheduler = new SimpleAsyncTaskScheduler();
+            scheduler.setVirtualThreads(true);
+            scheduler.setThreadNamePrefix("wss-heartbeat-");
+            return scheduler;
+        }
+
+        ThreadPoolTaskScheduler te = new ThreadPoolTaskScheduler();
+        te.setPoolSize(1);
+        te.setThreadNamePrefix("wss-heartbeat-thread-");
+        te.initialize();
+        return te;
     }
-}
\ No newline at end of file
+}
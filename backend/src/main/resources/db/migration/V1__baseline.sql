@@ -0,0 +1,127 @@
+-- Baseline: the schema ddl-auto=update produced for the entities as of this
+-- migration. Existing databases are baselined at version 1 instead of
+-- running it (spring.flyway.baseline-on-migrate in the fast-start profile).
+-- tokens_archive and its day partitions stay managed by TokenArchiveJob.
+
+CREATE TABLE service_types (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                     VARCHAR(255) NOT NULL,
+    avg_service_time         INTEGER      NOT NULL,
+    priority_allowed         BOOLEAN      NOT NULL,
+    work_stealing_enabled    BOOLEAN,
+    steal_min_lane_size      INTEGER,
+    steal_min_wait_minutes   INTEGER,
+    scheduling_policy        VARCHAR(255),
+    emergency_weight_minutes INTEGER,
+    CONSTRAINT service_types_name_key UNIQUE (name)
+);
+
+CREATE TABLE counters (
+    id                   BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name                 VARCHAR(255) NOT NULL,
+    status               VARCHAR(255) NOT NULL,
+    version              BIGINT,
+    available            BOOLEAN      NOT NULL,
+    availability         VARCHAR(255),
+    max_patients_per_day INTEGER
+);
+
+CREATE TABLE doctor_departments (
+    counter_id      BIGINT NOT NULL REFERENCES counters (id),
+    service_type_id BIGINT NOT NULL REFERENCES service_types (id),
+    PRIMARY KEY (counter_id, service_type_id)
+);
+
+CREATE TABLE patients (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    age        INTEGER,
+    gender     VARCHAR(255),
+    phone      VARCHAR(255) NOT NULL,
+    medical_id VARCHAR(255),
+    created_at TIMESTAMP(6),
+    CONSTRAINT patients_phone_key UNIQUE (phone),
+    CONSTRAINT patients_medical_id_key UNIQUE (medical_id)
+);
+
+CREATE TABLE tokens (
+    id            BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    token_number  VARCHAR(255) NOT NULL,
+    service_id    BIGINT       NOT NULL REFERENCES service_types (id),
+    status        VARCHAR(255) NOT NULL,
+    priority      BOOLEAN      NOT NULL,
+    priority_type VARCHAR(255) NOT NULL,
+    approved      BOOLEAN      NOT NULL,
+    patient_id    BIGINT       NOT NULL REFERENCES patients (id),
+    doctor_id     BIGINT REFERENCES counters (id),
+    created_at    TIMESTAMP(6),
+    called_at     TIMESTAMP(6),
+    completed_at  TIMESTAMP(6),
+    version       BIGINT
+);
+
+CREATE INDEX tokens_service_status_created_idx ON tokens (service_id, status, created_at);
+CREATE INDEX tokens_doctor_status_created_idx ON tokens (doctor_id, status, created_at);
+CREATE INDEX tokens_created_idx ON tokens (created_at);
+
+CREATE TABLE service_metrics (
+    id                       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    service_type_id          BIGINT REFERENCES service_types (id),
+    avg_service_time_minutes FLOAT(53) NOT NULL,
+    total_tokens_served      BIGINT    NOT NULL,
+    last_updated             TIMESTAMP(6),
+    CONSTRAINT service_metrics_service_type_id_key UNIQUE (service_type_id)
+);
+
+CREATE TABLE users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username   VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    role       VARCHAR(255),
+    counter_id BIGINT REFERENCES counters (id),
+    version    BIGINT,
+    CONSTRAINT users_username_key UNIQUE (username),
+    CONSTRAINT users_counter_id_key UNIQUE (counter_id)
+);
+
+CREATE TABLE daily_service_rollups (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    service_type_id     BIGINT NOT NULL REFERENCES service_types (id),
+    rollup_date         DATE   NOT NULL,
+    arrivals            BIGINT NOT NULL,
+    completed           BIGINT NOT NULL,
+    cancelled           BIGINT NOT NULL,
+    skipped             BIGINT NOT NULL,
+    avg_wait_minutes    FLOAT(53),
+    p90_wait_minutes    FLOAT(53),
+    avg_service_minutes FLOAT(53),
+    p90_service_minutes FLOAT(53),
+    CONSTRAINT daily_service_rollups_service_day_key UNIQUE (service_type_id, rollup_date)
+);
+
+CREATE TABLE daily_doctor_rollups (
+    id                  BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    doctor_id           BIGINT NOT NULL REFERENCES counters (id),
+    rollup_date         DATE   NOT NULL,
+    assigned            BIGINT NOT NULL,
+    completed           BIGINT NOT NULL,
+    skipped             BIGINT NOT NULL,
+    avg_wait_minutes    FLOAT(53),
+    p90_wait_minutes    FLOAT(53),
+    avg_service_minutes FLOAT(53),
+    p90_service_minutes FLOAT(53),
+    CONSTRAINT daily_doctor_rollups_doctor_day_key UNIQUE (doctor_id, rollup_date)
+);
+
+CREATE TABLE latency_sketches (
+    id           BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    node_id      VARCHAR(255) NOT NULL,
+    scope        VARCHAR(255) NOT NULL,
+    subject_id   BIGINT       NOT NULL,
+    metric       VARCHAR(255) NOT NULL,
+    sketch_date  DATE         NOT NULL,
+    sample_count BIGINT       NOT NULL,
+    data         BYTEA        NOT NULL,
+    updated_at   TIMESTAMP(6),
+    CONSTRAINT latency_sketches_key UNIQUE (node_id, scope, subject_id, metric, sketch_date)
+);
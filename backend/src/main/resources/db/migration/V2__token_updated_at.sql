@@ -0,0 +1,8 @@
+-- Live-state snapshots reconcile a restarting node from rows changed since
+-- their high-water mark. Rows written before this stay NULL; any snapshot
+-- taken afterwards already holds the ones that matter.
+-- Databases created by ddl-auto already have both (baselined at V1).
+
+ALTER TABLE tokens ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+
+CREATE INDEX IF NOT EXISTS tokens_updated_idx ON tokens (updated_at);
@@ -2,8 +2,14 @@ package com.example.backend;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
+/**
+ * Starts the whole context on the in-memory database, so bean cycles and
+ * wiring mistakes fail the build without a Postgres to run against.
+ */
 @SpringBootTest
+@ActiveProfiles("embedded")
 class BackendApplicationTests {
 
 	@Test
@@ -0,0 +1,69 @@
+package com.example.backend;
+
+import com.example.backend.dispatch.DoctorDispatcher;
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.enums.CounterStatus;
+import com.example.backend.entity.enums.DoctorAvailability;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.TokenRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DoctorDispatcherTest {
+
+    @Test
+    void aCappedDoctorWithAnEmptyLaneDoesNotBlockTheDepartment() {
+        ServiceType department = new ServiceType();
+        department.setId(1L);
+        Counter capped = doctor(10L, department, 5);
+        Counter withRoom = doctor(11L, department, 40);
+
+        CounterRepository counters = mock(CounterRepository.class);
+        when(counters.findAllWithDepartmentsBy()).thenReturn(List.of(capped, withRoom));
+        when(counters.findById(11L)).thenReturn(Optional.of(withRoom));
+
+        DoctorDispatcher dispatcher = new DoctorDispatcher(counters, mock(TokenRepository.class));
+        // capped: nobody queued, 5 of 5 seen; withRoom: one waiting, 10 of 40 seen
+        dispatcher.load(Map.of(11L, 1L), Map.of(), Map.of(10L, 5L, 11L, 10L), null);
+
+        Optional<Counter> picked = dispatcher.assign(department);
+
+        assertTrue(picked.isPresent());
+        assertEquals(11L, picked.get().getId());
+    }
+
+    @Test
+    void nobodyIsPickedOnceEveryDoctorIsCapped() {
+        ServiceType department = new ServiceType();
+        department.setId(1L);
+
+        CounterRepository counters = mock(CounterRepository.class);
+        when(counters.findAllWithDepartmentsBy()).thenReturn(List.of(doctor(10L, department, 5)));
+
+        DoctorDispatcher dispatcher = new DoctorDispatcher(counters, mock(TokenRepository.class));
+        dispatcher.load(Map.of(), Map.of(), Map.of(10L, 5L), null);
+
+        assertTrue(dispatcher.assign(department).isEmpty());
+    }
+
+    private static Counter doctor(long id, ServiceType department, int maxPatientsPerDay) {
+        Counter c = new Counter();
+        c.setId(id);
+        c.setName("Dr " + id);
+        c.setStatus(CounterStatus.OPEN);
+        c.setAvailability(DoctorAvailability.AVAILABLE);
+        c.setMaxPatientsPerDay(maxPatientsPerDay);
+        c.setDepartments(Set.of(department));
+        return c;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.backend;
+
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails any request whose handler runs more SQL statements than its
+ * @QueryBudget allows (the statement over budget throws
+ * QueryBudgetExceededException, so the call returns 500).
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+// a second context in this JVM; the default one already holds the journal directory
+@TestPropertySource(properties = {"queue.sql.budget.enforce=true", "queue.journal.enabled=false"})
+public @interface EnforceQueryBudgets {
+}
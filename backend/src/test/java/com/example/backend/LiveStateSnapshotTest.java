@@ -0,0 +1,118 @@
+package com.example.backend;
+
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.TokenStatusRow;
+import com.example.backend.snapshot.LiveStateSnapshot;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LiveStateSnapshotTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2026, 3, 2, 0, 0);
+    private static final String SOURCE = "jdbc:postgresql://localhost:5432/queue";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void survivesTheRoundTrip() throws IOException {
+        Path file = dir.resolve("live-state.bin");
+        snapshot().write(file);
+
+        LiveStateSnapshot read = LiveStateSnapshot.read(file);
+
+        assertEquals(DAY.plusHours(10), read.getHighWaterMark());
+        assertEquals(SOURCE, read.getSource());
+        assertEquals(Map.of(1L, 2L, 2L, 1L), read.waitingByService());
+        assertEquals(Map.of(10L, 1L), read.waitingByDoctor());
+        assertEquals(Map.of(11L, 1L), read.servingByDoctor());
+        assertEquals(Map.of(10L, 1L), read.servedByDoctor(DAY));
+        assertEquals(Map.of(10L, 7L, 11L, 3L), read.getAssignmentOrder());
+        assertArrayEquals(new byte[]{1, 2, 3}, read.getSeries());
+        assertEquals(4, read.openCount());
+    }
+
+    @Test
+    void deltaReplacesTokensWithoutDoubleCounting() {
+        LiveStateSnapshot snapshot = snapshot();
+
+        snapshot.apply(List.of(
+                row(1, 1, 10L, TokenStatus.SERVING, null),                      // called off the lane
+                row(2, 1, null, TokenStatus.CANCELLED, null),                   // gone
+                row(6, 2, 11L, TokenStatus.WAITING, null),                      // new arrival
+                row(6, 2, 11L, TokenStatus.WAITING, null),                      // overlap: seen twice
+                row(4, 2, 11L, TokenStatus.COMPLETED, DAY.plusHours(10))        // finished
+        ), DAY);
+
+        assertEquals(Map.of(2L, 2L), snapshot.waitingByService());
+        assertEquals(Map.of(11L, 1L), snapshot.waitingByDoctor());
+        assertEquals(Map.of(10L, 1L), snapshot.servingByDoctor());
+        assertEquals(Map.of(10L, 1L, 11L, 1L), snapshot.servedByDoctor(DAY));
+        assertEquals(3, snapshot.openCount());
+    }
+
+    @Test
+    void rejectsACorruptFile() throws IOException {
+        Path file = dir.resolve("live-state.bin");
+        snapshot().write(file);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(raf.length() / 2);
+            int b = raf.read();
+            raf.seek(raf.length() / 2);
+            raf.write(b ^ 0x01);
+        }
+
+        assertThrows(IOException.class, () -> LiveStateSnapshot.read(file));
+    }
+
+    private static LiveStateSnapshot snapshot() {
+        return LiveStateSnapshot.of(DAY.plusHours(10), SOURCE, List.of(
+                row(1, 1, 10L, TokenStatus.WAITING, null),
+                row(2, 1, null, TokenStatus.WAITING, null),
+                row(3, 2, null, TokenStatus.WAITING, null),
+                row(4, 2, 11L, TokenStatus.SERVING, null),
+                row(5, 1, 10L, TokenStatus.COMPLETED, DAY.plusHours(9))
+        ), Map.of(10L, 7L, 11L, 3L), new byte[]{1, 2, 3});
+    }
+
+    private static TokenStatusRow row(long id, long serviceTypeId, Long doctorId, TokenStatus status,
+                                      LocalDateTime completedAt) {
+        return new TokenStatusRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getServiceTypeId() {
+                return serviceTypeId;
+            }
+
+            @Override
+            public Long getDoctorId() {
+                return doctorId;
+            }
+
+            @Override
+            public TokenStatus getStatus() {
+                return status;
+            }
+
+            @Override
+            public LocalDateTime getCompletedAt() {
+                return completedAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.backend;
+
+import com.example.backend.search.PatientIndex;
+import com.example.backend.search.PatientIndex.Hit;
+import com.example.backend.search.PatientIndex.Match;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Prefix, typo and fuzzy-name lookups, and re-indexing a changed patient.
+ */
+class PatientIndexTest {
+
+    private PatientIndex index() {
+        PatientIndex index = new PatientIndex();
+        index.put(1, "Jonathan Smith", "98765 43210", "MRN-0042");
+        index.put(2, "Ravi Kumar", "9876500000", null);
+        index.put(3, "Anita Desai", "9123456789", "MRN-0107");
+        index.put(4, "José Álvarez", "9000011111", null);
+        return index;
+    }
+
+    @Test
+    void phonePrefixIgnoresFormatting() {
+        List<Hit> hits = index().search("98765", 10);
+        assertEquals(2, hits.size());
+        assertTrue(hits.stream().allMatch(h -> h.match() == Match.PHONE));
+    }
+
+    @Test
+    void mistypedPhoneFindsTheOneEditNeighbour() {
+        PatientIndex index = index();
+        // wrong digit, swapped digits, extra digit
+        for (String typo : List.of("9123456780", "9213456789", "91234567789")) {
+            List<Hit> hits = index.search(typo, 10);
+            assertEquals(1, hits.size(), typo);
+            assertEquals(3, hits.get(0).id(), typo);
+            assertEquals(Match.PHONE_TYPO, hits.get(0).match(), typo);
+        }
+    }
+
+    @Test
+    void phoneMissingItsLastDigitIsStillAPrefix() {
+        List<Hit> hits = index().search("912345678", 10);
+        assertEquals(1, hits.size());
+        assertEquals(Match.PHONE, hits.get(0).match());
+    }
+
+    @Test
+    void medicalIdPrefix() {
+        List<Hit> hits = index().search("mrn01", 10);
+        assertEquals(1, hits.size());
+        assertEquals(3, hits.get(0).id());
+        assertEquals(Match.MEDICAL_ID, hits.get(0).match());
+    }
+
+    @Test
+    void misspeltNamesMatch() {
+        PatientIndex index = index();
+        assertEquals(1, index.search("Jonatan Smith", 10).get(0).id());
+        assertEquals(2, index.search("ravi kumaar", 10).get(0).id());
+        assertEquals(4, index.search("jose alvarez", 10).get(0).id());
+        assertTrue(index.search("Priya Nair", 10).isEmpty());
+    }
+
+    @Test
+    void changedPatientIsFoundOnlyUnderTheNewValues() {
+        PatientIndex index = index();
+        index.put(2, "Ravi Kumar", "9555512345", null);
+
+        assertEquals(4, index.size());
+        assertTrue(index.search("98765000", 10).isEmpty());
+        assertEquals(2, index.search("95555", 10).get(0).id());
+        assertEquals(1, index.search("ravi kumar", 10).size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.backend;
+
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.Patient;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.CounterStatus;
+import com.example.backend.entity.enums.TokenPriority;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.PatientRepository;
+import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.repository.TokenRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Calls every @QueryBudget endpoint with budgets enforced: one statement
+ * over fails the request instead of only being logged.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@AutoConfigureMockMvc
+@EnforceQueryBudgets
+@WithMockUser(roles = "ADMIN")
+class QueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+    @Autowired
+    private CounterRepository counterRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private ServiceType department;
+    private Counter doctor;
+    private String phone;
+
+    @BeforeEach
+    void seed() {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+
+        department = new ServiceType();
+        department.setName("Budget " + run);
+        department.setAvgServiceTime(5);
+        department = serviceTypeRepository.save(department);
+
+        doctor = new Counter();
+        doctor.setName("Dr Budget " + run);
+        doctor.setStatus(CounterStatus.OPEN);
+        doctor.getDepartments().add(department);
+        doctor = counterRepository.save(doctor);
+
+        phone = "budget-" + run;
+        Patient patient = new Patient();
+        patient.setName("Budget patient");
+        patient.setPhone(phone);
+        patient = patientRepository.save(patient);
+
+        // more than one visit, so a per-row lazy load would show up as extra statements
+        for (int i = 0; i < 3; i++) {
+            Token token = new Token();
+            token.setTokenNumber("QB" + i);
+            token.setServiceType(department);
+            token.setPatient(patient);
+            token.setDoctor(doctor);
+            token.setStatus(TokenStatus.COMPLETED);
+            token.setPriorityType(TokenPriority.NORMAL);
+            token.setApproved(true);
+            token.setCreatedAt(LocalDateTime.now().minusMinutes(30 - i));
+            token.setCompletedAt(LocalDateTime.now().minusMinutes(20 - i));
+            tokenRepository.save(token);
+        }
+    }
+
+    @AfterEach
+    void clean() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void dashboardStaysWithinItsBudgets() throws Exception {
+        LocalDate today = LocalDate.now();
+        for (String uri : List.of(
+                "/api/admin/dashboard/summary",
+                "/api/admin/dashboard/doctors",
+                "/api/admin/dashboard/services",
+                "/api/admin/dashboard/history/services?from=" + today.minusDays(7) + "&to=" + today,
+                "/api/admin/dashboard/history/doctors?from=" + today.minusDays(7) + "&to=" + today,
+                "/api/admin/dashboard/timeseries?scope=service&id=" + department.getId())) {
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    void patientHistoryStaysWithinItsBudgets() throws Exception {
+        for (String uri : List.of(
+                "/api/patients/history?phone=" + phone,
+                "/api/patients/history/service/" + department.getId() + "?phone=" + phone,
+                "/api/patients/history/doctor/" + doctor.getId() + "?phone=" + phone)) {
+            mockMvc.perform(get(uri)).andExpect(status().isOk());
+        }
+    }
+}
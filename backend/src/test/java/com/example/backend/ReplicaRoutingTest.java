@@ -0,0 +1,66 @@
+package com.example.backend;
+
+import com.example.backend.datasource.ReadYourWritesContext;
+import com.example.backend.datasource.ReplicaSet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Needs a second local Postgres running as a streaming standby of the
+ * primary, e.g. QUEUE_REPLICA_URLS=jdbc:postgresql://localhost:5433/smart_queue
+ * (the standby answers pg_is_in_recovery() with true, the primary with false).
+ */
+// a second context in this JVM; the default one already holds the journal directory
+@SpringBootTest(properties = {"queue.replicas.enabled=true", "queue.journal.enabled=false"})
+@EnabledIfEnvironmentVariable(named = "QUEUE_REPLICA_URLS", matches = ".+")
+class ReplicaRoutingTest {
+
+    private static final String IN_RECOVERY = "select pg_is_in_recovery()";
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReplicaSet replicaSet;
+
+    @BeforeEach
+    void probe() {
+        replicaSet.probe();
+    }
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        assertTrue(inRecovery(true));
+    }
+
+    @Test
+    void writesStayOnThePrimary() {
+        assertFalse(inRecovery(false));
+    }
+
+    @Test
+    void readYourWritesPinsToThePrimary() {
+        ReadYourWritesContext.enter();
+        try {
+            assertFalse(inRecovery(true));
+        } finally {
+            ReadYourWritesContext.exit();
+        }
+    }
+
+    private boolean inRecovery(boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        tx.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(tx.execute(status -> jdbcTemplate.queryForObject(IN_RECOVERY, Boolean.class)));
+    }
+}
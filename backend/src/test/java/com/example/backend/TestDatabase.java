@@ -0,0 +1,31 @@
+package com.example.backend;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Cleanup for the tests that write to the "test" profile's database.
+ */
+final class TestDatabase {
+
+    private TestDatabase() {
+    }
+
+    /**
+     * Empties every table of the current schema. Refuses to touch a database
+     * whose name does not end in _test, so a misconfigured datasource fails
+     * the test instead of wiping real data.
+     */
+    static void clean(JdbcTemplate jdbcTemplate) {
+        String database = jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+        if (database == null || !database.endsWith("_test")) {
+            throw new IllegalStateException("Refusing to empty " + database + ": not a *_test database");
+        }
+        List<String> tables = jdbcTemplate.queryForList(
+                "SELECT tablename FROM pg_tables WHERE schemaname = current_schema()", String.class);
+        if (!tables.isEmpty()) {
+            jdbcTemplate.execute("TRUNCATE " + String.join(", ", tables) + " CASCADE");
+        }
+    }
+}
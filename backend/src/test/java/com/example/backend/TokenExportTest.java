@@ -0,0 +1,133 @@
+package com.example.backend;
+
+import com.example.backend.entity.Patient;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.repository.PatientRepository;
+import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.repository.TokenArchiveRepository;
+import com.example.backend.service.TokenExportService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.OutputStream;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports 5M archived tokens through the real cursor path into a sink that
+ * only counts lines. Surefire runs this class alone with -Xmx256m (the
+ * export-test execution), so buffering the rows anywhere (driver, service
+ * or writer) ends in OutOfMemoryError. The rows go into a throwaway
+ * partition of the test database, filled once for the class and dropped
+ * afterwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class TokenExportTest {
+
+    private static final int ROWS = 5_000_000;
+    // its archive partition is created and dropped here
+    private static final LocalDate DAY = LocalDate.of(2000, 1, 3);
+    private static final String PARTITION = "tokens_archive_20000103";
+
+    @Autowired
+    private TokenExportService exportService;
+    @Autowired
+    private TokenArchiveRepository archiveRepository;
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long departmentId;
+
+    @BeforeAll
+    void fill() {
+        ServiceType department = new ServiceType();
+        department.setName("Export");
+        department.setAvgServiceTime(5);
+        departmentId = serviceTypeRepository.save(department).getId();
+
+        Patient patient = new Patient();
+        patient.setName("Export patient");
+        patient.setPhone("export-0");
+        long patientId = patientRepository.save(patient).getId();
+
+        archiveRepository.createTableIfMissing();
+        archiveRepository.createPartitionIfMissing(DAY);
+        jdbcTemplate.execute("TRUNCATE " + PARTITION);
+        jdbcTemplate.update("""
+                INSERT INTO tokens_archive (id, token_number, service_id, status, priority, priority_type,
+                                            approved, patient_id, doctor_id, created_at, called_at, completed_at, version)
+                SELECT g, 'EXP-' || g, ?, 'COMPLETED', false, 'NORMAL', true, ?, NULL,
+                       ? + (g % 86400) * interval '1 second', NULL, NULL, 0
+                FROM generate_series(1, ?) g
+                """, departmentId, patientId, Timestamp.valueOf(DAY.atStartOfDay()), ROWS);
+    }
+
+    @AfterAll
+    void drop() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + PARTITION);
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void streamsMillionsOfRowsInASmallHeap() {
+        assertTrue(Runtime.getRuntime().maxMemory() <= 512L * 1024 * 1024,
+                "needs the small surefire heap to mean anything");
+
+        LineCounter csv = new LineCounter();
+        long rows = exportService.export(DAY, DAY, null, null, TokenExportService.Format.CSV, () -> csv);
+
+        assertEquals(ROWS, rows);
+        assertEquals(ROWS + 1, csv.lines); // header
+        assertTrue(csv.closed);
+    }
+
+    @Test
+    void filtersApplyToTheArchive() {
+        LineCounter jsonl = new LineCounter();
+        long rows = exportService.export(DAY, DAY, departmentId, -1L, TokenExportService.Format.JSONL, () -> jsonl);
+
+        assertEquals(0, rows);
+        assertEquals(0, jsonl.lines);
+    }
+
+    private static final class LineCounter extends OutputStream {
+        long lines;
+        boolean closed;
+
+        @Override
+        public void write(int b) {
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
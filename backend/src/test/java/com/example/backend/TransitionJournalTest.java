@@ -0,0 +1,151 @@
+package com.example.backend;
+
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.journal.JournalEntry;
+import com.example.backend.journal.SegmentedJournal;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransitionJournalTest {
+
+    // small segments so a few hundred records roll over several files
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replaysEverythingInOrderAcrossSegmentsAndRestarts() throws IOException {
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 500; i++) {
+                assertEquals(i, append(journal, i));
+            }
+        }
+        assertTrue(segmentFiles().size() > 5);
+
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            assertEquals(500, journal.getLastSequence());
+            assertEquals(501, append(journal, 501));
+
+            List<JournalEntry> all = replay(journal, 1);
+            assertEquals(501, all.size());
+            for (int i = 0; i < all.size(); i++) {
+                JournalEntry e = all.get(i);
+                assertEquals(i + 1, e.getSequence());
+                assertEquals(i + 1, e.getTokenId());
+                assertEquals(TokenStatus.WAITING, e.getFrom());
+                assertEquals(TokenStatus.SERVING, e.getTo());
+                assertEquals("doctor" + (i + 1), e.getActor());
+            }
+        }
+    }
+
+    @Test
+    void replayStartsMidwayAndStopsWhenAsked() throws IOException {
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 300; i++) {
+                append(journal, i);
+            }
+            List<JournalEntry> page = new ArrayList<>();
+            long next = journal.replay(250, e -> {
+                page.add(e);
+                return page.size() < 10;
+            });
+            assertEquals(250, page.get(0).getSequence());
+            assertEquals(259, page.get(9).getSequence());
+            assertEquals(260, next);
+        }
+    }
+
+    @Test
+    void rollingLeavesTheRetiredSegmentsToTheNextForce() throws IOException {
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 500; i++) {
+                append(journal, i);
+            }
+            assertTrue(segmentFiles().size() > 5);
+            assertEquals(0, journal.getDurableSequence());
+
+            journal.force();
+            assertEquals(500, journal.getDurableSequence());
+        }
+    }
+
+    @Test
+    void keepsMissingFieldsMissing() throws IOException {
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            journal.append(1L, 7, 3L, null, null, TokenStatus.WAITING, "anonymous");
+            JournalEntry created = replay(journal, 1).get(0);
+            assertEquals(3L, (long) created.getServiceTypeId());
+            assertNull(created.getDoctorId());
+            assertNull(created.getFrom());
+        }
+    }
+
+    @Test
+    void dropsATornLastRecordOnOpen() throws IOException {
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            for (int i = 1; i <= 3; i++) {
+                append(journal, i);
+            }
+        }
+        // flip the last byte of record 3, as if the machine died mid-write
+        Path segment = segmentFiles().get(0);
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            long end = 0;
+            for (int i = 0; i < 3; i++) {
+                file.seek(end);
+                end += 8 + file.readInt();
+            }
+            file.seek(end - 1);
+            byte last = file.readByte();
+            file.seek(end - 1);
+            file.writeByte(last ^ 0x55);
+        }
+
+        try (SegmentedJournal journal = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            assertEquals(2, journal.getLastSequence());
+            assertEquals(3, append(journal, 33));
+            List<JournalEntry> all = replay(journal, 1);
+            assertEquals(3, all.size());
+            assertEquals(33, all.get(2).getTokenId());
+        }
+    }
+
+    @Test
+    void refusesASecondWriter() throws IOException {
+        try (SegmentedJournal ignored = SegmentedJournal.open(dir, SEGMENT_BYTES)) {
+            assertThrows(IllegalStateException.class, () -> SegmentedJournal.open(dir, SEGMENT_BYTES));
+        }
+    }
+
+    private static long append(SegmentedJournal journal, long tokenId) {
+        return journal.append(System.currentTimeMillis(), tokenId, 1L, 2L,
+                TokenStatus.WAITING, TokenStatus.SERVING, "doctor" + tokenId);
+    }
+
+    private static List<JournalEntry> replay(SegmentedJournal journal, long from) {
+        List<JournalEntry> entries = new ArrayList<>();
+        journal.replay(from, entries::add);
+        return entries;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.toString().endsWith(".seg")).sorted().toList();
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.backend;
+
+import com.example.backend.entity.Counter;
+import com.example.backend.entity.Patient;
+import com.example.backend.entity.ServiceType;
+import com.example.backend.entity.Token;
+import com.example.backend.entity.enums.CounterStatus;
+import com.example.backend.entity.enums.TokenPriority;
+import com.example.backend.entity.enums.TokenStatus;
+import com.example.backend.repository.CounterRepository;
+import com.example.backend.repository.PatientRepository;
+import com.example.backend.repository.ServiceTypeRepository;
+import com.example.backend.repository.TokenRepository;
+import com.example.backend.service.CounterService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * One doctor holds every token in their lane; three idle colleagues in the
+ * same department steal concurrently while the owner keeps serving.
+ * Every token must be called exactly once.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class WorkStealingConcurrencyTest {
+
+    private static final int TOKENS = 40;
+    private static final int THIEVES = 3;
+
+    @Autowired
+    private CounterService counterService;
+    @Autowired
+    private ServiceTypeRepository serviceTypeRepository;
+    @Autowired
+    private CounterRepository counterRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+    @Autowired
+    private TokenRepository tokenRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void clean() {
+        TestDatabase.clean(jdbcTemplate);
+    }
+
+    @Test
+    void stolenTokensAreNeverClaimedTwice() throws Exception {
+        String run = UUID.randomUUID().toString().substring(0, 8);
+
+        ServiceType department = new ServiceType();
+        department.setName("Stealing " + run);
+        department.setAvgServiceTime(5);
+        department.setWorkStealingEnabled(true);
+        department.setStealMinLaneSize(1);
+        department.setStealMinWaitMinutes(0);
+        department = serviceTypeRepository.save(department);
+
+        Counter owner = doctor("Owner " + run, department);
+        List<Counter> doctors = new ArrayList<>(List.of(owner));
+        for (int i = 0; i < THIEVES; i++) {
+            doctors.add(doctor("Thief " + i + " " + run, department));
+        }
+
+        Set<Long> created = new HashSet<>();
+        for (int i = 0; i < TOKENS; i++) {
+            Patient patient = new Patient();
+            patient.setName("Patient " + i);
+            patient.setPhone(run + "-" + i);
+            patient = patientRepository.save(patient);
+
+            Token token = new Token();
+            token.setTokenNumber("W" + i);
+            token.setServiceType(department);
+            token.setPatient(patient);
+            token.setDoctor(owner);
+            token.setStatus(TokenStatus.WAITING);
+            token.setPriorityType(TokenPriority.NORMAL);
+            token.setApproved(true);
+            token.setCreatedAt(LocalDateTime.now().minusMinutes(TOKENS - i));
+            created.add(tokenRepository.save(token).getId());
+        }
+
+        ConcurrentLinkedQueue<Long> claimed = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> stolen = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(doctors.size());
+        List<Future<?>> workers = new ArrayList<>();
+
+        ServiceType serviceType = department;
+        for (Counter doctor : doctors) {
+            workers.add(pool.submit(() -> {
+                start.await();
+                while (true) {
+                    Token token;
+                    try {
+                        token = counterService.callNextToken(doctor.getId(), serviceType);
+                    } catch (ConcurrencyFailureException lostRace) {
+                        continue;
+                    } catch (RuntimeException e) {
+                        if ("No tokens in queue".equals(e.getMessage())) {
+                            return null;
+                        }
+                        throw e;
+                    }
+                    // the department is new and emergencies stay in their own department's
+                    // lane, so anything called here is one of the tokens created above
+                    assertTrue(created.contains(token.getId()), "called a token from another department");
+                    claimed.add(token.getId());
+                    if (!doctor.getId().equals(owner.getId())) {
+                        stolen.add(token.getId());
+                    }
+                    counterService.completeToken(token.getId());
+                }
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> worker : workers) {
+            worker.get(60, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        assertEquals(TOKENS, claimed.size(), "every token called exactly once");
+        assertEquals(created, new HashSet<>(claimed), "no token called twice, none missed");
+        assertTrue(!stolen.isEmpty(), "idle doctors stole from the owner's lane");
+        tokenRepository.findAllById(created)
+                .forEach(t -> assertEquals(TokenStatus.COMPLETED, t.getStatus()));
+    }
+
+    private Counter doctor(String name, ServiceType department) {
+        Counter counter = new Counter();
+        counter.setName(name);
+        counter.setStatus(CounterStatus.OPEN);
+        counter.getDepartments().add(department);
+        return counterRepository.save(counter);
+    }
+}
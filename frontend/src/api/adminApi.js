@@ -46,3 +46,11 @@ export async function rejectEmergency(tokenId) {
   return httpClient.put(`/api/admin/emergencies/${tokenId}/reject`)
 }
 
+
+// Token transition audit trail; pass from = last sequence + 1 for the next page
+export async function fetchTransitionJournal({ from = 1, tokenId, limit = 100 } = {}) {
+  const response = await httpClient.get('/api/admin/journal', {
+    params: { from, tokenId, limit }
+  })
+  return response.data
+}
@@ -20,6 +20,13 @@ export async function fetchPatientHistoryByDoctor(phone, doctorId) {
   })
   return response.data
 }
+// Staff only: phone / medical id prefix, mistyped phone or misspelt name
+export async function searchPatients(q, limit = 10) {
+  const response = await httpClient.get('/api/patients/search', {
+    params: { q, limit }
+  })
+  return response.data
+}
 export const fetchServiceTypes = () => {
   return httpClient.get('/api/services');
 };
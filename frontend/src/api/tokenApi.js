@@ -1,7 +1,8 @@
 import httpClient from './httpClient'
 
-// Create a token linked to a patient registration
-export async function createPatientToken(payload) {
+// Create a token linked to a patient registration.
+// Retries with the same idempotencyKey return the original token.
+export async function createPatientToken(payload, idempotencyKey) {
   // Payload should match CreatePatientTokenRequest DTO on backend
   // {
   //   name: string,
@@ -11,10 +12,18 @@ export async function createPatientToken(payload) {
   //   serviceId: number,
   //   priority: boolean
   // }
-  const response = await httpClient.post('/api/tokens/patient', payload)
+  const response = await httpClient.post('/api/tokens/patient', payload, {
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
+  })
   return response.data
 }
 
+export function newIdempotencyKey() {
+  return window.crypto?.randomUUID
+    ? window.crypto.randomUUID()
+    : `${Date.now()}-${Math.random().toString(36).slice(2)}`
+}
+
 export async function getEtaForToken(tokenId) {
   const response = await httpClient.get(`/api/metrics/eta/${tokenId}`)
   // Backend returns a long representing ETA minutes
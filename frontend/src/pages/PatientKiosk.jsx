@@ -1,7 +1,7 @@
-import { useEffect, useState } from 'react'
+import { useEffect, useRef, useState } from 'react'
 import { AlertCircle, Bell, Clock, Globe, IdCard, Loader2, Printer } from 'lucide-react'
 import { fetchNonServices } from '../api/serviceApi'
-import { createPatientToken, getEtaForToken } from '../api/tokenApi'
+import { createPatientToken, getEtaForToken, newIdempotencyKey } from '../api/tokenApi'
 import { getStompClient, subscribe } from '../websocket/socket'
 
 const genders = [
@@ -27,6 +27,8 @@ export default function PatientKiosk() {
   const [tokenInfo, setTokenInfo] = useState(null)
   const [etaMinutes, setEtaMinutes] = useState(null)
   const [helpRequested, setHelpRequested] = useState(false)
+  // one key per filled-in form: double taps and retries reuse it
+  const idempotencyKey = useRef(null)
 
   useEffect(() => {
     fetchNonServices()
@@ -89,6 +91,7 @@ export default function PatientKiosk() {
 
   const handleChange = (e) => {
     const { name, value, type, checked } = e.target
+    idempotencyKey.current = null
     setForm((prev) => ({
       ...prev,
       [name]: type === 'checkbox' ? checked : value
@@ -153,7 +156,10 @@ export default function PatientKiosk() {
       urgent: Boolean(form.priority)
     }
 
-    const token = await createPatientToken(payload)
+    if (!idempotencyKey.current) {
+      idempotencyKey.current = newIdempotencyKey()
+    }
+    const token = await createPatientToken(payload, idempotencyKey.current)
     setTokenInfo(token)
 
     const eta = await getEtaForToken(token.id)
@@ -166,6 +172,7 @@ export default function PatientKiosk() {
 }
 
   const handleNewToken = () => {
+    idempotencyKey.current = null
     setTokenInfo(null)
     setEtaMinutes(null)
     sessionStorage.removeItem(ACTIVE_TOKEN_KEY)